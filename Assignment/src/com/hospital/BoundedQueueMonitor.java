@@ -1,6 +1,11 @@
 package com.hospital;
 
 import java.util.LinkedList;
+
+import com.hospital.jfr.QueuePutEvent;
+import com.hospital.jfr.QueueTakeEvent;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
 /**
  * 
  * @author gugsi
@@ -11,7 +16,7 @@ import java.util.LinkedList;
  *
  */
 
-public class BoundedQueueMonitor {
+public class BoundedQueueMonitor implements OrderQueue {
 	// shared variable - Queue of TestOrder
     private final LinkedList<TestOrder> queue = new LinkedList<>(); // Bounded Buffer
     private final int capacity; // bounded buffer will always has the maximum capacity 
@@ -24,25 +29,57 @@ public class BoundedQueueMonitor {
     // producer method - put() is the method called by the producer to add an test order
     // if the queue is full (reached the maximum capacity) - producer has to wait
     // implicit Lock - synchronized
-    public synchronized void put(TestOrder order) throws InterruptedException {
-        while (queue.size() == capacity) { // if this queue.size() == capacity is TRUE then queue is full 
-            wait(); // if the queue producer threads goes into WAITING state until at least one slot become empty
+    public void put(TestOrder order) throws InterruptedException {
+        QueuePutEvent event = new QueuePutEvent(); // JFR, only committed when a recording enables it
+        event.begin(); // before the monitor, so waiting to enter it counts too
+        synchronized (this) {
+            long blockedSince = 0;
+            while (queue.size() == capacity) { // if this queue.size() == capacity is TRUE then queue is full 
+                if (blockedSince == 0)
+                    blockedSince = System.nanoTime();
+                wait(); // if the queue producer threads goes into WAITING state until at least one slot become empty
+            }
+            order.markQueued(); // stamp the moment the order actually enters the buffer
+            queue.add(order);
+            event.end();
+            if (event.shouldCommit()) {
+                event.queue = "BoundedQueueMonitor";
+                event.orderId = order.getOrderId();
+                event.clinic = order.getClinic();
+                event.blockedTime = blockedSince == 0 ? 0 : System.nanoTime() - blockedSince;
+                event.sizeAfter = queue.size();
+                event.commit();
+            }
+            notifyAll(); // since an test order has been added to the Queue informs the Consumers (All the threads in the WAITING state)
         }
-        queue.add(order);
-        notifyAll(); // since an test order has been added to the Queue informs the Consumers (All the threads in the WAITING state)
     }
 
     // Consumer method 
     // Consumer calls the take() method to consume a test order and process it 
     // implicit Lock - synchronized
     // 
-    public synchronized TestOrder take() throws InterruptedException {
-        while (queue.isEmpty()) { // if queue.isEmpty() is TRUE meaning is nothing in the queue then consumer cannot process anything so consumers goes into WAITING state 
-            wait(); // if queue is empty Consumes goes into WAITING state 
+    public TestOrder take() throws InterruptedException {
+        QueueTakeEvent event = new QueueTakeEvent();
+        event.begin();
+        synchronized (this) {
+            long blockedSince = 0;
+            while (queue.isEmpty()) { // if queue.isEmpty() is TRUE meaning is nothing in the queue then consumer cannot process anything so consumers goes into WAITING state 
+                if (blockedSince == 0)
+                    blockedSince = System.nanoTime();
+                wait(); // if queue is empty Consumes goes into WAITING state 
+            }
+            TestOrder order = queue.removeFirst(); // removes (FIFO queue) first item from the queue  
+            event.end();
+            if (event.shouldCommit()) {
+                event.queue = "BoundedQueueMonitor";
+                event.orderId = order.getOrderId();
+                event.blockedTime = blockedSince == 0 ? 0 : System.nanoTime() - blockedSince;
+                event.sizeAfter = queue.size();
+                event.commit();
+            }
+            notifyAll(); // since at least one space become available signals all the producers in the WAITING state to wake up
+            return order;
         }
-        TestOrder order = queue.removeFirst(); // removes (FIFO queue) first item from the queue  
-        notifyAll(); // since at least one space become available signals all the producers in the WAITING state to wake up
-        return order;
     }
 
     public synchronized int size() {
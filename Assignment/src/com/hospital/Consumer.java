@@ -1,16 +1,51 @@
 package com.hospital;
 
+import com.hospital.jfr.RoleLifecycleEvent;
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.metrics.OrderLatencyRecorder;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.AckOrderQueue;
+import com.hospital.spi.Delivery;
+import com.hospital.spi.ObservablePolicyStore;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.PriorityOrderQueue;
+import com.hospital.spi.TestOrder;
+
 public class Consumer implements Runnable {
 	// shared resource - one instance of shared resource is created and shared between produce and consumer 
-    private final BoundedQueueMonitor queue;
+    private final OrderQueue queue;
     private final String analyzerName; // name for the consumer 
     private final int processingTimeMs; // sleep time to represent the processing 
     private volatile boolean running = true; // as long as this variable is TRUE the thread will be running 
+    private volatile boolean draining = false; // shutdown drain - work the queue down to an end marker
+    private volatile int completed = 0; // only this thread writes
+    private int abandoned = 0; // cut off mid-analysis and not handed back, read after join
+    private final OrderLatencyRecorder latencies; // shared per workload, lock-free histograms
+
+    // policy-driven dispatch, null policy - plain FIFO take() as before
+    // URGENT_PRIORITY: take the most urgent order first (if the queue can)
+    // MAINTENANCE: analyzers flagged drainInMaintenance stop taking orders until the policy changes
+    private final ObservablePolicyStore policy;
+    private final boolean drainInMaintenance;
+    private PolicySnapshot cachedPolicy; // only this thread touches it, refreshed when the version moves
+
+    public Consumer(OrderQueue queue, String analyzerName, int processingTimeMs) {
+        this(queue, analyzerName, processingTimeMs, new OrderLatencyRecorder());
+    }
+
+    public Consumer(OrderQueue queue, String analyzerName, int processingTimeMs, OrderLatencyRecorder latencies) {
+        this(queue, analyzerName, processingTimeMs, latencies, null, false);
+    }
 
-    public Consumer(BoundedQueueMonitor queue, String analyzerName, int processingTimeMs) {
+    public Consumer(OrderQueue queue, String analyzerName, int processingTimeMs, OrderLatencyRecorder latencies,
+            ObservablePolicyStore policy, boolean drainInMaintenance) {
         this.queue = queue;
+        this.latencies = latencies;
         this.analyzerName = analyzerName;
         this.processingTimeMs = processingTimeMs;
+        this.policy = policy;
+        this.drainInMaintenance = drainInMaintenance;
     }
 
     // signal to stop the thread 
@@ -18,21 +53,102 @@ public class Consumer implements Runnable {
         running = false;
     }
 
+    // keep taking orders (also through MAINTENANCE) until the shutdown marker comes out of the queue
+    public void drain() {
+        draining = true;
+        if (policy != null)
+            policy.changes().wakeWaiters(); // a MAINTENANCE pause ends now, not at its timeout
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getAbandoned() {
+        return abandoned;
+    }
+
+    // the cached policy mode, re-read only when the published version differs from the cached one
+    private String currentMode() {
+        if (policy == null) {
+            return null;
+        }
+        PolicySnapshot latest = policy.snapshot();
+        if (cachedPolicy == null || latest.getVersion() != cachedPolicy.getVersion()) {
+            cachedPolicy = latest;
+            Log.event(LogEvent.DISPATCH, analyzerName, dispatchMode(latest.getMode()) + " (" + latest + ")");
+        }
+        return cachedPolicy.getMode();
+    }
+
+    private String dispatchMode(String mode) {
+        if (drainInMaintenance && "MAINTENANCE".equals(mode))
+            return "maintenance - drained";
+        if ("URGENT_PRIORITY".equals(mode) && queue instanceof PriorityOrderQueue)
+            return "priority-first";
+        return "fifo";
+    }
+
     @Override
     public void run() {
+        RoleLifecycleEvent lifecycle = new RoleLifecycleEvent(); // JFR, spans the whole thread
+        lifecycle.begin();
         while (running) {
+            TestOrder order = null; // taken and not yet finished
+            Delivery delivery = null; // the lease on it, with an AckOrderQueue
             try {
-                TestOrder order = queue.take(); // consumer consumes a TestOrder
-                long waitTime = System.currentTimeMillis() - order.getCreatedAt(); // from the time it was created how much time the Tested was staying in the system
+                String mode = currentMode(); // one volatile read per order, no lock
+                if (drainInMaintenance && "MAINTENANCE".equals(mode) && !draining) {
+                    // drained - sleep until the policy moves on or a shutdown drain starts
+                    policy.changes().awaitChange(cachedPolicy.getVersion(), 1000, () -> draining);
+                    continue;
+                }
+                boolean urgent = "URGENT_PRIORITY".equals(mode);
+                if (queue instanceof AckOrderQueue) {
+                    AckOrderQueue leases = (AckOrderQueue) queue;
+                    delivery = urgent ? leases.leaseHighestPriority() : leases.lease();
+                    order = delivery.order();
+                } else {
+                    order = urgent && queue instanceof PriorityOrderQueue
+                            ? ((PriorityOrderQueue) queue).takeHighestPriority()
+                            : queue.take(); // consumer consumes a TestOrder
+                }
+                if (order.isEndMarker()) { // shutdown drain - everything queued before it is done
+                    if (delivery != null)
+                        ((AckOrderQueue) queue).ack(delivery);
+                    break;
+                }
+                order.markDequeued();
+                long waitNanos = System.nanoTime() - order.getCreatedNanos(); // from the time it was created how much time the Tested was staying in the system
 
-                System.out.println("[" + analyzerName + "] Processing: " + order + " (waited " + waitTime + "ms)");
+                Log.event(LogEvent.PROCESSING, analyzerName, order, waitNanos);
+                order.markAnalysisStart();
                 Thread.sleep(processingTimeMs); // simulate the processing 
-                System.out.println("[" + analyzerName + "] Completed: " + order);
+                order.markCompleted();
+                if (delivery != null)
+                    ((AckOrderQueue) queue).ack(delivery); // done - the lease must not expire into a redelivery
+                latencies.record(order);
+                completed++;
+                Log.event(LogEvent.COMPLETED, analyzerName, order);
             } catch (InterruptedException e) {
+                // cut off mid-analysis: with leases the order goes back to the queue, otherwise it is lost
+                if (order != null && order.getCompletedNanos() == 0) {
+                    if (delivery != null)
+                        ((AckOrderQueue) queue).release(delivery);
+                    else
+                        abandoned++;
+                }
                 Thread.currentThread().interrupt();
                 break;
             }
         }
-        System.out.println("[" + analyzerName + "] Stopped");
+        Log.event(LogEvent.STOPPED, analyzerName, null);
+        lifecycle.end();
+        if (lifecycle.shouldCommit()) {
+            lifecycle.role = "Consumer";
+            lifecycle.name = analyzerName;
+            lifecycle.orders = completed;
+            lifecycle.commit();
+        }
     }
 }
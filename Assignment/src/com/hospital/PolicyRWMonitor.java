@@ -1,5 +1,13 @@
 package com.hospital;
 
+import com.hospital.jfr.PolicyReadAcquireEvent;
+import com.hospital.jfr.PolicyWriteAcquireEvent;
+import com.hospital.jfr.PolicyWriteReleaseEvent;
+import com.hospital.metrics.RwLockMetrics;
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.ObservablePolicyStore;
+
 /**
  * 
  * @author gugsi
@@ -14,38 +22,107 @@ package com.hospital;
  * Object of this class will be shared between Reader / Writer 
  */
 
-public class PolicyRWMonitor {
+public class PolicyRWMonitor implements ObservablePolicyStore {
     private int readers = 0;
     private boolean writerActive = false;
     private int writersWaiting = 0;
     // shared variable 
     private String currentPolicy = "NORMAL";
+    private long writeAcquiredNanos; // only touched by the active writer, for the JFR hold time
+    private final PolicyChangeNotifier changes = new PolicyChangeNotifier(PolicySnapshot.INITIAL); // push to auditors
+    private final RwLockMetrics metrics; // wait / starvation histograms, null - not measured
+
+    public PolicyRWMonitor() {
+        this(null);
+    }
+
+    public PolicyRWMonitor(RwLockMetrics metrics) {
+        this.metrics = metrics;
+    }
 
-    public synchronized void startRead() throws InterruptedException {
-        while (writerActive || writersWaiting > 0) {
-            wait(); // reader goes into WAITING state if there is an active Writer or number of writers waiting to write is 1 or above 
+    public void startRead() throws InterruptedException {
+        PolicyReadAcquireEvent event = new PolicyReadAcquireEvent();
+        event.begin(); // before the monitor, so waiting to enter it counts too
+        long requestedNanos = System.nanoTime();
+        synchronized (this) {
+            while (writerActive || writersWaiting > 0) {
+                wait(); // reader goes into WAITING state if there is an active Writer or number of writers waiting to write is 1 or above 
+            }
+            readers++;
+            if (metrics != null)
+                metrics.readAcquired(requestedNanos);
+            event.end();
+            long acquiredNanos = System.nanoTime();
+            if (event.shouldCommit()) {
+                event.monitor = "PolicyRWMonitor";
+                event.waitTime = acquiredNanos - requestedNanos;
+                event.readers = readers;
+                event.commit();
+            }
         }
-        readers++;
     }
 
     public synchronized void endRead() {
         readers--;
+        if (metrics != null)
+            metrics.readReleased();
         if (readers == 0)
             notifyAll();
     }
 
-    public synchronized void startWrite() throws InterruptedException {
-        writersWaiting++;
-        while (writerActive || readers > 0) { // only one writer and number of reader has to be ZERO
-            wait();// otherwise Writer has to go into WAITING state 
+    public void startWrite() throws InterruptedException {
+        PolicyWriteAcquireEvent event = new PolicyWriteAcquireEvent();
+        event.begin();
+        long requestedNanos = System.nanoTime();
+        synchronized (this) {
+            int readersAtRequest = readers;
+            long readsAtRequest = metrics == null ? 0 : metrics.readAcquisitions();
+            writersWaiting++;
+            try {
+                while (writerActive || readers > 0) { // only one writer and number of reader has to be ZERO
+                    wait();// otherwise Writer has to go into WAITING state 
+                }
+            } catch (InterruptedException e) {
+                writersWaiting--; // gave up - readers held back by this writer must not wait forever
+                notifyAll();
+                throw e;
+            }
+            writersWaiting--; // reducing the number of writer in waiting state by 1 
+            writerActive = true; // the active writer to TRUE
+            if (metrics != null)
+                metrics.writeAcquired(requestedNanos, readsAtRequest, readersAtRequest > 0);
+            event.end();
+            long acquiredNanos = System.nanoTime();
+            writeAcquiredNanos = acquiredNanos;
+            if (event.shouldCommit()) {
+                event.monitor = "PolicyRWMonitor";
+                event.waitTime = acquiredNanos - requestedNanos;
+                event.readersAtRequest = readersAtRequest;
+                event.writersWaiting = writersWaiting;
+                event.commit();
+            }
+        }
+    }
+
+    public void endWrite() {
+        PolicySnapshot changed;
+        synchronized (this) {
+            changed = changes.changed(currentPolicy); // new version, in write order
+            writerActive = false;
+            notifyAll();
+            PolicyWriteReleaseEvent event = new PolicyWriteReleaseEvent();
+            if (event.shouldCommit()) {
+                event.monitor = "PolicyRWMonitor";
+                event.holdTime = System.nanoTime() - writeAcquiredNanos;
+                event.policy = currentPolicy;
+                event.commit();
+            }
         }
-        writersWaiting--; // reducing the number of writer in waiting state by 1 
-        writerActive = true; // the active writer to TRUE
+        changes.fire(changed); // listeners run without the monitor
     }
 
-    public synchronized void endWrite() {
-        writerActive = false;
-        notifyAll();
+    public PolicyChangeNotifier changes() {
+        return changes;
     }
 
     // actual reader method
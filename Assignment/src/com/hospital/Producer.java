@@ -1,10 +1,15 @@
 package com.hospital;
 
 import java.util.Random;
+import com.hospital.jfr.RoleLifecycleEvent;
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
 
 public class Producer implements Runnable {
 	// shared resource between producers and consumers 
-    private final BoundedQueueMonitor queue;
+    private final OrderQueue queue;
     private final String clinicName;
     private final int sleepMs; // Time for which we put the current Thread into sleep
     // sleepMs amount of time in Millisecond the thread has to go into TIMED_WAITING state
@@ -14,7 +19,7 @@ public class Producer implements Runnable {
     private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
     private static final Random random = new Random();
 
-    public Producer(BoundedQueueMonitor queue, String clinicName, int sleepMs) {
+    public Producer(OrderQueue queue, String clinicName, int sleepMs) {
         this.queue = queue;
         this.clinicName = clinicName;
         this.sleepMs = sleepMs;
@@ -29,6 +34,8 @@ public class Producer implements Runnable {
 
     @Override
     public void run() {
+        RoleLifecycleEvent lifecycle = new RoleLifecycleEvent(); // JFR, spans the whole thread
+        lifecycle.begin();
         int count = 0;
         while (running) {
             try {
@@ -36,11 +43,11 @@ public class Producer implements Runnable {
                 String testType = TEST_TYPES[random.nextInt(TEST_TYPES.length)];
                 int priority = random.nextInt(3) + 1;
 
-                TestOrder order = new TestOrder(patientId, testType, priority);
+                TestOrder order = new TestOrder(clinicName, patientId, testType, priority);
 
-                System.out.println("[" + clinicName + "] Created: " + order);
+                Log.event(LogEvent.CREATED, clinicName, order);
                 queue.put(order);// adding an test order to the bounded queue 
-                System.out.println("[" + clinicName + "] Queued: " + order);
+                Log.event(LogEvent.QUEUED, clinicName, order);
 
                 Thread.sleep(sleepMs); // just to simulate some work is going on 
             } catch (InterruptedException e) {
@@ -48,6 +55,13 @@ public class Producer implements Runnable {
                 break;
             }
         }
-        System.out.println("[" + clinicName + "] Stopped");
+        Log.event(LogEvent.STOPPED, clinicName, null);
+        lifecycle.end();
+        if (lifecycle.shouldCommit()) {
+            lifecycle.role = "Producer";
+            lifecycle.name = clinicName;
+            lifecycle.orders = count;
+            lifecycle.commit();
+        }
     }
 }
@@ -1,18 +1,31 @@
 package com.hospital;
 
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.ObservablePolicyStore;
+import com.hospital.spi.PolicyStore;
+
 public class Reader implements Runnable {
 	// instance of the monitor is the shared resource 
-    private final PolicyRWMonitor policy;
+    private final PolicyStore policy;
     private final String auditorName; // name for the reader 
     private final int sleepMs; // simulation time 
+    private final boolean push; // wait for change notifications instead of polling every sleepMs
     private volatile boolean running = true;
 
     private int readCount = 0;
 
-    public Reader(PolicyRWMonitor policy, String auditorName, int sleepMs) {
+    public Reader(PolicyStore policy, String auditorName, int sleepMs) {
+        this(policy, auditorName, sleepMs, false);
+    }
+
+    // push only takes effect if the store is an ObservablePolicyStore
+    public Reader(PolicyStore policy, String auditorName, int sleepMs, boolean push) {
         this.policy = policy;
         this.auditorName = auditorName;
         this.sleepMs = sleepMs;
+        this.push = push && policy instanceof ObservablePolicyStore;
     }
 
     public void stop() { // when called Reader thread will be signaled to stop
@@ -21,13 +34,15 @@ public class Reader implements Runnable {
 
     @Override
     public void run() {
+        if (push) {
+            awaitChanges((ObservablePolicyStore) policy);
+            return;
+        }
         while (running) {
             try {
-                policy.startRead();
-                String currentPolicy = policy.getPolicy();
+                String currentPolicy = policy.readPolicy(); // startRead / getPolicy / endRead
                 readCount++;
-                System.out.println("[" + auditorName + "] Read policy: " + currentPolicy);
-                policy.endRead();
+                Log.event(LogEvent.READ_POLICY, auditorName, currentPolicy);
 
                 Thread.sleep(sleepMs); // simulation of read operation
             } catch (InterruptedException e) {
@@ -35,7 +50,28 @@ public class Reader implements Runnable {
                 break;
             }
         }
-        System.out.println("[" + auditorName + "] Stopped. Total reads: " + readCount);
+        Log.event(LogEvent.READER_STOPPED, auditorName, readCount);
+    }
+
+    // push mode - one read per policy version, no lock traffic in between
+    private void awaitChanges(ObservablePolicyStore store) {
+        PolicySnapshot seen = store.snapshot();
+        readCount++;
+        Log.event(LogEvent.READ_POLICY, auditorName, seen.getMode());
+        while (running) {
+            try {
+                PolicySnapshot s = store.awaitChange(seen.getVersion(), 1000); // timeout only to recheck running
+                if (s.getVersion() > seen.getVersion()) {
+                    seen = s;
+                    readCount++;
+                    Log.event(LogEvent.READ_POLICY, auditorName, s.getMode());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        Log.event(LogEvent.READER_STOPPED, auditorName, readCount);
     }
 
     public int getReadCount() {
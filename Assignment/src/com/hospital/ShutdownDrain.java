@@ -0,0 +1,158 @@
+package com.hospital;
+
+import com.hospital.lease.LeasingOrderQueue;
+import com.hospital.replay.OrderStreamWriter;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Graceful shutdown of the analyzers, instead of stop() + interrupt() on everything.
+ *
+ * Called once the intake has stopped (producers / order source joined, nothing is put
+ * any more): the analyzers keep working the queue (MAINTENANCE no longer pauses them)
+ * and one END marker per analyzer is queued behind the backlog - an analyzer exits when
+ * it takes one, so the queue is empty once they all have. At the deadline the analyzers
+ * still busy are stopped and interrupted like before.
+ *
+ * Whatever is left - orders still queued, and with --lease the ones handed back or
+ * still leased - is written to the OrderStreamWriter (replay it with --replay FILE
+ * --speed max on the next start), or counted as lost without one. Orders cut off
+ * mid-analysis without a lease are lost. Orders the lease queue dead-letters during
+ * the drain are counted on their own - they stay in its dead letters, not persisted
+ * for a replay that would only fail them again.
+ */
+public class ShutdownDrain {
+    private final long deadlineMs;
+    private final OrderStreamWriter persist; // null - leftovers are lost
+
+    public ShutdownDrain(long deadlineMs, OrderStreamWriter persist) {
+        this.deadlineMs = deadlineMs;
+        this.persist = persist;
+    }
+
+    public Report drain(OrderQueue queue, Consumer[] consumers, Thread[] analyzers, long requestedNanos)
+            throws InterruptedException, IOException {
+        long deadline = requestedNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Report report = new Report();
+        report.queuedAtRequest = queue.size();
+        LeasingOrderQueue leasing = queue instanceof LeasingOrderQueue ? (LeasingOrderQueue) queue : null;
+        int deadLetteredBefore = leasing == null ? 0 : leasing.getDeadLettered().size();
+        int completedBefore = 0;
+        for (Consumer c : consumers) {
+            completedBefore += c.getCompleted();
+            c.drain();
+        }
+
+        // the markers go in from their own thread - put() blocks while the backlog fills the queue
+        Thread markers = new Thread(() -> {
+            try {
+                for (int i = 0; i < analyzers.length; i++)
+                    queue.put(endMarker());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "drain-markers");
+        markers.start();
+
+        for (Thread t : analyzers)
+            t.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        for (int i = 0; i < analyzers.length; i++) {
+            if (analyzers[i].isAlive()) { // deadline - cut off
+                report.deadlineHit = true;
+                consumers[i].stop();
+                analyzers[i].interrupt();
+            }
+        }
+        for (Thread t : analyzers)
+            t.join();
+        markers.interrupt();
+        markers.join();
+
+        List<TestOrder> left = new ArrayList<>();
+        if (leasing != null) {
+            leasing.close(); // no more redeliveries, so what is handed back stays put
+            left.addAll(leasing.takeUnfinished());
+            report.deadLettered = leasing.getDeadLettered().size() - deadLetteredBefore;
+        }
+        while (queue.size() > 0) { // only this thread touches the queue now
+            left.add(queue.take()); // for good - dealt with here, persisted or lost
+        }
+        for (TestOrder order : left) {
+            if (order.isEndMarker())
+                continue;
+            if (persist != null) {
+                persist.write(order);
+                report.persisted++;
+            } else {
+                report.lost++;
+            }
+        }
+
+        for (Consumer c : consumers) {
+            report.drained += c.getCompleted();
+            report.lost += c.getAbandoned();
+        }
+        report.drained -= completedBefore;
+        report.quiescenceNanos = System.nanoTime() - requestedNanos;
+        return report;
+    }
+
+    // one per analyzer, so no two analyzers ever hold the same marker (e.g. under one lease id)
+    private static TestOrder endMarker() {
+        TestOrder end = new TestOrder("Shutdown", "-", "END", 3);
+        end.markEndMarker(); // the analyzer that takes it is done, never analyzed or persisted
+        return end;
+    }
+
+    public static class Report {
+        private long queuedAtRequest;
+        private long drained;
+        private long persisted;
+        private long lost;
+        private long deadLettered;
+        private boolean deadlineHit;
+        private long quiescenceNanos;
+
+        public long getQueuedAtRequest() {
+            return queuedAtRequest;
+        }
+
+        // orders analyzers completed after the shutdown request (incl. the ones in flight)
+        public long getDrained() {
+            return drained;
+        }
+
+        public long getPersisted() {
+            return persisted;
+        }
+
+        public long getLost() {
+            return lost;
+        }
+
+        // gave up on by the lease queue during the drain (see LeasingOrderQueue.getDeadLettered)
+        public long getDeadLettered() {
+            return deadLettered;
+        }
+
+        public boolean isDeadlineHit() {
+            return deadlineHit;
+        }
+
+        // shutdown request -> every role stopped and the leftovers written
+        public long getQuiescenceNanos() {
+            return quiescenceNanos;
+        }
+
+        public String summary() {
+            return String.format("drain: quiescent after %.1f ms%s, %d queued at the request, %d drained,"
+                    + " %d persisted, %d lost, %d dead-lettered", quiescenceNanos / 1e6,
+                    deadlineHit ? " (deadline hit)" : "", queuedAtRequest, drained, persisted, lost, deadLettered);
+        }
+    }
+}
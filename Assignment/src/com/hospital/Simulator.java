@@ -0,0 +1,440 @@
+package com.hospital;
+
+import com.hospital.lease.LeasingOrderQueue;
+import com.hospital.load.ArrivalProcess;
+import com.hospital.load.OpenLoopGenerator;
+import com.hospital.load.OrderSource;
+import com.hospital.log.Log;
+import com.hospital.metrics.OrderLatencyRecorder;
+import com.hospital.net.HttpOrderEndpoint;
+import com.hospital.net.OrderIntakeServer;
+import com.hospital.policy.DepartmentPolicyMap;
+import com.hospital.policy.PolicyHistory;
+import com.hospital.replay.OrderReplayer;
+import com.hospital.replay.OrderStreamWriter;
+import com.hospital.replay.RecordingOrderQueue;
+import com.hospital.spi.ObservablePolicyStore;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+import com.hospital.spi.Strategies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * One simulator for every concurrency strategy.
+ *
+ * The queue and policy implementations are picked by name from the providers found
+ * through ServiceLoader, the workload itself (roles, timings, metrics) is the same
+ * whichever strategy runs it.
+ *
+ * With --arrivals the clinics are replaced by one open-loop generator (see
+ * com.hospital.load.ArrivalProcess for the spec syntax), e.g. --arrivals poisson:20.
+ * --record FILE writes every arrival to a binary recording, --replay FILE feeds one
+ * back in place of the clinics at --speed 1, 10, ... or max. --push makes the auditors
+ * wait for policy change notifications instead of polling. --dispatch lets the policy
+ * drive the analyzers: URGENT_PRIORITY takes P1 orders first (queues that support it,
+ * e.g. priorityLanes) and MAINTENANCE drains the analyzers named by --maintenance
+ * (default: the workload's last analyzer). --listen PORT takes the orders from external
+ * clinics over TCP on localhost instead (com.hospital.net, drive it with OrderLoadClient),
+ * --http PORT over HTTP / JSON (HttpLoadTest --port PORT). --lease MS makes the analyzers
+ * lease orders with that visibility timeout (com.hospital.lease) and ack finished ones,
+ * an analyzer interrupted mid-order hands it back instead of losing it. --drain MS shuts
+ * down gracefully: the intake stops, the analyzers finish the queue for up to MS and
+ * what is left is written to --persist FILE (a recording, --replay it later) - see
+ * ShutdownDrain. Versioned policy stores keep their history for --historyRetention
+ * minutes (default a day, compacted every minute); with --http the order status names
+ * the policy in force when the order was dispatched. --departments splits the policy by
+ * clinic (DepartmentPolicyMap): every clinic gets its own store and supervisor, the
+ * auditors each watch one clinic. --policyFile FILE is where --policy persistent keeps
+ * the policy for the next start (one file per clinic with --departments); without it
+ * the store lives in a temp file for this run only.
+ *
+ * usage: Simulator [--queue NAME] [--policy NAME] [--fair] [--capacity N]
+ *                  [--workload calm|surge|all] [--duration MS] [--list]
+ *                  [--arrivals SPEC] [--seed N]
+ *                  [--record FILE] [--replay FILE [--speed X|max]] [--push]
+ *                  [--dispatch [--maintenance NAME,NAME]] [--listen PORT] [--http PORT]
+ *                  [--lease MS] [--drain MS [--persist FILE]] [--historyRetention MIN]
+ *                  [--departments] [--policyFile FILE]
+ */
+public class Simulator {
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String queueName = "synchronized";
+        String policyName = "handRolled";
+        boolean fair = false;
+        int capacity = 5;
+        String workload = "all";
+        long durationMs = 5000;
+        String arrivalSpec = null; // null - closed-loop Producer threads
+        long seed = System.nanoTime();
+        Path recordFile = null;
+        Path replayFile = null;
+        double speed = 1;
+        boolean push = false;
+        boolean dispatch = false;
+        String maintenance = null; // analyzers drained in MAINTENANCE, null - last analyzer
+        int listenPort = -1; // -1 - no tcp intake
+        int httpPort = -1; // -1 - no http intake
+        long leaseMs = -1; // -1 - analyzers take orders for good
+        long drainMs = -1; // -1 - stop and interrupt everything at the end
+        Path persistFile = null;
+        long historyRetentionMin = 24 * 60; // policy versions kept for audits
+        boolean departments = false; // one policy per clinic instead of one for the hospital
+        String policyFile = null; // persistent policy store, null - a temp file per run
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--queue":
+                    queueName = args[++i];
+                    break;
+                case "--policy":
+                    policyName = args[++i];
+                    break;
+                case "--fair":
+                    fair = true;
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt(args[++i]);
+                    break;
+                case "--workload":
+                    workload = args[++i];
+                    break;
+                case "--duration":
+                    durationMs = Long.parseLong(args[++i]);
+                    break;
+                case "--arrivals":
+                    arrivalSpec = args[++i];
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--record":
+                    recordFile = Paths.get(args[++i]);
+                    break;
+                case "--replay":
+                    replayFile = Paths.get(args[++i]);
+                    break;
+                case "--speed":
+                    speed = OrderReplayer.parseSpeed(args[++i]);
+                    break;
+                case "--push":
+                    push = true;
+                    break;
+                case "--dispatch":
+                    dispatch = true;
+                    break;
+                case "--maintenance":
+                    maintenance = args[++i];
+                    break;
+                case "--listen":
+                    listenPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--http":
+                    httpPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--lease":
+                    leaseMs = Long.parseLong(args[++i]);
+                    break;
+                case "--drain":
+                    drainMs = Long.parseLong(args[++i]);
+                    break;
+                case "--persist":
+                    persistFile = Paths.get(args[++i]);
+                    break;
+                case "--historyRetention":
+                    historyRetentionMin = Long.parseLong(args[++i]);
+                    break;
+                case "--policyFile":
+                    policyFile = args[++i];
+                    break;
+                case "--departments":
+                    departments = true;
+                    break;
+                case "--list":
+                    listStrategies();
+                    return;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        if (departments && dispatch)
+            throw new IllegalArgumentException("--dispatch follows the hospital-wide policy, it does not combine with --departments");
+        // provider settings, the ones a provider doesn't know are ignored
+        Map<String, String> policyOptions = policyFile == null ? Map.of() : Map.of("file", policyFile);
+        OrderQueueProvider queueProvider = Strategies.queue(queueName);
+        PolicyStoreProvider policyProvider = Strategies.policy(policyName);
+        System.out.println("=== Simulator: queue=" + queueProvider.name() + " policy=" + policyProvider.name()
+                + " fair=" + fair + " capacity=" + capacity + " ===\n");
+
+        // one recording for the whole invocation - with --workload all it holds both workloads back to back
+        OrderStreamWriter recorder = recordFile == null ? null : new OrderStreamWriter(recordFile);
+        // likewise one file for the orders every drain leaves behind
+        OrderStreamWriter persisted = drainMs < 0 || persistFile == null ? null : new OrderStreamWriter(persistFile);
+        boolean first = true;
+        for (Workload w : Workload.values()) {
+            if (!workload.equalsIgnoreCase("all") && !workload.equalsIgnoreCase(w.name())) {
+                continue;
+            }
+            if (!first)
+                System.out.println("\n" + "=".repeat(50) + "\n");
+            first = false;
+            OrderQueue queue = queueProvider.create(capacity, fair);
+            if (recorder != null)
+                queue = new RecordingOrderQueue(queue, recorder);
+            LeasingOrderQueue leasing = null;
+            if (leaseMs >= 0)
+                queue = leasing = new LeasingOrderQueue(queue, leaseMs);
+            PolicyStore policy = policyProvider.create(fair, policyOptions);
+            PolicyHistory history = null;
+            if (policy instanceof ObservablePolicyStore) {
+                // bounded however long it runs; what is left answers "policy at dispatch" audits
+                history = ((ObservablePolicyStore) policy).history();
+                history.startCompaction(Duration.ofMinutes(historyRetentionMin), Duration.ofMinutes(1));
+            }
+            OrderSource source = null;
+            if (httpPort >= 0)
+                source = new HttpOrderEndpoint(queue, httpPort, 16, history);
+            else if (listenPort >= 0)
+                source = new OrderIntakeServer(queue, listenPort);
+            else if (replayFile != null)
+                source = new OrderReplayer(queue, replayFile, speed);
+            else if (arrivalSpec != null)
+                source = new OpenLoopGenerator(queue, ArrivalProcess.parse(arrivalSpec, seed), w.clinics, seed);
+            Set<String> drained = null;
+            if (dispatch) {
+                if (!(policy instanceof ObservablePolicyStore))
+                    throw new IllegalArgumentException("--dispatch needs a versioned policy store, " + policyProvider.name() + " is not");
+                drained = maintenance == null ? Set.of(w.analyzers[w.analyzers.length - 1])
+                        : new HashSet<>(Arrays.asList(maintenance.split(",")));
+            }
+            ShutdownDrain shutdown = drainMs < 0 ? null : new ShutdownDrain(drainMs, persisted);
+            RunOptions options = new RunOptions(w, queue, policy, durationMs).source(source).push(push)
+                    .dispatch(drained).drain(shutdown);
+            DepartmentPolicyMap departmentPolicies = departments ? new DepartmentPolicyMap(policyProvider, fair, policyOptions) : null;
+            if (departmentPolicies != null)
+                options.departments(departmentPolicies);
+            run(options);
+            if (history != null)
+                history.close(); // stops the compactor
+            policy.close(); // the next workload opens its own (a persistent one restores from the file)
+            if (departmentPolicies != null)
+                departmentPolicies.close();
+            if (leasing != null) {
+                leasing.close();
+                System.out.println(leasing.summary() + ", " + leasing.size() + " back in the queue");
+            }
+        }
+        if (recorder != null) {
+            recorder.close();
+            System.out.println("recorded " + recorder.getCount() + " orders to " + recordFile);
+        }
+        if (persisted != null) {
+            persisted.close();
+            System.out.println("persisted " + persisted.getCount() + " undrained orders to " + persistFile);
+        }
+        Log.shutdown();
+    }
+
+    private static void listStrategies() {
+        System.out.println("Queue strategies (--queue):");
+        for (OrderQueueProvider p : Strategies.queues())
+            System.out.printf("  %-16s %s%n", p.name(), p.description());
+        System.out.println("Policy strategies (--policy):");
+        for (PolicyStoreProvider p : Strategies.policies())
+            System.out.printf("  %-16s %s%n", p.name(), p.description());
+    }
+
+    // runs one workload for durationMs with its own clinics, then stops, interrupts and joins every role
+    public static void run(Workload workload, OrderQueue queue, PolicyStore policy, long durationMs) throws InterruptedException {
+        try {
+            run(new RunOptions(workload, queue, policy, durationMs));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // only a drain writes
+        }
+    }
+
+    /*
+     * What one run() is made of: the workload, queue, policy store and duration, and
+     * optionally where the orders come from and how the roles behave. Setters chain:
+     *
+     *   run(new RunOptions(w, queue, policy, 5000).source(replayer).push(true));
+     */
+    public static final class RunOptions {
+        private final Workload workload;
+        private final OrderQueue queue;
+        private final PolicyStore policy;
+        private final long durationMs;
+        private OrderSource source; // null - the workload's closed-loop clinics
+        private boolean push;
+        private Set<String> drained; // null - no policy-driven dispatch
+        private ShutdownDrain shutdown; // null - the analyzers are interrupted at the end
+        private DepartmentPolicyMap departments; // null - auditors and supervisor share the policy
+
+        public RunOptions(Workload workload, OrderQueue queue, PolicyStore policy, long durationMs) {
+            this.workload = workload;
+            this.queue = queue;
+            this.policy = policy;
+            this.durationMs = durationMs;
+        }
+
+        // the given source feeds the queue instead of the workload's clinics
+        public RunOptions source(OrderSource source) {
+            this.source = source;
+            return this;
+        }
+
+        // an open-loop generator over the workload's clinics as the source
+        public RunOptions arrivals(ArrivalProcess arrivals, long seed) {
+            return source(new OpenLoopGenerator(queue, arrivals, workload.clinics, seed));
+        }
+
+        // auditors wait for change notifications (if the policy store supports them)
+        public RunOptions push(boolean push) {
+            this.push = push;
+            return this;
+        }
+
+        // policy-driven dispatch, the named analyzers pause during MAINTENANCE;
+        // needs an ObservablePolicyStore
+        public RunOptions dispatch(Set<String> drained) {
+            this.drained = drained;
+            return this;
+        }
+
+        // the analyzers drain the queue at the end instead of being interrupted
+        public RunOptions drain(ShutdownDrain shutdown) {
+            this.shutdown = shutdown;
+            return this;
+        }
+
+        // a policy per clinic: one supervisor per clinic, auditor i watches clinic i (round
+        // robin). The analyzers keep the hospital-wide policy
+        public RunOptions departments(DepartmentPolicyMap departments) {
+            this.departments = departments;
+            return this;
+        }
+    }
+
+    public static void run(RunOptions options) throws InterruptedException, IOException {
+        Workload workload = options.workload;
+        OrderQueue queue = options.queue;
+        PolicyStore policy = options.policy;
+        OrderSource source = options.source;
+        boolean push = options.push;
+        Set<String> drained = options.drained;
+        ShutdownDrain shutdown = options.shutdown;
+        System.out.println("=== Workload: " + workload + (source == null ? "" : " (" + source.getClass().getSimpleName() + ")")
+                + " ===\n");
+
+        OrderLatencyRecorder latencies = new OrderLatencyRecorder(); // per workload latency histograms
+
+        Producer[] producers = new Producer[source == null ? workload.clinics.length : 0];
+        for (int i = 0; i < producers.length; i++)
+            producers[i] = new Producer(queue, workload.clinics[i], workload.clinicSleepMs[i]);
+        Consumer[] consumers = new Consumer[workload.analyzers.length];
+        for (int i = 0; i < consumers.length; i++)
+            consumers[i] = drained == null
+                    ? new Consumer(queue, workload.analyzers[i], workload.processingMs[i], latencies)
+                    : new Consumer(queue, workload.analyzers[i], workload.processingMs[i], latencies,
+                            (ObservablePolicyStore) policy, drained.contains(workload.analyzers[i]));
+        DepartmentPolicyMap departments = options.departments;
+        Reader[] readers = new Reader[workload.auditors.length];
+        for (int i = 0; i < readers.length; i++) {
+            if (departments == null) {
+                readers[i] = new Reader(policy, workload.auditors[i], workload.auditorSleepMs[i], push);
+            } else {
+                String clinic = workload.clinics[i % workload.clinics.length];
+                readers[i] = new Reader(departments.department(clinic), workload.auditors[i] + "@" + clinic,
+                        workload.auditorSleepMs[i], push);
+            }
+        }
+        Writer[] writers = new Writer[departments == null ? 1 : workload.clinics.length];
+        for (int i = 0; i < writers.length; i++) {
+            if (departments == null) {
+                writers[i] = new Writer(policy, workload.supervisor, workload.supervisorSleepMs);
+            } else {
+                String clinic = workload.clinics[i];
+                writers[i] = new Writer(departments.department(clinic), workload.supervisor + "@" + clinic,
+                        workload.supervisorSleepMs);
+            }
+        }
+
+        Thread[] threads = new Thread[producers.length + consumers.length + readers.length + writers.length
+                + (source == null ? 0 : 1)];
+        int n = 0;
+        if (source != null)
+            threads[n++] = new Thread(source, "source");
+        for (Producer p : producers)
+            threads[n++] = new Thread(p);
+        Thread[] analyzers = new Thread[consumers.length];
+        for (int i = 0; i < consumers.length; i++)
+            threads[n++] = analyzers[i] = new Thread(consumers[i]);
+        for (Reader r : readers)
+            threads[n++] = new Thread(r);
+        for (Writer wr : writers)
+            threads[n++] = new Thread(wr);
+
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(options.durationMs);
+
+        long shutdownNanos = System.nanoTime();
+        ShutdownDrain.Report drainReport = null;
+        if (source != null)
+            source.stop();
+        for (Producer p : producers)
+            p.stop();
+        if (shutdown == null) {
+            for (Consumer c : consumers)
+                c.stop();
+        }
+        for (Reader r : readers)
+            r.stop();
+        for (Writer wr : writers)
+            wr.stop();
+        if (shutdown != null) {
+            // everyone but the analyzers goes first, so nothing is put behind the drain's END
+            // markers - a producer blocked on a full queue gives up its order, never accepted
+            List<Thread> analyzerList = Arrays.asList(analyzers);
+            for (Thread t : threads) {
+                if (!analyzerList.contains(t))
+                    t.interrupt();
+            }
+            for (Thread t : threads) {
+                if (!analyzerList.contains(t))
+                    t.join();
+            }
+            drainReport = shutdown.drain(queue, consumers, analyzers, shutdownNanos);
+        }
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads)
+            t.join();
+
+        Log.flush(); // async log backlog goes out before the summary
+        System.out.println("\n--- Order latency (nanoTime) ---");
+        System.out.print(latencies.report());
+        if (source != null)
+            System.out.println(source.summary());
+        if (push && policy instanceof ObservablePolicyStore)
+            System.out.println("policy change delivery: "
+                    + ((ObservablePolicyStore) policy).changes().getDeliveryLatency().summary());
+        if (drainReport != null)
+            System.out.println(drainReport.summary());
+        if (departments != null)
+            System.out.println("department policies: " + departments.policies());
+        System.out.println("\n=== " + workload + " Complete ===");
+    }
+}
@@ -0,0 +1,73 @@
+package com.hospital;
+
+/*
+ * The two scenarios every part runs - who takes part and how fast each role works.
+ * Intervals are the sleep between operations (processing time for analyzers).
+ */
+public enum Workload {
+    // light load - 2 clinics, 2 analyzers, 1 auditor, 1 supervisor
+    CALM(new String[] { "ClinicA", "ClinicB" }, new int[] { 120, 100 },
+            new String[] { "Analyzer1", "Analyzer2" }, new int[] { 70, 80 },
+            new String[] { "Auditor1" }, new int[] { 200 },
+            "Supervisor1", 3000),
+
+    // heavy load - 5 departments flooding 2 analyzers, 3 auditors polling the policy
+    SURGE(new String[] { "ER", "ICU", "WardA", "WardB", "Outpatient" }, new int[] { 10, 15, 20, 10, 15 },
+            new String[] { "Analyzer1", "Analyzer2" }, new int[] { 200, 250 },
+            new String[] { "Auditor1", "Auditor2", "Auditor3" }, new int[] { 50, 75, 100 },
+            "Supervisor1", 1500);
+
+    final String[] clinics;
+    final int[] clinicSleepMs;
+    final String[] analyzers;
+    final int[] processingMs;
+    final String[] auditors;
+    final int[] auditorSleepMs;
+    final String supervisor;
+    final int supervisorSleepMs;
+
+    Workload(String[] clinics, int[] clinicSleepMs, String[] analyzers, int[] processingMs,
+            String[] auditors, int[] auditorSleepMs, String supervisor, int supervisorSleepMs) {
+        this.clinics = clinics;
+        this.clinicSleepMs = clinicSleepMs;
+        this.analyzers = analyzers;
+        this.processingMs = processingMs;
+        this.auditors = auditors;
+        this.auditorSleepMs = auditorSleepMs;
+        this.supervisor = supervisor;
+        this.supervisorSleepMs = supervisorSleepMs;
+    }
+
+    // read-only views for the simulators outside this package
+    public String[] clinics() {
+        return clinics.clone();
+    }
+
+    public int[] clinicSleepMs() {
+        return clinicSleepMs.clone();
+    }
+
+    public String[] analyzers() {
+        return analyzers.clone();
+    }
+
+    public int[] processingMs() {
+        return processingMs.clone();
+    }
+
+    public String[] auditors() {
+        return auditors.clone();
+    }
+
+    public int[] auditorSleepMs() {
+        return auditorSleepMs.clone();
+    }
+
+    public String supervisor() {
+        return supervisor;
+    }
+
+    public int supervisorSleepMs() {
+        return supervisorSleepMs;
+    }
+}
@@ -1,8 +1,12 @@
 package com.hospital;
 
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.spi.PolicyStore;
+
 public class Writer implements Runnable {
 	// shared monitor object between reader and Writer
-    private final PolicyRWMonitor policy;
+    private final PolicyStore policy;
     private final String supervisorName;
     private final int sleepMs;
     private volatile boolean running = true;
@@ -10,7 +14,7 @@ public class Writer implements Runnable {
     private int writeCount = 0;
     private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
 
-    public Writer(PolicyRWMonitor policy, String supervisorName, int sleepMs) {
+    public Writer(PolicyStore policy, String supervisorName, int sleepMs) {
         this.policy = policy;
         this.supervisorName = supervisorName;
         this.sleepMs = sleepMs;
@@ -27,20 +31,18 @@ public class Writer implements Runnable {
             try {
                 Thread.sleep(sleepMs);
 
-                policy.startWrite();
                 policyIndex = (policyIndex + 1) % POLICIES.length;
                 String newPolicy = POLICIES[policyIndex];
-                policy.setPolicy(newPolicy); // write operation
+                policy.writePolicy(newPolicy); // startWrite / setPolicy / endWrite
                 writeCount++;
-                System.out.println("[" + supervisorName + "] Updated policy to: " + newPolicy);
-                policy.endWrite();
+                Log.event(LogEvent.UPDATED_POLICY, supervisorName, newPolicy);
 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
         }
-        System.out.println("[" + supervisorName + "] Stopped. Total writes: " + writeCount);
+        Log.event(LogEvent.WRITER_STOPPED, supervisorName, writeCount);
     }
 
     public int getWriteCount() {
@@ -0,0 +1,87 @@
+package com.hospital.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Command line options shared by the benchmark mains, named after the JMH flags:
+ *
+ *   -wi N       warmup iterations            (default 2)
+ *   -w  MS      warmup iteration time        (default 500)
+ *   -i  N       measurement iterations       (default 3)
+ *   -r  MS      measurement iteration time   (default 1000)
+ *   -rff FILE   JSON result file             (default <benchmark>.json)
+ *   -p  NAME=V1,V2,...   override a parameter axis of the grid
+ */
+public class BenchOptions {
+    final int warmupIterations;
+    final long warmupMillis;
+    final int measurementIterations;
+    final long measurementMillis;
+    final String resultFile;
+    private final Map<String, List<String>> params = new HashMap<>();
+
+    public BenchOptions(String[] args, String defaultResultFile) {
+        int wi = 2;
+        long w = 500;
+        int i = 3;
+        long r = 1000;
+        String rff = defaultResultFile;
+        for (int a = 0; a < args.length; a++) {
+            String value = a + 1 < args.length ? args[a + 1] : null;
+            switch (args[a]) {
+                case "-wi":
+                    wi = Integer.parseInt(require(args[a], value));
+                    a++;
+                    break;
+                case "-w":
+                    w = Long.parseLong(require(args[a], value));
+                    a++;
+                    break;
+                case "-i":
+                    i = Integer.parseInt(require(args[a], value));
+                    a++;
+                    break;
+                case "-r":
+                    r = Long.parseLong(require(args[a], value));
+                    a++;
+                    break;
+                case "-rff":
+                    rff = require(args[a], value);
+                    a++;
+                    break;
+                case "-p":
+                    String p = require(args[a], value);
+                    int eq = p.indexOf('=');
+                    if (eq < 0) {
+                        throw new IllegalArgumentException("expected -p name=v1,v2 but got " + p);
+                    }
+                    params.put(p.substring(0, eq), Arrays.asList(p.substring(eq + 1).split(",")));
+                    a++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[a]);
+            }
+        }
+        this.warmupIterations = wi;
+        this.warmupMillis = w;
+        this.measurementIterations = i;
+        this.measurementMillis = r;
+        this.resultFile = rff;
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+
+    // values of one grid axis - the -p override if given, else the defaults
+    public List<String> param(String name, String... defaults) {
+        return new ArrayList<>(params.getOrDefault(name, Arrays.asList(defaults)));
+    }
+}
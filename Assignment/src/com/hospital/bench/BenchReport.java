@@ -0,0 +1,27 @@
+package com.hospital.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// collects results while a benchmark main runs and writes them as a JMH-style JSON array
+public class BenchReport {
+    private final List<BenchResult> results = new ArrayList<>();
+
+    public void add(BenchResult result) {
+        results.add(result);
+        System.out.println(result.summaryLine());
+    }
+
+    public void write(String file) throws IOException {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            sb.append(results.get(i).toJson()).append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        sb.append("]\n");
+        Files.writeString(Path.of(file), sb);
+        System.out.println("Results written to " + Path.of(file).toAbsolutePath());
+    }
+}
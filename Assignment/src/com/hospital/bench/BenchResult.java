@@ -0,0 +1,138 @@
+package com.hospital.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * One benchmark configuration's result, serialised in the same layout as JMH's
+ * -rf json output so the usual JMH visualisers can read it.
+ */
+public class BenchResult {
+    private final String benchmark;
+    private final String mode;
+    private final int threads;
+    private final BenchOptions options;
+    private final Map<String, String> params;
+    private final String unit;
+    private final double[] scores;
+    private final Map<String, double[]> secondary = new LinkedHashMap<>(); // name -> {score}
+    private final Map<String, String> secondaryUnits = new LinkedHashMap<>();
+
+    public BenchResult(String benchmark, String mode, int threads, BenchOptions options,
+            Map<String, String> params, String unit, double[] scores) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.threads = threads;
+        this.options = options;
+        this.params = new LinkedHashMap<>(params);
+        this.unit = unit;
+        this.scores = scores.clone();
+    }
+
+    public void addSecondary(String name, double score, String unit) {
+        secondary.put(name, new double[] { score });
+        secondaryUnits.put(name, unit);
+    }
+
+    public double getScore() {
+        double sum = 0;
+        for (double s : scores) {
+            sum += s;
+        }
+        return scores.length == 0 ? Double.NaN : sum / scores.length;
+    }
+
+    // half width of the 99.9% confidence interval, like JMH's scoreError
+    public double getScoreError() {
+        int n = scores.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double mean = getScore();
+        double var = 0;
+        for (double s : scores) {
+            var += (s - mean) * (s - mean);
+        }
+        return studentT999(n - 1) * Math.sqrt(var / (n - 1)) / Math.sqrt(n);
+    }
+
+    private static double studentT999(int df) {
+        double[] table = { 636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59 };
+        if (df <= table.length) {
+            return table[df - 1];
+        }
+        return df <= 15 ? 4.07 : df <= 20 ? 3.85 : df <= 30 ? 3.65 : 3.29;
+    }
+
+    public String summaryLine() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-34s %-6s", benchmark.substring(benchmark.lastIndexOf('.') + 1), mode));
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            sb.append(' ').append(p.getKey()).append('=').append(p.getValue());
+        }
+        sb.append(String.format(Locale.ROOT, "  %12.3f +- %9.3f %s", getScore(), getScoreError(), unit));
+        for (Map.Entry<String, double[]> e : secondary.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "  %s=%.3f %s", e.getKey(), e.getValue()[0], secondaryUnits.get(e.getKey())));
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    {\n");
+        field(sb, 8, "jmhVersion", quote("n/a (com.hospital.bench harness)")).append(",\n");
+        field(sb, 8, "benchmark", quote(benchmark)).append(",\n");
+        field(sb, 8, "mode", quote(mode)).append(",\n");
+        field(sb, 8, "threads", String.valueOf(threads)).append(",\n");
+        field(sb, 8, "forks", "0").append(",\n");
+        field(sb, 8, "jvm", quote(System.getProperty("java.home"))).append(",\n");
+        field(sb, 8, "jdkVersion", quote(System.getProperty("java.version"))).append(",\n");
+        field(sb, 8, "warmupIterations", String.valueOf(options.warmupIterations)).append(",\n");
+        field(sb, 8, "warmupTime", quote(options.warmupMillis + " ms")).append(",\n");
+        field(sb, 8, "measurementIterations", String.valueOf(options.measurementIterations)).append(",\n");
+        field(sb, 8, "measurementTime", quote(options.measurementMillis + " ms")).append(",\n");
+        sb.append("        \"params\" : {\n");
+        int n = 0;
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            field(sb, 12, p.getKey(), quote(p.getValue())).append(++n < params.size() ? ",\n" : "\n");
+        }
+        sb.append("        },\n");
+        sb.append("        \"primaryMetric\" : {\n");
+        double score = getScore();
+        double error = getScoreError();
+        field(sb, 12, "score", number(score)).append(",\n");
+        field(sb, 12, "scoreError", number(error)).append(",\n");
+        field(sb, 12, "scoreConfidence", "[ " + number(score - error) + ", " + number(score + error) + " ]").append(",\n");
+        field(sb, 12, "scoreUnit", quote(unit)).append(",\n");
+        StringBuilder raw = new StringBuilder("[ [ ");
+        for (int i = 0; i < scores.length; i++) {
+            raw.append(i == 0 ? "" : ", ").append(number(scores[i]));
+        }
+        raw.append(" ] ]");
+        field(sb, 12, "rawData", raw.toString()).append("\n");
+        sb.append("        },\n");
+        sb.append("        \"secondaryMetrics\" : {");
+        n = 0;
+        for (Map.Entry<String, double[]> e : secondary.entrySet()) {
+            sb.append(n++ == 0 ? "\n" : ",\n");
+            sb.append("            ").append(quote(e.getKey())).append(" : { \"score\" : ").append(number(e.getValue()[0]))
+                    .append(", \"scoreUnit\" : ").append(quote(secondaryUnits.get(e.getKey()))).append(" }");
+        }
+        sb.append(n == 0 ? "}\n" : "\n        }\n");
+        sb.append("    }");
+        return sb.toString();
+    }
+
+    private static StringBuilder field(StringBuilder sb, int indent, String name, String value) {
+        return sb.append(" ".repeat(indent)).append(quote(name)).append(" : ").append(value);
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String number(double d) {
+        return Double.isFinite(d) ? String.format(Locale.ROOT, "%.6f", d) : "\"NaN\"";
+    }
+}
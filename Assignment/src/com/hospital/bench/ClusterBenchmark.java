@@ -0,0 +1,209 @@
+package com.hospital.bench;
+
+import com.hospital.cluster.AnalyzerNode;
+import com.hospital.cluster.ClusterRouter;
+import com.hospital.cluster.ConsistentHashRing;
+import com.hospital.cluster.NodeProcess;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Throughput of the partitioned analyzer cluster as nodes are added.
+ *
+ * Starts `nodes` AnalyzerNode processes on this host (each with `analyzers` analyzers
+ * taking `processingMs` per order), joins them to a ClusterRouter and routes orders for
+ * random patients as fast as the nodes accept them. Score is orders per ms acked by the
+ * nodes (in their queues - with bounded queues that follows what the analyzers complete).
+ * Analyzers mostly sleep like the real Consumer, so the cluster should scale about
+ * linearly with nodes until the router or the cores run out.
+ *
+ * Secondary results:
+ *   imbalance    busiest node's orders / the mean (1.0 = perfectly even)
+ *   joinMoved    share of patients that change owner when one more node joins,
+ *                next to the ideal 1 / (nodes + 1) - computed on a ring, offline
+ *   rebalance    one more measured iteration on the live cluster: an extra node joins
+ *                after a third of it and leaves after two thirds while orders keep
+ *                flowing. Score in orders/ms, joinMs / leaveMs how long join() / leave()
+ *                took, leaveUnacked orders the leaving node never acked (should be 0)
+ *
+ * Grid: nodes (1, 2, 4), analyzers, processingMs, window.
+ *
+ * usage: ClusterBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class ClusterBenchmark {
+    private static final String NAME = ClusterBenchmark.class.getName();
+    private static final String[] CLINICS = { "ER", "ICU", "WardA", "WardB", "Outpatient" };
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+    private static final int PATIENTS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "cluster-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String nodes : options.param("nodes", "1", "2", "4")) {
+            for (String analyzers : options.param("analyzers", "4")) {
+                for (String processingMs : options.param("processingMs", "1")) {
+                    for (String window : options.param("window", "64")) {
+                        Map<String, String> params = new LinkedHashMap<>();
+                        params.put("nodes", nodes);
+                        params.put("analyzers", analyzers);
+                        params.put("processingMs", processingMs);
+                        params.put("window", window);
+                        report.add(run(options, params));
+                    }
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws Exception {
+        int nodeCount = Integer.parseInt(params.get("nodes"));
+        List<NodeProcess> processes = new ArrayList<>();
+        ClusterRouter router = new ClusterRouter(Integer.parseInt(params.get("window")));
+        try {
+            for (int n = 0; n < nodeCount; n++) {
+                NodeProcess p = NodeProcess.start(AnalyzerNode.class, "--analyzers", params.get("analyzers"),
+                        "--processingMs", params.get("processingMs"));
+                processes.add(p);
+                router.join("node-" + n, p.getPort());
+            }
+
+            for (int i = 0; i < options.warmupIterations; i++)
+                iteration(router, options.warmupMillis);
+            double[] scores = new double[options.measurementIterations];
+            for (int i = 0; i < options.measurementIterations; i++)
+                scores[i] = iteration(router, options.measurementMillis);
+
+            NodeProcess extra = NodeProcess.start(AnalyzerNode.class, "--analyzers", params.get("analyzers"),
+                    "--processingMs", params.get("processingMs"));
+            processes.add(extra);
+            Rebalance rebalance = new Rebalance(router, "node-" + nodeCount, extra.getPort(), options.measurementMillis);
+            double rebalanceScore = rebalance.measure();
+
+            long max = 0;
+            long total = 0;
+            for (ClusterRouter.Node node : router.ring().nodes()) {
+                max = Math.max(max, node.getRouted());
+                total += node.getRouted();
+            }
+            BenchResult result = new BenchResult(NAME + ".cluster", "thrpt", 1, options, params, "orders/ms", scores);
+            result.addSecondary("perNode", result.getScore() / nodeCount, "orders/ms");
+            result.addSecondary("imbalance", total == 0 ? 0 : max / ((double) total / nodeCount), "max/mean");
+            result.addSecondary("joinMoved", movedOnJoin(nodeCount) * 100, "%");
+            result.addSecondary("joinMovedIdeal", 100.0 / (nodeCount + 1), "%");
+            result.addSecondary("rebalance", rebalanceScore, "orders/ms");
+            result.addSecondary("joinMs", rebalance.joinNanos / 1e6, "ms");
+            result.addSecondary("leaveMs", rebalance.leaveNanos / 1e6, "ms");
+            result.addSecondary("leaveUnacked", rebalance.unacked, "orders");
+            return result;
+        } finally {
+            router.close();
+            for (NodeProcess p : processes)
+                p.stop();
+        }
+    }
+
+    // routes random patients for `millis`, returns orders acked per ms
+    private static double iteration(ClusterRouter router, long millis) throws Exception {
+        long ackedBefore = acked(router);
+        long start = System.nanoTime();
+        route(router, start + millis * 1_000_000L);
+        long elapsed = System.nanoTime() - start;
+        return (acked(router) - ackedBefore) / (elapsed / 1e6);
+    }
+
+    private static void route(ClusterRouter router, long deadline) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        do {
+            for (int i = 0; i < 64; i++) {
+                String clinic = CLINICS[random.nextInt(CLINICS.length)];
+                router.route(clinic, clinic + "-P" + random.nextInt(PATIENTS),
+                        TEST_TYPES[random.nextInt(TEST_TYPES.length)], random.nextInt(3) + 1);
+            }
+            router.flush();
+        } while (System.nanoTime() < deadline);
+    }
+
+    private static long acked(ClusterRouter router) {
+        long acked = 0;
+        for (ClusterRouter.Node node : router.ring().nodes())
+            acked += node.getChannel().getAcked();
+        return acked;
+    }
+
+    // an iteration during which one node joins and leaves again, from a second thread
+    private static final class Rebalance {
+        final ClusterRouter router;
+        final String nodeId;
+        final int port;
+        final long millis;
+        long joinNanos;
+        long leaveNanos;
+        long unacked;
+        ClusterRouter.Node left;
+
+        Rebalance(ClusterRouter router, String nodeId, int port, long millis) {
+            this.router = router;
+            this.nodeId = nodeId;
+            this.port = port;
+            this.millis = millis;
+        }
+
+        // returns orders acked per ms, the leaving node's included
+        double measure() throws Exception {
+            Thread rebalancer = new Thread(this::joinAndLeave, "rebalancer");
+            long ackedBefore = acked(router);
+            long start = System.nanoTime();
+            rebalancer.start();
+            route(router, start + millis * 1_000_000L);
+            rebalancer.join(); // leave() may still be draining
+            long elapsed = System.nanoTime() - start;
+            if (left == null)
+                throw new IllegalStateException(nodeId + " did not join and leave");
+            unacked = left.getChannel().getSent() - left.getChannel().getAcked();
+            return (acked(router) + left.getChannel().getAcked() - ackedBefore) / (elapsed / 1e6);
+        }
+
+        private void joinAndLeave() {
+            try {
+                Thread.sleep(millis / 3);
+                long t = System.nanoTime();
+                router.join(nodeId, port);
+                joinNanos = System.nanoTime() - t;
+                Thread.sleep(millis / 3);
+                t = System.nanoTime();
+                left = router.leave(nodeId);
+                leaveNanos = System.nanoTime() - t;
+            } catch (IOException e) {
+                System.err.println("rebalance failed: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // share of 100k sample patients whose owner changes when node `nodes` joins nodes 0..nodes-1
+    private static double movedOnJoin(int nodes) {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(ClusterRouter.VIRTUAL_NODES);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(ClusterRouter.VIRTUAL_NODES);
+        for (int n = 0; n <= nodes; n++) {
+            if (n < nodes)
+                before.add("node-" + n, "node-" + n);
+            after.add("node-" + n, "node-" + n);
+        }
+        int samples = 100_000;
+        int moved = 0;
+        for (int k = 0; k < samples; k++) {
+            String patient = "P" + k;
+            if (!before.owner(patient).equals(after.owner(patient)))
+                moved++;
+        }
+        return (double) moved / samples;
+    }
+}
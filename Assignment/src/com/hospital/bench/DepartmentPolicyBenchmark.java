@@ -0,0 +1,248 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.policy.DepartmentPolicyMap;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+import com.hospital.spi.Strategies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Throughput of per-department policies as the number of departments grows.
+ *
+ *   perDepartment  DepartmentPolicyMap - one store (and so one lock) per department
+ *   global         every department behind one store - what a single hospital-wide
+ *                  lock costs once the policy is split by department
+ *
+ * `readers` auditor threads read a random department in a tight loop, `writers`
+ * supervisor threads write a random department every `writeIntervalMs` (0 - tight loop).
+ * With one global lock every write shuts out every reader; per department a write only
+ * shuts out the readers of that department, so reads should scale with the department
+ * count. startWrite() times go into a histogram (writer acquire latency).
+ *
+ * Grid: impl (the store guarding a key), layout, departments (5 .. 500), readers, writers.
+ *
+ * usage: DepartmentPolicyBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class DepartmentPolicyBenchmark {
+    private static final String NAME = DepartmentPolicyBenchmark.class.getName();
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "department-policy-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String impl : options.param("impl", "handRolled", "readWriteLock", "snapshot")) {
+            for (String layout : options.param("layout", "perDepartment", "global")) {
+                for (String departments : options.param("departments", "5", "50", "500")) {
+                    for (String readers : options.param("readers", "8")) {
+                        for (String writers : options.param("writers", "2")) {
+                            for (String interval : options.param("writeIntervalMs", "0")) {
+                                Map<String, String> params = new LinkedHashMap<>();
+                                params.put("impl", impl);
+                                params.put("layout", layout);
+                                params.put("departments", departments);
+                                params.put("readers", readers);
+                                params.put("writers", writers);
+                                params.put("writeIntervalMs", interval);
+                                report.add(run(options, params));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws InterruptedException {
+        int readers = Integer.parseInt(params.get("readers"));
+        int writers = Integer.parseInt(params.get("writers"));
+
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(params, options.warmupMillis);
+        }
+        double[] scores = new double[options.measurementIterations];
+        double writesPerMs = 0;
+        LatencyHistogram writeAcquire = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = iteration(params, options.measurementMillis);
+            scores[i] = it.reads / (it.nanos / 1e6);
+            writesPerMs += it.writes / (it.nanos / 1e6) / options.measurementIterations;
+            writeAcquire.add(it.writeAcquire);
+        }
+
+        BenchResult result = new BenchResult(NAME + ".departments", "thrpt", readers + writers, options, params, "reads/ms", scores);
+        result.addSecondary("writes", writesPerMs, "writes/ms");
+        result.addSecondary("writeAcquire.p0.50", writeAcquire.valueAtPercentile(50) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p0.99", writeAcquire.valueAtPercentile(99) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p1.00", writeAcquire.getMaxNanos() / 1000.0, "us");
+        return result;
+    }
+
+    private static Iteration iteration(Map<String, String> params, long millis) throws InterruptedException {
+        PolicyStoreProvider provider = Strategies.policy(params.get("impl"));
+        int count = Integer.parseInt(params.get("departments"));
+        int readerCount = Integer.parseInt(params.get("readers"));
+        int writerCount = Integer.parseInt(params.get("writers"));
+        long intervalMs = Long.parseLong(params.get("writeIntervalMs"));
+
+        String[] names = new String[count];
+        for (int d = 0; d < count; d++)
+            names[d] = "dept-" + d;
+        Departments departments = params.get("layout").equals("global")
+                ? new GlobalLock(provider.create(false), count)
+                : new PerDepartment(new DepartmentPolicyMap(provider, false), names);
+
+        Stop stop = new Stop();
+        long[] reads = new long[readerCount];
+        long[] writes = new long[writerCount];
+        LatencyHistogram writeAcquire = new LatencyHistogram();
+        Thread[] threads = new Thread[readerCount + writerCount];
+        for (int t = 0; t < readerCount; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long r = 0;
+                int h = 0;
+                try {
+                    while (!stop.stopped) {
+                        h += departments.read(random.nextInt(count)).length();
+                        r++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads[slot] = r;
+                sink += h;
+            }, "bench-auditor-" + t);
+        }
+        for (int t = 0; t < writerCount; t++) {
+            int slot = t;
+            threads[readerCount + t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long w = 0;
+                try {
+                    while (!stop.stopped) {
+                        if (intervalMs > 0)
+                            Thread.sleep(intervalMs);
+                        departments.write(random.nextInt(count), POLICIES[(int) (w % POLICIES.length)], writeAcquire);
+                        w++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                writes[slot] = w;
+            }, "bench-supervisor-" + t);
+        }
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.join();
+        departments.close();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        for (long r : reads)
+            it.reads += r;
+        for (long w : writes)
+            it.writes += w;
+        it.writeAcquire = writeAcquire;
+        return it;
+    }
+
+    // the two layouts behind the same calls, departments by index so the name lookup is not timed
+    private interface Departments {
+        String read(int department) throws InterruptedException;
+
+        void write(int department, String policy, LatencyHistogram writeAcquire) throws InterruptedException;
+
+        void close();
+    }
+
+    private static final class PerDepartment implements Departments {
+        private final DepartmentPolicyMap map;
+        private final PolicyStore[] stores;
+
+        PerDepartment(DepartmentPolicyMap map, String[] names) {
+            this.map = map;
+            stores = new PolicyStore[names.length];
+            for (int d = 0; d < names.length; d++)
+                stores[d] = map.department(names[d]);
+        }
+
+        public String read(int department) throws InterruptedException {
+            return stores[department].readPolicy();
+        }
+
+        public void write(int department, String policy, LatencyHistogram writeAcquire) throws InterruptedException {
+            PolicyStore store = stores[department];
+            long requested = System.nanoTime();
+            store.startWrite();
+            writeAcquire.record(System.nanoTime() - requested);
+            store.setPolicy(policy);
+            store.endWrite();
+        }
+
+        public void close() {
+            map.close();
+        }
+    }
+
+    // one store's lock around every department. The values sit in an AtomicReferenceArray
+    // so the layout stays correct with stores whose bracket is a no-op (snapshot)
+    private static final class GlobalLock implements Departments {
+        private final PolicyStore lock;
+        private final AtomicReferenceArray<String> policies;
+
+        GlobalLock(PolicyStore lock, int count) {
+            this.lock = lock;
+            this.policies = new AtomicReferenceArray<>(count);
+            for (int d = 0; d < count; d++)
+                policies.set(d, "NORMAL");
+        }
+
+        public String read(int department) throws InterruptedException {
+            lock.startRead();
+            try {
+                return policies.get(department);
+            } finally {
+                lock.endRead();
+            }
+        }
+
+        public void write(int department, String policy, LatencyHistogram writeAcquire) throws InterruptedException {
+            long requested = System.nanoTime();
+            lock.startWrite();
+            writeAcquire.record(System.nanoTime() - requested);
+            policies.set(department, policy);
+            lock.endWrite();
+        }
+
+        public void close() {
+            lock.close();
+        }
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long reads;
+        long writes;
+        LatencyHistogram writeAcquire;
+    }
+}
@@ -0,0 +1,195 @@
+package com.hospital.bench;
+
+import com.hospital.cluster.AnalyzerNode;
+import com.hospital.cluster.NodeProcess;
+import com.hospital.cluster.StandbyNode;
+import com.hospital.net.OrderChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Cost and benefit of the hot-standby queue replication, two processes on this host.
+ *
+ * intake     an AnalyzerNode with (replication=on) or without (off) a StandbyNode
+ *            following it. One OrderChannel sends orders as fast as the node acks them;
+ *            score is orders per ms. The analyzers take `processingMs` per order, with 0
+ *            the queue drains quickly and intake + replication are what is measured.
+ *            Secondary: overhead of replication vs the off run, in % of throughput.
+ *
+ * failover   one slow analyzer (queue builds up), `backlog` orders sent and acked, then
+ *            the primary is killed. Score is ms from the kill until the promoted standby
+ *            has acked a new order.
+ *            Secondaries:
+ *              detectMs      kill -> standby prints PROMOTED
+ *              promoteMs     standby's own time from detecting the loss to accepting orders
+ *              restored      orders the standby took over
+ *              lost          orders queued at the primary (last STATUS) the standby
+ *                            did not restore - 0 unless replication lagged
+ *
+ * usage: FailoverBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class FailoverBenchmark {
+    private static final String NAME = FailoverBenchmark.class.getName();
+    private static final byte[][] CLINICS = bytes("ER", "ICU", "WardA", "WardB", "Outpatient");
+    private static final byte[][] TEST_TYPES = bytes("BloodTest", "XRay", "MRI", "CTScan");
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "failover-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String analyzers : options.param("analyzers", "4")) {
+            for (String processingMs : options.param("processingMs", "0")) {
+                for (String window : options.param("window", "256")) {
+                    double off = 0;
+                    for (String replication : options.param("replication", "off", "on")) {
+                        Map<String, String> params = new LinkedHashMap<>();
+                        params.put("replication", replication);
+                        params.put("analyzers", analyzers);
+                        params.put("processingMs", processingMs);
+                        params.put("window", window);
+                        BenchResult result = intake(options, params);
+                        if (replication.equals("off"))
+                            off = result.getScore();
+                        else if (off > 0)
+                            result.addSecondary("overhead", (1 - result.getScore() / off) * 100, "%");
+                        report.add(result);
+                    }
+                }
+            }
+        }
+        for (String backlog : options.param("backlog", "1000")) {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("backlog", backlog);
+            report.add(failover(options, params));
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult intake(BenchOptions options, Map<String, String> params) throws Exception {
+        NodeProcess standby = null;
+        NodeProcess primary = null;
+        OrderChannel channel = null;
+        try {
+            String[] args = { "--analyzers", params.get("analyzers"), "--processingMs", params.get("processingMs"),
+                    "--capacity", "4096" };
+            if (params.get("replication").equals("on")) {
+                standby = NodeProcess.start(StandbyNode.class);
+                args = append(args, "--standby", String.valueOf(standby.getPort()));
+            }
+            primary = NodeProcess.start(AnalyzerNode.class, args);
+            channel = new OrderChannel(primary.getPort(), Integer.parseInt(params.get("window")));
+
+            for (int i = 0; i < options.warmupIterations; i++)
+                iteration(channel, options.warmupMillis);
+            double[] scores = new double[options.measurementIterations];
+            for (int i = 0; i < options.measurementIterations; i++)
+                scores[i] = iteration(channel, options.measurementMillis);
+            return new BenchResult(NAME + ".intake", "thrpt", 1, options, params, "orders/ms", scores);
+        } finally {
+            if (channel != null)
+                channel.close();
+            if (primary != null)
+                primary.stop(); // closes the replication stream - goodbye, the standby exits
+            if (standby != null)
+                standby.stop();
+        }
+    }
+
+    // sends for `millis`, returns orders acked per ms
+    private static double iteration(OrderChannel channel, long millis) throws Exception {
+        long ackedBefore = channel.getAcked();
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000L;
+        do {
+            for (int i = 0; i < 64; i++)
+                send(channel);
+            channel.flush();
+        } while (System.nanoTime() < deadline);
+        long elapsed = System.nanoTime() - start;
+        return (channel.getAcked() - ackedBefore) / (elapsed / 1e6);
+    }
+
+    private static BenchResult failover(BenchOptions options, Map<String, String> params) throws Exception {
+        int backlog = Integer.parseInt(params.get("backlog"));
+        int iterations = options.warmupIterations + options.measurementIterations;
+        double[] scores = new double[options.measurementIterations];
+        double detect = 0;
+        double promote = 0;
+        long restored = 0;
+        long lost = 0;
+        for (int i = 0; i < iterations; i++) {
+            NodeProcess standby = NodeProcess.start(StandbyNode.class, "--analyzers", "1", "--processingMs", "1000",
+                    "--capacity", String.valueOf(backlog));
+            NodeProcess primary = null;
+            try {
+                primary = NodeProcess.start(AnalyzerNode.class, "--analyzers", "1", "--processingMs", "1000",
+                        "--capacity", String.valueOf(backlog), "--standby", String.valueOf(standby.getPort()));
+                try (OrderChannel channel = new OrderChannel(primary.getPort(), backlog)) {
+                    for (int n = 0; n < backlog; n++)
+                        send(channel);
+                    channel.flush();
+                    while (channel.getAcked() < backlog)
+                        Thread.sleep(1);
+                }
+                primary.send("status");
+                String[] status = primary.readLine("STATUS").split(" ");
+                long queued = Long.parseLong(status[2]);
+
+                long killed = System.nanoTime();
+                primary.kill();
+                String[] promoted = standby.readLine("PROMOTED").split(" ");
+                long detected = System.nanoTime();
+                try (OrderChannel channel = new OrderChannel(Integer.parseInt(promoted[2]), 1)) {
+                    send(channel);
+                    channel.flush();
+                    while (channel.getAcked() < 1)
+                        Thread.sleep(0, 100_000);
+                }
+                long serving = System.nanoTime();
+
+                if (i >= options.warmupIterations) {
+                    scores[i - options.warmupIterations] = (serving - killed) / 1e6;
+                    detect += (detected - killed) / 1e6;
+                    promote += Long.parseLong(promoted[3]) / 1e3;
+                    restored += Long.parseLong(promoted[1]);
+                    lost += Math.max(0, queued - Long.parseLong(promoted[1]));
+                }
+            } finally {
+                if (primary != null)
+                    primary.kill();
+                standby.stop();
+            }
+        }
+        int n = options.measurementIterations;
+        BenchResult result = new BenchResult(NAME + ".failover", "avgt", 1, options, params, "ms", scores);
+        result.addSecondary("detectMs", detect / n, "ms");
+        result.addSecondary("promoteMs", promote / n, "ms");
+        result.addSecondary("restored", (double) restored / n, "orders");
+        result.addSecondary("lost", (double) lost / n, "orders");
+        return result;
+    }
+
+    private static void send(OrderChannel channel) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int clinic = random.nextInt(CLINICS.length);
+        channel.send(CLINICS[clinic], TEST_TYPES[random.nextInt(TEST_TYPES.length)],
+                ("P" + random.nextInt(100_000)).getBytes(StandardCharsets.UTF_8), random.nextInt(3) + 1);
+    }
+
+    private static String[] append(String[] args, String... more) {
+        String[] all = new String[args.length + more.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+
+    private static byte[][] bytes(String... names) {
+        byte[][] b = new byte[names.length][];
+        for (int i = 0; i < names.length; i++)
+            b[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        return b;
+    }
+}
@@ -0,0 +1,152 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.Strategies;
+import com.hospital.strategy.CombiningPolicyMonitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Many supervisors writing at once: write throughput and what it does to readers.
+ *
+ * `writers` supervisor threads call writePolicy() in a tight loop while `readers`
+ * auditors call readPolicy(). Every read is timed - the read latency tail is the
+ * reader disruption caused by writers pushing them out. For the combining monitor the
+ * number of exclusive sections (batches) is reported next to the writes; for the others
+ * every write is its own exclusive section.
+ *
+ * Grid: impl (handRolled, readWriteLock, combining), writers (1 .. 16), readers.
+ *
+ * usage: GroupCommitBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class GroupCommitBenchmark {
+    private static final String NAME = GroupCommitBenchmark.class.getName();
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "group-commit-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String impl : options.param("impl", "handRolled", "readWriteLock", "combining")) {
+            for (String writers : options.param("writers", "1", "4", "16")) {
+                for (String readers : options.param("readers", "4")) {
+                    Map<String, String> params = new LinkedHashMap<>();
+                    params.put("impl", impl);
+                    params.put("writers", writers);
+                    params.put("readers", readers);
+                    report.add(run(options, params));
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws InterruptedException {
+        String impl = params.get("impl");
+        int writers = Integer.parseInt(params.get("writers"));
+        int readers = Integer.parseInt(params.get("readers"));
+
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(impl, writers, readers, options.warmupMillis);
+        }
+        double[] scores = new double[options.measurementIterations];
+        double readsPerMs = 0;
+        double sectionsPerMs = 0;
+        LatencyHistogram readLatency = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = iteration(impl, writers, readers, options.measurementMillis);
+            double ms = it.nanos / 1e6;
+            scores[i] = it.writes / ms;
+            readsPerMs += it.reads / ms / options.measurementIterations;
+            sectionsPerMs += it.sections / ms / options.measurementIterations;
+            readLatency.add(it.readLatency);
+        }
+
+        BenchResult result = new BenchResult(NAME + ".groupCommit", "thrpt", writers + readers, options, params, "writes/ms", scores);
+        result.addSecondary("reads", readsPerMs, "reads/ms");
+        result.addSecondary("exclusiveSections", sectionsPerMs, "sections/ms");
+        result.addSecondary("read.p0.99", readLatency.valueAtPercentile(99) / 1000.0, "us");
+        result.addSecondary("read.p0.999", readLatency.valueAtPercentile(99.9) / 1000.0, "us");
+        result.addSecondary("read.p1.00", readLatency.getMaxNanos() / 1000.0, "us");
+        return result;
+    }
+
+    private static Iteration iteration(String impl, int writerCount, int readerCount, long millis) throws InterruptedException {
+        PolicyStore policy = Strategies.policy(impl).create(false);
+        Stop stop = new Stop();
+        long[] writes = new long[writerCount];
+        long[] reads = new long[readerCount];
+        LatencyHistogram readLatency = new LatencyHistogram();
+        Thread[] threads = new Thread[writerCount + readerCount];
+        for (int t = 0; t < writerCount; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> {
+                long w = 0;
+                try {
+                    while (!stop.stopped) {
+                        policy.writePolicy(POLICIES[(int) ((w + slot) % POLICIES.length)]);
+                        w++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                writes[slot] = w;
+            }, "bench-supervisor-" + t);
+        }
+        for (int t = 0; t < readerCount; t++) {
+            int slot = t;
+            threads[writerCount + t] = new Thread(() -> {
+                long r = 0;
+                int h = 0;
+                try {
+                    while (!stop.stopped) {
+                        long start = System.nanoTime();
+                        h += policy.readPolicy().length();
+                        readLatency.record(System.nanoTime() - start);
+                        r++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads[slot] = r;
+                sink += h;
+            }, "bench-auditor-" + t);
+        }
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.join();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        for (long w : writes)
+            it.writes += w;
+        for (long r : reads)
+            it.reads += r;
+        it.sections = policy instanceof CombiningPolicyMonitor ? ((CombiningPolicyMonitor) policy).getBatches() : it.writes;
+        it.readLatency = readLatency;
+        policy.close();
+        return it;
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long writes;
+        long reads;
+        long sections;
+        LatencyHistogram readLatency;
+    }
+}
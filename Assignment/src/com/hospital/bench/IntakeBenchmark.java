@@ -0,0 +1,103 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.net.OrderIntakeServer;
+import com.hospital.net.OrderLoadClient;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.Strategies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * End-to-end TCP intake over localhost: OrderIntakeServer in front of a bounded queue
+ * that `analyzers` threads drain as fast as they can, driven by OrderLoadClient.
+ *
+ * Score is orders per ms acknowledged by the server; the intake latency percentiles
+ * (send -> ack, i.e. until the order is in the queue) are secondary. window 1 is one
+ * order in flight per connection (latency), larger windows pipeline (throughput).
+ * A small capacity with slow analyzers shows the backpressure: throughput follows the
+ * analyzers and the latency includes the time clients were held back.
+ *
+ * Grid: queue, capacity, connections, window, analyzers.
+ *
+ * usage: IntakeBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class IntakeBenchmark {
+    private static final String NAME = IntakeBenchmark.class.getName();
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "intake-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String queue : options.param("queue", "lockSignal")) {
+            for (String capacity : options.param("capacity", "1024")) {
+                for (String connections : options.param("connections", "1", "4", "16")) {
+                    for (String window : options.param("window", "1", "256")) {
+                        for (String analyzers : options.param("analyzers", "2")) {
+                            Map<String, String> params = new LinkedHashMap<>();
+                            params.put("queue", queue);
+                            params.put("capacity", capacity);
+                            params.put("connections", connections);
+                            params.put("window", window);
+                            params.put("analyzers", analyzers);
+                            report.add(run(options, params));
+                        }
+                    }
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws Exception {
+        for (int i = 0; i < options.warmupIterations; i++)
+            iteration(params, options.warmupMillis);
+        double[] scores = new double[options.measurementIterations];
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            OrderLoadClient.Result it = iteration(params, options.measurementMillis);
+            scores[i] = it.getOrdersPerSecond() / 1000.0;
+            latency.add(it.getLatency());
+        }
+        int connections = Integer.parseInt(params.get("connections"));
+        BenchResult result = new BenchResult(NAME + ".intake", "thrpt", connections, options, params, "orders/ms", scores);
+        result.addSecondary("intake.p0.50", latency.valueAtPercentile(50) / 1000.0, "us");
+        result.addSecondary("intake.p0.99", latency.valueAtPercentile(99) / 1000.0, "us");
+        result.addSecondary("intake.p1.00", latency.getMaxNanos() / 1000.0, "us");
+        return result;
+    }
+
+    private static OrderLoadClient.Result iteration(Map<String, String> params, long millis) throws Exception {
+        OrderQueue queue = Strategies.queue(params.get("queue")).create(Integer.parseInt(params.get("capacity")), false);
+        OrderIntakeServer server = new OrderIntakeServer(queue, 0);
+        Thread serverThread = new Thread(server, "intake");
+        Thread[] analyzers = new Thread[Integer.parseInt(params.get("analyzers"))];
+        for (int a = 0; a < analyzers.length; a++) {
+            analyzers[a] = new Thread(() -> {
+                try {
+                    while (true)
+                        queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bench-analyzer-" + a);
+        }
+        serverThread.start();
+        for (Thread t : analyzers)
+            t.start();
+
+        OrderLoadClient client = new OrderLoadClient(server.getPort(), Integer.parseInt(params.get("connections")),
+                Integer.parseInt(params.get("window")));
+        OrderLoadClient.Result result = client.run(millis);
+
+        server.stop();
+        serverThread.interrupt(); // in case it is blocked on a full queue
+        serverThread.join();
+        for (Thread t : analyzers)
+            t.interrupt();
+        for (Thread t : analyzers)
+            t.join();
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package com.hospital.bench;
+
+import com.hospital.lease.LeasingOrderQueue;
+import com.hospital.lease.TimingWheel;
+import com.hospital.spi.Delivery;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.Strategies;
+import com.hospital.spi.TestOrder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cost of the lease bookkeeping behind LeasingOrderQueue.
+ *
+ *   expiry      with `inFlight` leases outstanding, one lease is granted and the oldest
+ *               one acked (timeout scheduled + cancelled) per op. Score is ops per ms.
+ *               impl: wheel (TimingWheel, O(1)) or heap (ScheduledThreadPoolExecutor
+ *               with remove-on-cancel, the JDK's O(log n) delay heap)
+ *   redelivery  `orders` orders through a leasing lockSignal queue with 4 analyzers that
+ *               "crash" (drop the order without ack or release) on `crash` % of their
+ *               takes. Score is ms until every order has been acked; secondaries count
+ *               redeliveries, orders dead-lettered after LeasingOrderQueue's max
+ *               deliveries and orders that vanished (must be 0).
+ *
+ * usage: LeaseBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class LeaseBenchmark {
+    private static final String NAME = LeaseBenchmark.class.getName();
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "lease-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String impl : options.param("impl", "wheel", "heap")) {
+            for (String inFlight : options.param("inFlight", "1000", "10000", "100000")) {
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("impl", impl);
+                params.put("inFlight", inFlight);
+                report.add(expiry(options, params));
+            }
+        }
+        for (String crash : options.param("crash", "0", "5", "20")) {
+            for (String visibilityMs : options.param("visibilityMs", "50")) {
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("crash", crash);
+                params.put("visibilityMs", visibilityMs);
+                params.put("orders", "2000");
+                report.add(redelivery(options, params));
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult expiry(BenchOptions options, Map<String, String> params) throws Exception {
+        boolean wheel = params.get("impl").equals("wheel");
+        int inFlight = Integer.parseInt(params.get("inFlight"));
+        for (int i = 0; i < options.warmupIterations; i++)
+            expiryIteration(wheel, inFlight, options.warmupMillis);
+        double[] scores = new double[options.measurementIterations];
+        for (int i = 0; i < options.measurementIterations; i++)
+            scores[i] = expiryIteration(wheel, inFlight, options.measurementMillis);
+        return new BenchResult(NAME + ".expiry", "thrpt", 1, options, params, "ops/ms", scores);
+    }
+
+    // ops per ms; the leases are a ring, the slot being re-leased holds the oldest one
+    @SuppressWarnings("unchecked")
+    private static double expiryIteration(boolean useWheel, int inFlight, long millis) throws Exception {
+        TimingWheel<Integer> wheel = TimingWheel.covering(TimeUnit.MILLISECONDS.toNanos(10), TIMEOUT_NANOS);
+        ScheduledThreadPoolExecutor heap = new ScheduledThreadPoolExecutor(1);
+        heap.setRemoveOnCancelPolicy(true);
+        Runnable expired = () -> { };
+        Object[] leases = new Object[inFlight];
+        try {
+            for (int i = 0; i < inFlight; i++)
+                leases[i] = useWheel ? wheel.schedule(i, TIMEOUT_NANOS)
+                        : heap.schedule(expired, TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+            long ops = 0;
+            int slot = 0;
+            long start = System.nanoTime();
+            long deadline = start + millis * 1_000_000L;
+            do {
+                for (int k = 0; k < 256; k++) {
+                    if (useWheel) {
+                        wheel.cancel((TimingWheel.Timeout<Integer>) leases[slot]);
+                        leases[slot] = wheel.schedule(slot, TIMEOUT_NANOS);
+                    } else {
+                        ((ScheduledFuture<?>) leases[slot]).cancel(false);
+                        leases[slot] = heap.schedule(expired, TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+                    }
+                    if (++slot == inFlight)
+                        slot = 0;
+                }
+                ops += 256;
+            } while (System.nanoTime() < deadline);
+            return ops / ((System.nanoTime() - start) / 1e6);
+        } finally {
+            heap.shutdownNow();
+        }
+    }
+
+    private static BenchResult redelivery(BenchOptions options, Map<String, String> params) throws Exception {
+        for (int i = 0; i < options.warmupIterations; i++)
+            redeliveryIteration(params);
+        double[] scores = new double[options.measurementIterations];
+        double redelivered = 0;
+        double deadLettered = 0;
+        double missing = 0;
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = redeliveryIteration(params);
+            scores[i] = it.nanos / 1e6;
+            redelivered += (double) it.redelivered / options.measurementIterations;
+            deadLettered += (double) it.deadLettered / options.measurementIterations;
+            missing += (double) it.missing / options.measurementIterations;
+        }
+        BenchResult result = new BenchResult(NAME + ".redelivery", "avgt", 4, options, params, "ms", scores);
+        result.addSecondary("redelivered", redelivered, "orders");
+        result.addSecondary("deadLettered", deadLettered, "orders");
+        result.addSecondary("missing", missing, "orders");
+        return result;
+    }
+
+    private static Iteration redeliveryIteration(Map<String, String> params) throws Exception {
+        int orders = Integer.parseInt(params.get("orders"));
+        int crash = Integer.parseInt(params.get("crash"));
+        OrderQueue inner = Strategies.queue("lockSignal").create(orders, false);
+        LeasingOrderQueue queue = new LeasingOrderQueue(inner, Long.parseLong(params.get("visibilityMs")));
+        AtomicLong acked = new AtomicLong();
+        Stop stop = new Stop();
+
+        List<Thread> analyzers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread a = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (!stop.stopped) {
+                        Delivery delivery = queue.lease();
+                        if (random.nextInt(100) < crash)
+                            continue; // analyzer died with the order - only the lease brings it back
+                        queue.ack(delivery);
+                        acked.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bench-analyzer-" + t);
+            analyzers.add(a);
+        }
+
+        long start = System.nanoTime();
+        for (Thread a : analyzers)
+            a.start();
+        for (int i = 0; i < orders; i++)
+            queue.put(new TestOrder("ER", "P" + i, "BloodTest", 1));
+        long deadline = start + TimeUnit.SECONDS.toNanos(10);
+        while (acked.get() + queue.getDeadLettered().size() < orders && System.nanoTime() < deadline)
+            Thread.sleep(1);
+        long elapsed = System.nanoTime() - start;
+        stop.stopped = true;
+        for (Thread a : analyzers)
+            a.interrupt();
+        for (Thread a : analyzers)
+            a.join();
+        queue.close();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        it.redelivered = queue.getRedelivered();
+        it.deadLettered = queue.getDeadLettered().size();
+        it.missing = orders - acked.get() - it.deadLettered;
+        return it;
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long redelivered;
+        long deadLettered;
+        long missing;
+    }
+}
@@ -0,0 +1,167 @@
+package com.hospital.bench;
+
+import com.hospital.policy.PersistentPolicyStore;
+import com.hospital.policy.SnapshotPolicyStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Cost of persisting the policy to the memory-mapped file.
+ *
+ *   restore    PersistentPolicyStore.open() on a file holding `history` versions
+ *              (us per open - the warm restart time)
+ *   readWrite  `readers` auditors call readPolicy() in a tight loop while one supervisor
+ *              publishes as fast as it can. Reads/ms should match the in-memory
+ *              snapshot store, writes/ms shows what the file (and durable sync) costs.
+ *
+ *   impl: snapshot (in memory), persistent, persistentDurable (force per write)
+ *
+ * usage: PersistentPolicyBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class PersistentPolicyBenchmark {
+    private static final String NAME = PersistentPolicyBenchmark.class.getName();
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "persistent-policy-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String history : options.param("history", "1", "1024")) {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("history", history);
+            report.add(restore(options, params));
+        }
+        for (String impl : options.param("impl", "snapshot", "persistent", "persistentDurable")) {
+            for (String readers : options.param("readers", "1", "4")) {
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("impl", impl);
+                params.put("readers", readers);
+                report.add(readWrite(options, params));
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult restore(BenchOptions options, Map<String, String> params) throws IOException {
+        int history = Integer.parseInt(params.get("history"));
+        Path file = Files.createTempFile("policy-bench", ".dat");
+        Files.delete(file); // open() creates it
+        try (PersistentPolicyStore store = PersistentPolicyStore.open(file)) {
+            for (int v = 0; v < history; v++)
+                store.publish(POLICIES[(v + 1) % POLICIES.length]);
+        }
+
+        for (int i = 0; i < options.warmupIterations; i++)
+            restoreIteration(file, options.warmupMillis);
+        double[] scores = new double[options.measurementIterations];
+        for (int i = 0; i < options.measurementIterations; i++)
+            scores[i] = restoreIteration(file, options.measurementMillis);
+        Files.delete(file);
+        return new BenchResult(NAME + ".restore", "avgt", 1, options, params, "us/op", scores);
+    }
+
+    private static double restoreIteration(Path file, long millis) throws IOException {
+        long ops = 0;
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000L;
+        do {
+            PersistentPolicyStore store = PersistentPolicyStore.open(file);
+            sink += store.getPolicy().length();
+            ops++;
+        } while (System.nanoTime() < deadline);
+        return (System.nanoTime() - start) / 1000.0 / ops;
+    }
+
+    private static BenchResult readWrite(BenchOptions options, Map<String, String> params) throws Exception {
+        int readers = Integer.parseInt(params.get("readers"));
+        for (int i = 0; i < options.warmupIterations; i++)
+            readWriteIteration(params.get("impl"), readers, options.warmupMillis);
+        double[] scores = new double[options.measurementIterations];
+        double writesPerMs = 0;
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = readWriteIteration(params.get("impl"), readers, options.measurementMillis);
+            scores[i] = it.reads / (it.nanos / 1e6);
+            writesPerMs += it.writes / (it.nanos / 1e6) / options.measurementIterations;
+        }
+        BenchResult result = new BenchResult(NAME + ".readWrite", "thrpt", readers + 1, options, params, "reads/ms", scores);
+        result.addSecondary("writes", writesPerMs, "writes/ms");
+        return result;
+    }
+
+    private static Iteration readWriteIteration(String impl, int readerCount, long millis) throws Exception {
+        Path file = null;
+        SnapshotPolicyStore store;
+        if (impl.equals("snapshot")) {
+            store = new SnapshotPolicyStore();
+        } else {
+            file = Files.createTempFile("policy-bench", ".dat");
+            Files.delete(file);
+            store = PersistentPolicyStore.open(file, PersistentPolicyStore.DEFAULT_HISTORY, impl.equals("persistentDurable"));
+        }
+
+        Stop stop = new Stop();
+        long[] reads = new long[readerCount];
+        Thread[] threads = new Thread[readerCount];
+        for (int t = 0; t < readerCount; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> {
+                long r = 0;
+                int h = 0;
+                while (!stop.stopped) {
+                    h += store.readPolicy().length();
+                    r++;
+                }
+                reads[slot] = r;
+                sink += h;
+            }, "bench-reader-" + t);
+        }
+        long[] writes = new long[1];
+        Thread writer = new Thread(() -> {
+            long w = 0;
+            while (!stop.stopped) {
+                store.publish(POLICIES[(int) (w % POLICIES.length)]);
+                w++;
+            }
+            writes[0] = w;
+        }, "bench-writer");
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        writer.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.join();
+        writer.join();
+
+        if (store instanceof PersistentPolicyStore)
+            ((PersistentPolicyStore) store).close();
+        if (file != null)
+            Files.delete(file);
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        for (long r : reads)
+            it.reads += r;
+        it.writes = writes[0];
+        return it;
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long reads;
+        long writes;
+    }
+}
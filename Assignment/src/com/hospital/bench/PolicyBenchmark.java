@@ -0,0 +1,208 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+import com.hospital.spi.Strategies;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Read / write throughput and writer-acquire latency of the policy monitors.
+ *
+ *   handRolled      PolicyRWMonitor                   (Part A/B - writer priority, wait / notifyAll)
+ *   readWriteLock   PolicyRWMonitorD, fair=false/true (Part D - ReentrantReadWriteLock)
+ *   stampedLock     StampedPolicyMonitor              (optimistic reads, validate the stamp)
+ *   snapshot        SnapshotPolicyStore               (immutable versions, AtomicReference + CAS)
+ *   bravo           BravoPolicyMonitor                (handRolled + BRAVO reader bias, striped slots)
+ *   unsynchronized  plain volatile field, no locking  (baseline: what the reader loop costs without a lock)
+ *
+ * Everything but the baseline comes from the PolicyStoreProvider services.
+ *
+ * Every thread runs `ratio` reads (readPolicy) followed by one write
+ * (startWrite, setPolicy, endWrite), so the reader:writer mix is the same at any thread
+ * count. The time each startWrite() took goes into a histogram - that is the writer
+ * acquire latency. nsPerOp (thread time per operation) for the unsynchronized baseline is
+ * the reader-side cost alone, the difference to the other implementations is the lock's.
+ *
+ * Grid: impl, fair, threads (1 .. all cores), ratio (1 .. 1000 reads per write).
+ *
+ * usage: PolicyBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class PolicyBenchmark {
+    private static final String NAME = PolicyBenchmark.class.getName();
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    private static final String BASELINE = "unsynchronized";
+
+    static volatile int sink; // keeps the JIT from dropping the reads
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "policy-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String impl : options.param("impl", policyNames())) {
+            boolean fairness = !impl.equals(BASELINE) && Strategies.policy(impl).supportsFairness();
+            for (String fair : options.param("fair", "false", "true")) {
+                if (!fairness && fair.equals("true")) {
+                    continue;
+                }
+                for (String threads : options.param("threads", defaultThreadCounts())) {
+                    for (String ratio : options.param("ratio", "1", "10", "100", "1000")) {
+                        Map<String, String> params = new LinkedHashMap<>();
+                        params.put("impl", impl);
+                        params.put("fair", fair);
+                        params.put("threads", threads);
+                        params.put("ratio", ratio);
+                        report.add(run(options, params));
+                    }
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    // the baseline first, then every installed policy strategy
+    private static String[] policyNames() {
+        List<String> names = new ArrayList<>();
+        names.add(BASELINE);
+        for (PolicyStoreProvider p : Strategies.policies()) {
+            names.add(p.name());
+        }
+        return names.toArray(new String[0]);
+    }
+
+    // powers of two up to the core count, plus the core count itself
+    private static String[] defaultThreadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<String> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            counts.add(String.valueOf(t));
+        }
+        counts.add(String.valueOf(cores));
+        return counts.toArray(new String[0]);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws InterruptedException {
+        String impl = params.get("impl");
+        boolean fair = Boolean.parseBoolean(params.get("fair"));
+        int threads = Integer.parseInt(params.get("threads"));
+        int ratio = Integer.parseInt(params.get("ratio"));
+
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(impl, fair, threads, ratio, options.warmupMillis);
+        }
+        double[] scores = new double[options.measurementIterations];
+        long reads = 0;
+        long writes = 0;
+        long nanos = 0;
+        LatencyHistogram writeAcquire = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = iteration(impl, fair, threads, ratio, options.measurementMillis);
+            scores[i] = it.reads / (it.nanos / 1e6);
+            reads += it.reads;
+            writes += it.writes;
+            nanos += it.nanos;
+            writeAcquire.add(it.writeAcquire);
+        }
+
+        BenchResult result = new BenchResult(NAME + ".readWriteMix", "thrpt", threads, options, params, "reads/ms", scores);
+        result.addSecondary("writes", writes / (nanos / 1e6), "writes/ms");
+        result.addSecondary("nsPerOp", reads + writes == 0 ? Double.NaN : (double) nanos * threads / (reads + writes), "ns");
+        result.addSecondary("writeAcquire.p0.50", writeAcquire.valueAtPercentile(50) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p0.99", writeAcquire.valueAtPercentile(99) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p1.00", writeAcquire.getMaxNanos() / 1000.0, "us");
+        return result;
+    }
+
+    private static Iteration iteration(String impl, boolean fair, int threadCount, int ratio, long millis) throws InterruptedException {
+        PolicyStore policy = impl.equals(BASELINE) ? new Unsynchronized() : Strategies.policy(impl).create(fair);
+        Stop stop = new Stop();
+        long[] reads = new long[threadCount];
+        long[] writes = new long[threadCount];
+        LatencyHistogram[] histograms = new LatencyHistogram[threadCount];
+        Thread[] threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++) {
+            int slot = t;
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms[t] = histogram;
+            threads[t] = new Thread(() -> {
+                long r = 0;
+                long w = 0;
+                int h = 0;
+                try {
+                    while (!stop.stopped) {
+                        for (int i = 0; i < ratio; i++) {
+                            h += policy.readPolicy().length();
+                        }
+                        r += ratio;
+                        long requested = System.nanoTime();
+                        policy.startWrite();
+                        histogram.record(System.nanoTime() - requested);
+                        policy.setPolicy(POLICIES[(int) (w % POLICIES.length)]);
+                        policy.endWrite();
+                        w++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads[slot] = r;
+                writes[slot] = w;
+                sink += h;
+            }, "bench-policy-" + t);
+        }
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.join();
+
+        policy.close();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        it.writeAcquire = new LatencyHistogram();
+        for (int t = 0; t < threadCount; t++) {
+            it.reads += reads[t];
+            it.writes += writes[t];
+            it.writeAcquire.add(histograms[t]);
+        }
+        return it;
+    }
+
+    // no locking at all - the cost of the reader loop itself
+    private static final class Unsynchronized implements PolicyStore {
+        private volatile String policy = "NORMAL";
+
+        public void startRead() { }
+
+        public void endRead() { }
+
+        public void startWrite() { }
+
+        public void endWrite() { }
+
+        public String getPolicy() { return policy; }
+
+        public void setPolicy(String p) { policy = p; }
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long reads;
+        long writes;
+        LatencyHistogram writeAcquire;
+    }
+}
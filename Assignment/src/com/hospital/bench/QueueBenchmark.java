@@ -0,0 +1,194 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+import com.hospital.spi.Strategies;
+import com.hospital.spi.TestOrder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Throughput and put->take latency of the bounded queue strategies under the same load.
+ *
+ *   synchronized   BoundedQueueMonitor            (Part A - wait / notifyAll)
+ *   blockingQueue  ArrayBlockingQueue             (Part B)
+ *   lockSignal     BoundedQueueMonitorC, signal() (Part C - ReentrantLock + Condition)
+ *   lockSignalAll  BoundedQueueMonitorC           (signalAll variant)
+ *
+ * The implementations come from the OrderQueueProvider services, so a newly installed
+ * strategy is benchmarked without touching this class.
+ *
+ * Grid (override any axis with -p): impl, fair, threads (producers:consumers), capacity.
+ * Two modes per point: thrpt (orders moved per ms, nothing else on the hot path) and
+ * sample (every order's put() call -> take() return time recorded in per-consumer
+ * histograms).
+ *
+ * Producers cycle through a pre-built pool of orders so allocation stays out of the
+ * measurement. A pool is larger than capacity + consumers, and the queues are FIFO, so
+ * an order is never put again while it is still queued or being timed.
+ *
+ * usage: QueueBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class QueueBenchmark {
+    private static final String NAME = QueueBenchmark.class.getName();
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "queue-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String impl : options.param("impl", queueNames())) {
+            OrderQueueProvider provider = Strategies.queue(impl);
+            for (String fair : options.param("fair", "false", "true")) {
+                if (!provider.supportsFairness() && fair.equals("true")) {
+                    continue; // e.g. intrinsic monitors have no fairness setting
+                }
+                for (String threads : options.param("threads", "1:1", "2:2", "4:4", "8:8", "16:16")) {
+                    for (String capacity : options.param("capacity", "1", "16", "256", "4096")) {
+                        for (String mode : options.param("mode", "thrpt", "sample")) {
+                            Map<String, String> params = new LinkedHashMap<>();
+                            params.put("impl", impl);
+                            params.put("fair", fair);
+                            params.put("threads", threads);
+                            params.put("capacity", capacity);
+                            report.add(run(options, mode, params));
+                        }
+                    }
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, String mode, Map<String, String> params) throws InterruptedException {
+        String[] pc = params.get("threads").split(":");
+        int producers = Integer.parseInt(pc[0]);
+        int consumers = Integer.parseInt(pc[1]);
+        int capacity = Integer.parseInt(params.get("capacity"));
+        boolean fair = Boolean.parseBoolean(params.get("fair"));
+        boolean sample = mode.equals("sample");
+
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(params.get("impl"), fair, capacity, producers, consumers, options.warmupMillis, sample);
+        }
+        double[] scores = new double[options.measurementIterations];
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = iteration(params.get("impl"), fair, capacity, producers, consumers, options.measurementMillis, sample);
+            if (sample) {
+                scores[i] = it.latency.getMeanNanos() / 1000.0;
+                latency.add(it.latency);
+            } else {
+                scores[i] = it.orders / (it.nanos / 1e6);
+            }
+        }
+
+        String benchmark = NAME + (sample ? ".putTakeLatency" : ".putTakeThroughput");
+        BenchResult result = new BenchResult(benchmark, mode, producers + consumers, options, params, sample ? "us/op" : "ops/ms", scores);
+        if (sample) {
+            result.addSecondary("p0.50", latency.valueAtPercentile(50) / 1000.0, "us");
+            result.addSecondary("p0.90", latency.valueAtPercentile(90) / 1000.0, "us");
+            result.addSecondary("p0.99", latency.valueAtPercentile(99) / 1000.0, "us");
+            result.addSecondary("p0.999", latency.valueAtPercentile(99.9) / 1000.0, "us");
+            result.addSecondary("p1.00", latency.getMaxNanos() / 1000.0, "us");
+        }
+        return result;
+    }
+
+    private static Iteration iteration(String impl, boolean fair, int capacity, int producers, int consumers,
+            long millis, boolean sample) throws InterruptedException {
+        OrderQueue queue = Strategies.queue(impl).create(capacity, fair);
+
+        // pre-built orders, ids are consecutive so putNanos can be indexed by id
+        int poolSize = capacity + consumers + 64;
+        TestOrder[][] pools = new TestOrder[producers][poolSize];
+        for (TestOrder[] pool : pools) {
+            for (int k = 0; k < poolSize; k++) {
+                pool[k] = new TestOrder("Bench", "Bench-P" + k, "BloodTest", 1);
+            }
+        }
+        int baseId = pools[0][0].getOrderId();
+        long[] putNanos = new long[producers * poolSize];
+
+        Stop stop = new Stop();
+        long[] moved = new long[consumers];
+        LatencyHistogram[] histograms = new LatencyHistogram[consumers];
+        Thread[] threads = new Thread[producers + consumers];
+
+        for (int p = 0; p < producers; p++) {
+            TestOrder[] pool = pools[p];
+            threads[p] = new Thread(() -> {
+                int k = 0;
+                try {
+                    while (!stop.stopped) {
+                        TestOrder order = pool[k];
+                        if (sample) {
+                            putNanos[order.getOrderId() - baseId] = System.nanoTime(); // published by the queue's lock
+                        }
+                        queue.put(order);
+                        k = k + 1 == pool.length ? 0 : k + 1;
+                    }
+                } catch (InterruptedException e) {
+                    // end of iteration
+                }
+            }, "bench-producer-" + p);
+        }
+        for (int c = 0; c < consumers; c++) {
+            int slot = c;
+            LatencyHistogram histogram = sample ? new LatencyHistogram() : null;
+            histograms[c] = histogram;
+            threads[producers + c] = new Thread(() -> {
+                long count = 0;
+                try {
+                    while (!stop.stopped) {
+                        TestOrder order = queue.take();
+                        if (histogram != null) {
+                            histogram.record(System.nanoTime() - putNanos[order.getOrderId() - baseId]);
+                        }
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    // end of iteration
+                }
+                moved[slot] = count;
+            }, "bench-consumer-" + c);
+        }
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads)
+            t.join();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        for (long m : moved)
+            it.orders += m;
+        if (sample) {
+            it.latency = new LatencyHistogram();
+            for (LatencyHistogram h : histograms)
+                it.latency.add(h);
+        }
+        return it;
+    }
+
+    private static String[] queueNames() {
+        return Strategies.queues().stream().map(OrderQueueProvider::name).toArray(String[]::new);
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long orders;
+        LatencyHistogram latency;
+    }
+}
@@ -0,0 +1,148 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+import com.hospital.spi.Strategies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Read-side scaling of the policy stores: `readers` auditor threads call readPolicy()
+ * in a tight loop while one supervisor writes every `writeIntervalMs`.
+ *
+ * The score is total reads per ms, so a store whose reads scale stays flat per reader
+ * as readers grow. The supervisor's startWrite() times go into a histogram, which shows
+ * whether writers still get in (writer priority / revocation cost) under many readers.
+ *
+ * Grid: impl (every installed policy strategy), readers (1 .. 128), writeIntervalMs.
+ * Reader counts above the core count are kept on purpose - 64+ auditors is the case
+ * the striped / optimistic readers are for.
+ *
+ * usage: ReaderScalingBenchmark [-wi N] [-w ms] [-i N] [-r ms] [-rff file] [-p name=v1,v2]
+ */
+public class ReaderScalingBenchmark {
+    private static final String NAME = ReaderScalingBenchmark.class.getName();
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "reader-scaling-bench.json");
+        BenchReport report = new BenchReport();
+
+        String[] impls = Strategies.policies().stream().map(PolicyStoreProvider::name).toArray(String[]::new);
+        for (String impl : options.param("impl", impls)) {
+            for (String readers : options.param("readers", "1", "4", "16", "64", "128")) {
+                for (String interval : options.param("writeIntervalMs", "10")) {
+                    Map<String, String> params = new LinkedHashMap<>();
+                    params.put("impl", impl);
+                    params.put("readers", readers);
+                    params.put("writeIntervalMs", interval);
+                    report.add(run(options, params));
+                }
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static BenchResult run(BenchOptions options, Map<String, String> params) throws InterruptedException {
+        String impl = params.get("impl");
+        int readers = Integer.parseInt(params.get("readers"));
+        long interval = Long.parseLong(params.get("writeIntervalMs"));
+
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(impl, readers, interval, options.warmupMillis);
+        }
+        double[] scores = new double[options.measurementIterations];
+        long writes = 0;
+        LatencyHistogram writeAcquire = new LatencyHistogram();
+        for (int i = 0; i < options.measurementIterations; i++) {
+            Iteration it = iteration(impl, readers, interval, options.measurementMillis);
+            scores[i] = it.reads / (it.nanos / 1e6);
+            writes += it.writes;
+            writeAcquire.add(it.writeAcquire);
+        }
+
+        BenchResult result = new BenchResult(NAME + ".readScaling", "thrpt", readers + 1, options, params, "reads/ms", scores);
+        result.addSecondary("perReader", result.getScore() / readers, "reads/ms");
+        result.addSecondary("writes", writes, "writes");
+        result.addSecondary("writeAcquire.p0.50", writeAcquire.valueAtPercentile(50) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p0.99", writeAcquire.valueAtPercentile(99) / 1000.0, "us");
+        result.addSecondary("writeAcquire.p1.00", writeAcquire.getMaxNanos() / 1000.0, "us");
+        return result;
+    }
+
+    private static Iteration iteration(String impl, int readerCount, long intervalMs, long millis) throws InterruptedException {
+        PolicyStore policy = Strategies.policy(impl).create(false);
+        Stop stop = new Stop();
+        long[] reads = new long[readerCount];
+        Thread[] threads = new Thread[readerCount];
+        for (int t = 0; t < readerCount; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> {
+                long r = 0;
+                int h = 0;
+                try {
+                    while (!stop.stopped) {
+                        h += policy.readPolicy().length();
+                        r++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads[slot] = r;
+                sink += h;
+            }, "bench-reader-" + t);
+        }
+        LatencyHistogram writeAcquire = new LatencyHistogram();
+        long[] writes = new long[1];
+        Thread writer = new Thread(() -> {
+            try {
+                while (!stop.stopped) {
+                    Thread.sleep(intervalMs);
+                    long requested = System.nanoTime();
+                    policy.startWrite();
+                    writeAcquire.record(System.nanoTime() - requested);
+                    policy.setPolicy(POLICIES[(int) (writes[0] % POLICIES.length)]);
+                    policy.endWrite();
+                    writes[0]++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "bench-writer");
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        writer.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread t : threads)
+            t.join();
+        writer.join();
+        policy.close();
+
+        Iteration it = new Iteration();
+        it.nanos = elapsed;
+        for (long r : reads)
+            it.reads += r;
+        it.writes = writes[0];
+        it.writeAcquire = writeAcquire;
+        return it;
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+
+    private static final class Iteration {
+        long nanos;
+        long reads;
+        long writes;
+        LatencyHistogram writeAcquire;
+    }
+}
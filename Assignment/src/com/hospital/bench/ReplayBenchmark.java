@@ -0,0 +1,129 @@
+package com.hospital.bench;
+
+import com.hospital.load.ArrivalProcess;
+import com.hospital.load.BurstyArrivals;
+import com.hospital.replay.OrderReplayer;
+import com.hospital.replay.OrderStreamReader;
+import com.hospital.replay.OrderStreamWriter;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.Strategies;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * How fast a recording can be replayed at max speed.
+ *
+ *   decode   OrderStreamReader alone - scan the mapped file, build the patient ids
+ *   replay   OrderReplayer into a queue, one thread draining it
+ *
+ * The recording is synthetic: `events` bursty arrivals over the SURGE departments,
+ * written once per events value to a temp file. One iteration replays the whole file,
+ * the score is events per ms (-w / -r are ignored).
+ *
+ * usage: ReplayBenchmark [-wi N] [-i N] [-rff file] [-p name=v1,v2]
+ */
+public class ReplayBenchmark {
+    private static final String NAME = ReplayBenchmark.class.getName();
+    private static final String[] CLINICS = { "ER", "ICU", "WardA", "WardB", "Outpatient" };
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = new BenchOptions(args, "replay-bench.json");
+        BenchReport report = new BenchReport();
+
+        for (String events : options.param("events", "1000000")) {
+            Path file = Files.createTempFile("orders", ".rec");
+            try {
+                long bytes = record(file, Long.parseLong(events));
+                System.out.printf("%s events -> %d bytes (%.2f bytes/event)%n", events, bytes, (double) bytes / Long.parseLong(events));
+                for (String stage : options.param("stage", "decode", "replay")) {
+                    List<String> queues = stage.equals("decode") ? List.of("-") : options.param("queue", "blockingQueue", "lockSignal");
+                    for (String queue : queues) {
+                        Map<String, String> params = new LinkedHashMap<>();
+                        params.put("events", events);
+                        params.put("stage", stage);
+                        params.put("queue", queue);
+                        params.put("capacity", options.param("capacity", "1024").get(0));
+                        report.add(run(options, file, params));
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+        report.write(options.resultFile);
+    }
+
+    private static long record(Path file, long events) throws IOException {
+        ArrivalProcess arrivals = new BurstyArrivals(50, 2000, 2000, 200, 42);
+        Random random = new Random(42);
+        int[] perClinic = new int[CLINICS.length];
+        long offset = 0;
+        try (OrderStreamWriter writer = new OrderStreamWriter(file)) {
+            for (long i = 0; i < events; i++) {
+                offset += arrivals.nextGapNanos(offset);
+                int c = random.nextInt(CLINICS.length);
+                writer.write(offset, CLINICS[c], TEST_TYPES[random.nextInt(TEST_TYPES.length)],
+                        random.nextInt(3) + 1, CLINICS[c] + "-P" + (++perClinic[c]));
+            }
+        }
+        return Files.size(file);
+    }
+
+    private static BenchResult run(BenchOptions options, Path file, Map<String, String> params) throws Exception {
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(file, params);
+        }
+        double[] scores = new double[options.measurementIterations];
+        for (int i = 0; i < options.measurementIterations; i++) {
+            scores[i] = Long.parseLong(params.get("events")) / (iteration(file, params) / 1e6);
+        }
+        return new BenchResult(NAME + "." + params.get("stage"), "thrpt", params.get("stage").equals("decode") ? 1 : 2,
+                options, params, "events/ms", scores);
+    }
+
+    // nanoseconds to get through the whole file
+    private static long iteration(Path file, Map<String, String> params) throws Exception {
+        if (params.get("stage").equals("decode")) {
+            long start = System.nanoTime();
+            int h = 0;
+            try (OrderStreamReader reader = new OrderStreamReader(file)) {
+                while (reader.next()) {
+                    h += reader.patientId().length() + reader.priority() + (int) reader.offsetNanos();
+                }
+            }
+            sink += h;
+            return System.nanoTime() - start;
+        }
+
+        OrderQueue queue = Strategies.queue(params.get("queue")).create(Integer.parseInt(params.get("capacity")), false);
+        long events = Long.parseLong(params.get("events"));
+        Thread drain = new Thread(() -> {
+            try {
+                int h = 0;
+                for (long i = 0; i < events; i++) {
+                    TestOrder order = queue.take();
+                    h += order.getPriority();
+                }
+                sink += h;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "bench-drain");
+        OrderReplayer replayer = new OrderReplayer(queue, file, OrderReplayer.MAX, false);
+        long start = System.nanoTime();
+        drain.start();
+        replayer.run();
+        drain.join();
+        return System.nanoTime() - start;
+    }
+}
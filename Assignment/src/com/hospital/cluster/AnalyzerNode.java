@@ -0,0 +1,142 @@
+package com.hospital.cluster;
+
+import com.hospital.Consumer;
+import com.hospital.log.Log;
+import com.hospital.metrics.OrderLatencyRecorder;
+import com.hospital.net.OrderIntakeServer;
+import com.hospital.replication.ReplicatedOrderQueue;
+import com.hospital.replication.ReplicationStream;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.Strategies;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/*
+ * One analyzer process of the cluster: an OrderIntakeServer on localhost in front of
+ * its own bounded queue and analyzers. It owns whatever partitions of the patient
+ * space the router's hash ring gives it - the node itself knows nothing about the ring.
+ *
+ * With --standby PORT the queue is replicated to a StandbyNode listening on that port,
+ * which takes over with the pending orders if this process dies.
+ *
+ * Talks to whoever started it over stdin / stdout:
+ *   out  "READY <port>"                once it accepts orders
+ *   in   "status"                      answered with "STATUS <received> <queued>"
+ *   in   "stop" or end of input        stop, join everything
+ *   out  "DONE <received> <completed>"
+ *
+ * usage: AnalyzerNode [--port N] [--analyzers N] [--processingMs N] [--queue NAME]
+ *                     [--capacity N] [--standby PORT] [--log]
+ */
+public class AnalyzerNode {
+    private final OrderQueue queue;
+    private final OrderIntakeServer server;
+    private final OrderLatencyRecorder latencies = new OrderLatencyRecorder();
+    private final Consumer[] consumers;
+    private final Thread[] threads;
+
+    AnalyzerNode(OrderQueue queue, int port, int analyzers, int processingMs) throws IOException {
+        this.queue = queue;
+        this.server = new OrderIntakeServer(queue, port);
+        this.consumers = new Consumer[analyzers];
+        this.threads = new Thread[analyzers + 1];
+        threads[0] = new Thread(server, "intake");
+        for (int i = 0; i < analyzers; i++) {
+            consumers[i] = new Consumer(queue, "Analyzer" + (i + 1), processingMs, latencies);
+            threads[i + 1] = new Thread(consumers[i], "Analyzer" + (i + 1));
+        }
+    }
+
+    void start() {
+        for (Thread t : threads)
+            t.start();
+    }
+
+    int getPort() {
+        return server.getPort();
+    }
+
+    // answers control lines until "stop" / end of input, then stops the node
+    void serve(PrintStream control) throws IOException, InterruptedException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = in.readLine()) != null && !line.trim().equals("stop")) {
+            if (line.trim().equals("status")) {
+                control.println("STATUS " + server.getOrders() + " " + queue.size());
+                control.flush();
+            }
+        }
+
+        server.stop();
+        for (Consumer c : consumers)
+            c.stop();
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads)
+            t.join();
+        control.println("DONE " + server.getOrders() + " " + latencies.histogram("endToEnd", "all").getCount());
+        control.flush();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 0;
+        int analyzers = 4;
+        int processingMs = 1;
+        String queueName = "lockSignal";
+        int capacity = 256;
+        int standbyPort = -1;
+        boolean log = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--analyzers":
+                    analyzers = Integer.parseInt(args[++i]);
+                    break;
+                case "--processingMs":
+                    processingMs = Integer.parseInt(args[++i]);
+                    break;
+                case "--queue":
+                    queueName = args[++i];
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt(args[++i]);
+                    break;
+                case "--standby":
+                    standbyPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--log":
+                    log = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        PrintStream control = System.out;
+        if (!log)
+            Log.useSync(new PrintStream(OutputStream.nullOutputStream())); // stdout is the control channel
+
+        OrderQueue queue = Strategies.queue(queueName).create(capacity, false);
+        ReplicationStream replication = null;
+        if (standbyPort >= 0) {
+            replication = new ReplicationStream(standbyPort);
+            queue = new ReplicatedOrderQueue(queue, replication);
+        }
+        AnalyzerNode node = new AnalyzerNode(queue, port, analyzers, processingMs);
+        node.start();
+        control.println("READY " + node.getPort());
+        control.flush();
+
+        node.serve(control);
+        if (replication != null) {
+            replication.close();
+            System.err.println(replication.summary());
+        }
+        Log.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+package com.hospital.cluster;
+
+import com.hospital.net.OrderChannel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Forwards every order to the analyzer node that owns its patient, picked with a
+ * ConsistentHashRing over the patient id - all of one patient's orders go to the same
+ * node, and a node joining or leaving moves only ~1/N of the patients.
+ *
+ * Each node is reached through an OrderChannel (binary intake protocol, credit window).
+ * There is one routing thread and no per-node buffer beyond the window: once a slow
+ * node has `window` orders unacked, route() blocks on it and every other node waits too
+ * (head-of-line blocking). The window only decides how long a node may lag before it
+ * holds back the whole cluster.
+ *
+ * Ordering per patient holds only between rebalances. On join / leave nothing is handed
+ * over: orders a moved patient still has queued or in analysis at the old owner race the
+ * new ones at the new owner. leave() does flush the leaving node and wait (up to 1 s)
+ * for its acks, so nothing routed to it is dropped.
+ *
+ * route() and flush() are meant for one routing thread; join / leave can come from any.
+ */
+public class ClusterRouter implements AutoCloseable {
+    public static final int VIRTUAL_NODES = 128;
+
+    private final ConsistentHashRing<Node> ring = new ConsistentHashRing<>(VIRTUAL_NODES);
+    private final Map<String, Node> nodes = new HashMap<>(); // guarded by this
+    private final int window;
+    private final Map<String, byte[]> names = new HashMap<>(); // encoded clinic / test type names, routing thread only
+
+    public ClusterRouter(int window) {
+        this.window = window;
+    }
+
+    public synchronized void join(String nodeId, int port) throws IOException {
+        Node node = new Node(nodeId, new OrderChannel(port, window));
+        nodes.put(nodeId, node);
+        ring.add(nodeId, node);
+    }
+
+    // takes the node off the ring, then lets its in-flight orders drain before closing;
+    // returns the node that left, null if there was none by that id
+    public Node leave(String nodeId) throws IOException {
+        Node node;
+        synchronized (this) {
+            node = nodes.remove(nodeId);
+            ring.remove(nodeId);
+        }
+        if (node != null)
+            node.channel.close(1000);
+        return node;
+    }
+
+    public void route(String clinic, String patientId, String testType, int priority)
+            throws IOException, InterruptedException {
+        byte[] patient = patientId.getBytes(StandardCharsets.UTF_8);
+        while (true) {
+            Node node = ring.owner(patientId);
+            if (node == null)
+                throw new IOException("no analyzer nodes in the cluster");
+            try {
+                node.channel.send(name(clinic), name(testType), patient, priority);
+                node.routed++;
+                return;
+            } catch (IOException e) {
+                if (ring.owner(patientId) == node)
+                    throw e; // still the owner, a real failure
+                // the node left between lookup and send (its channel refuses new orders
+                // once leave() starts draining it) - route again
+            }
+        }
+    }
+
+    // sends what is buffered for every node, e.g. when the incoming stream pauses
+    public void flush() throws IOException {
+        for (Node node : ring.nodes())
+            node.channel.flush();
+    }
+
+    public ConsistentHashRing<Node> ring() {
+        return ring;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Node node : ring.nodes())
+            leave(node.id);
+    }
+
+    private byte[] name(String s) {
+        return names.computeIfAbsent(s, k -> k.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static final class Node {
+        final String id;
+        final OrderChannel channel;
+        long routed; // routing thread only
+
+        Node(String id, OrderChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public OrderChannel getChannel() {
+            return channel;
+        }
+
+        public long getRouted() {
+            return routed;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hospital.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Consistent hash ring mapping keys (patient ids) to nodes.
+ *
+ * Every node is placed on the ring at `virtualNodes` points (hash of "<id>#<i>"); a key
+ * belongs to the first point at or after its own hash. When a node joins it only takes
+ * over the keys between its points and their predecessors - about 1/N of the keys - and
+ * when it leaves only its own keys move, to the next points along.
+ *
+ * The ring is an immutable pair of sorted arrays published through a volatile field:
+ * owner() is a binary search with no lock, add / remove build a new ring (rare).
+ */
+public final class ConsistentHashRing<N> {
+    private final int virtualNodes;
+    private final Map<String, N> nodes = new LinkedHashMap<>(); // guarded by this
+    private volatile Ring<N> ring = new Ring<>(new long[0], new Object[0]);
+
+    public ConsistentHashRing(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public synchronized void add(String id, N node) {
+        nodes.put(id, node);
+        rebuild();
+    }
+
+    public synchronized N remove(String id) {
+        N node = nodes.remove(id);
+        rebuild();
+        return node;
+    }
+
+    // null if the ring is empty
+    public N owner(String key) {
+        Ring<N> r = ring;
+        if (r.points.length == 0)
+            return null;
+        int i = Arrays.binarySearch(r.points, hash(key));
+        if (i < 0)
+            i = -i - 1; // first point after the key
+        if (i == r.points.length)
+            i = 0; // wrap around
+        return r.owner(i);
+    }
+
+    public synchronized List<N> nodes() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    private void rebuild() {
+        int n = nodes.size() * virtualNodes;
+        long[] points = new long[n];
+        Object[] owners = new Object[n];
+        int k = 0;
+        for (Map.Entry<String, N> e : nodes.entrySet()) {
+            for (int v = 0; v < virtualNodes; v++) {
+                points[k] = hash(e.getKey() + "#" + v);
+                owners[k++] = e.getValue();
+            }
+        }
+        // sort the points, owners alongside
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(points[a], points[b]));
+        long[] sortedPoints = new long[n];
+        Object[] sortedOwners = new Object[n];
+        for (int i = 0; i < n; i++) {
+            sortedPoints[i] = points[order[i]];
+            sortedOwners[i] = owners[order[i]];
+        }
+        ring = new Ring<>(sortedPoints, sortedOwners);
+    }
+
+    // 64 bit FNV-1a over the UTF-8 bytes, then the murmur3 finalizer to spread similar ids
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Ring<N> {
+        final long[] points;
+        final Object[] owners;
+
+        Ring(long[] points, Object[] owners) {
+            this.points = points;
+            this.owners = owners;
+        }
+
+        @SuppressWarnings("unchecked")
+        N owner(int i) {
+            return (N) owners[i];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.hospital.cluster;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A child JVM running one of the node mains (AnalyzerNode, ...) with the same java
+ * binary, class / module path as this one, driven over its stdin / stdout:
+ * it prints "READY <port>" when up, gets "stop" and answers with a "DONE ..." line.
+ */
+public class NodeProcess {
+    private final Process process;
+    private final BufferedReader out;
+    private final PrintStream in;
+    private final int port;
+
+    private NodeProcess(Process process) throws IOException {
+        this.process = process;
+        this.out = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        this.in = new PrintStream(process.getOutputStream(), true);
+        String ready = readLine("READY");
+        this.port = Integer.parseInt(ready.substring("READY ".length()).trim());
+    }
+
+    public static NodeProcess start(Class<?> main, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && main.getModule().isNamed()) {
+            command.add("-p");
+            command.add(modulePath);
+            command.add("-m");
+            command.add(main.getModule().getName() + "/" + main.getName());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(main.getName());
+        }
+        command.addAll(Arrays.asList(args));
+        Process p = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try {
+            return new NodeProcess(p);
+        } catch (IOException | RuntimeException e) {
+            p.destroyForcibly();
+            throw e;
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public long pid() {
+        return process.pid();
+    }
+
+    // sends a control line, e.g. "stop"
+    public void send(String line) {
+        in.println(line);
+    }
+
+    // next line starting with prefix, other lines are passed through to our stdout
+    public String readLine(String prefix) throws IOException {
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix))
+                return line;
+            System.out.println("[node " + process.pid() + "] " + line);
+        }
+        throw new IOException("node " + process.pid() + " exited before " + prefix);
+    }
+
+    // asks the node to stop and returns its DONE line
+    public String stop() throws IOException, InterruptedException {
+        send("stop");
+        String done = readLine("DONE");
+        if (!process.waitFor(5, TimeUnit.SECONDS))
+            process.destroyForcibly();
+        return done;
+    }
+
+    // simulated crash - no goodbye
+    public void kill() throws InterruptedException {
+        process.destroyForcibly().waitFor();
+    }
+}
@@ -0,0 +1,118 @@
+package com.hospital.cluster;
+
+import com.hospital.log.Log;
+import com.hospital.replication.StandbyReplica;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+import com.hospital.spi.Strategies;
+import com.hospital.spi.TestOrder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/*
+ * Hot standby for an AnalyzerNode started with --standby: follows the primary's
+ * replication stream and, once the primary is gone, becomes an analyzer node itself -
+ * a fresh queue holding the orders the primary had pending, intake and analyzers.
+ *
+ * Control over stdin / stdout, like AnalyzerNode:
+ *   out  "READY <replication port>"
+ *   out  "PROMOTED <restored orders> <intake port> <micros from detecting the loss to accepting>"
+ *   then the AnalyzerNode commands (status, stop -> DONE)
+ * or, if the primary shut down cleanly (its ReplicationStream sent a GOODBYE):
+ *   out  "DONE <records applied> <pending orders>"   and exits, no promotion
+ *
+ * The restored orders have new ids in this process, clinics / patients / test types
+ * and priorities are preserved. Orders the primary's analyzers had taken but not
+ * finished are restored too (only an ack ends an order on the standby), so they may
+ * be analyzed twice - at least once, none lost.
+ *
+ * usage: StandbyNode [--replicationPort N] [--port N] [--analyzers N] [--processingMs N]
+ *                    [--queue NAME] [--capacity N] [--timeoutMs N] [--log]
+ */
+public class StandbyNode {
+    public static void main(String[] args) throws Exception {
+        int replicationPort = 0;
+        int port = 0;
+        int analyzers = 4;
+        int processingMs = 1;
+        String queueName = "lockSignal";
+        int capacity = 256;
+        int timeoutMs = 1000; // the primary heartbeats every 100 ms when idle
+        boolean log = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--replicationPort":
+                    replicationPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--analyzers":
+                    analyzers = Integer.parseInt(args[++i]);
+                    break;
+                case "--processingMs":
+                    processingMs = Integer.parseInt(args[++i]);
+                    break;
+                case "--queue":
+                    queueName = args[++i];
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt(args[++i]);
+                    break;
+                case "--timeoutMs":
+                    timeoutMs = Integer.parseInt(args[++i]);
+                    break;
+                case "--log":
+                    log = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        PrintStream control = System.out;
+        if (!log)
+            Log.useSync(new PrintStream(OutputStream.nullOutputStream())); // stdout is the control channel
+
+        // resolved and warmed up front, not on the failover path - the first put of a process
+        // loads and initializes the queue's JFR event classes (~0.3 s)
+        OrderQueueProvider provider = Strategies.queue(queueName);
+        OrderQueue warmup = provider.create(1, false);
+        warmup.put(new TestOrder("Standby", "warmup", "none", 3));
+        warmup.take();
+
+        List<TestOrder> pending;
+        long detectedNanos;
+        try (StandbyReplica replica = new StandbyReplica(replicationPort)) {
+            control.println("READY " + replica.getPort());
+            control.flush();
+            boolean lost = replica.follow(timeoutMs);
+            pending = replica.pending();
+            detectedNanos = replica.getEndNanos();
+            if (!lost) {
+                System.err.println("standby: " + replica.getEndReason() + " after " + replica.getApplied()
+                        + " records, not promoting");
+                control.println("DONE " + replica.getApplied() + " " + pending.size());
+                control.flush();
+                Log.shutdown();
+                return;
+            }
+            System.err.println("standby: " + replica.getEndReason() + " after " + replica.getApplied()
+                    + " records, promoting with " + pending.size() + " pending orders");
+        }
+
+        // the primary may have been blocked on a full queue with orders already replicated
+        OrderQueue queue = provider.create(Math.max(capacity, pending.size()), false);
+        for (TestOrder order : pending)
+            queue.put(order);
+        AnalyzerNode node = new AnalyzerNode(queue, port, analyzers, processingMs);
+        node.start();
+        long promoteMicros = (System.nanoTime() - detectedNanos) / 1000;
+        control.println("PROMOTED " + pending.size() + " " + node.getPort() + " " + promoteMicros);
+        control.flush();
+
+        node.serve(control);
+        Log.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+package com.hospital.des;
+
+import com.hospital.Workload;
+import com.hospital.load.ArrivalProcess;
+import com.hospital.spi.OrderQueueProvider;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+import com.hospital.spi.Strategies;
+
+/*
+ * Discrete-event version of the Simulator: the same workloads and strategies, but on a
+ * virtual clock, so a full hospital day takes seconds instead of a day.
+ *
+ * usage: DesSimulator [--queue NAME] [--policy NAME] [--fair] [--capacity N]
+ *                     [--workload calm|surge|all] [--hours H] [--arrivals SPEC] [--seed N]
+ */
+public class DesSimulator {
+    public static void main(String[] args) {
+        String queueName = "synchronized";
+        String policyName = "handRolled";
+        boolean fair = false;
+        int capacity = 5;
+        String workload = "all";
+        double hours = 24;
+        String arrivalSpec = null;
+        long seed = 42;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--queue":
+                    queueName = args[++i];
+                    break;
+                case "--policy":
+                    policyName = args[++i];
+                    break;
+                case "--fair":
+                    fair = true;
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt(args[++i]);
+                    break;
+                case "--workload":
+                    workload = args[++i];
+                    break;
+                case "--hours":
+                    hours = Double.parseDouble(args[++i]);
+                    break;
+                case "--arrivals":
+                    arrivalSpec = args[++i];
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        OrderQueueProvider queueProvider = Strategies.queue(queueName);
+        PolicyStoreProvider policyProvider = Strategies.policy(policyName);
+        System.out.println("=== Discrete-event simulation: queue=" + queueProvider.name() + " policy=" + policyProvider.name()
+                + " fair=" + fair + " capacity=" + capacity + " hours=" + hours + " ===\n");
+
+        for (Workload w : Workload.values()) {
+            if (!workload.equalsIgnoreCase("all") && !workload.equalsIgnoreCase(w.name())) {
+                continue;
+            }
+            ArrivalProcess arrivals = arrivalSpec == null ? null : ArrivalProcess.parse(arrivalSpec, seed);
+            run(w, queueProvider, policyProvider, fair, capacity, (long) (hours * 3600e9), arrivals, seed);
+        }
+    }
+
+    public static HospitalModel run(Workload workload, OrderQueueProvider queueProvider, PolicyStoreProvider policyProvider,
+            boolean fair, int capacity, long virtualNanos, ArrivalProcess arrivals, long seed) {
+        System.out.println("=== Workload: " + workload + (arrivals == null ? "" : " (open loop, " + arrivals.describe() + ")")
+                + " ===");
+        EventScheduler scheduler = new EventScheduler();
+        PolicyStore policy = policyProvider.create(fair);
+        HospitalModel model = new HospitalModel(scheduler, workload, queueProvider.create(capacity, fair), capacity,
+                policy, arrivals, seed);
+
+        long wallStart = System.nanoTime();
+        scheduler.runUntil(virtualNanos);
+        long wallNanos = System.nanoTime() - wallStart;
+        policy.close(); // the model is only reported on from here
+
+        System.out.printf("simulated %.2f h in %.2f s wall time (%d events, %.0f events/s)%n",
+                virtualNanos / 3600e9, wallNanos / 1e9, scheduler.getProcessed(), scheduler.getProcessed() / (wallNanos / 1e9));
+        System.out.println(model.summary());
+        System.out.println("\n--- Order latency (virtual clock) ---");
+        System.out.print(model.getLatencies().report());
+        System.out.println("\n=== " + workload + " Complete ===\n");
+        return model;
+    }
+}
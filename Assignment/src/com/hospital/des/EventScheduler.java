@@ -0,0 +1,61 @@
+package com.hospital.des;
+
+import java.util.PriorityQueue;
+
+/*
+ * Pending events ordered by virtual time. Events at the same instant run in the order
+ * they were scheduled (seq), so a run is deterministic for a given seed.
+ * Single threaded - actions run on the caller of runUntil().
+ */
+public class EventScheduler {
+    private final VirtualClock clock = new VirtualClock();
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long seq = 0;
+    private long processed = 0;
+
+    public VirtualClock clock() {
+        return clock;
+    }
+
+    public long now() {
+        return clock.nanoTime();
+    }
+
+    public void schedule(long delayNanos, Runnable action) {
+        events.add(new Event(clock.nanoTime() + delayNanos, seq++, action));
+    }
+
+    // runs events up to and including endNanos, leaves the clock at endNanos
+    public void runUntil(long endNanos) {
+        Event e;
+        while ((e = events.peek()) != null && e.time <= endNanos) {
+            events.poll();
+            clock.advanceTo(e.time);
+            e.action.run();
+            processed++;
+        }
+        clock.advanceTo(Math.max(endNanos, clock.nanoTime()));
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long seq;
+        final Runnable action;
+
+        Event(long time, long seq, Runnable action) {
+            this.time = time;
+            this.seq = seq;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event o) {
+            int c = Long.compare(time, o.time);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.hospital.des;
+
+import com.hospital.Workload;
+import com.hospital.load.ArrivalProcess;
+import com.hospital.metrics.OrderLatencyRecorder;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.TestOrder;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/*
+ * The hospital roles as events on a virtual clock.
+ *
+ * Same behaviour as the threaded roles - a clinic creates an order, put()s it and
+ * sleeps, an analyzer take()s, processes and takes again, auditors and the supervisor
+ * poll / update the policy - but every sleep is a scheduled event and every wait on
+ * a full or empty queue is a parked role in a FIFO that is woken when the queue changes.
+ *
+ * The real OrderQueue and PolicyStore implementations are driven directly. The model
+ * only calls put() when size() < capacity and take() when size() > 0, and there is a
+ * single thread, so none of their blocking paths is ever taken. Orders carry the
+ * virtual clock, so OrderLatencyRecorder reports the same stages as a threaded run.
+ */
+public class HospitalModel {
+    private static final long MS = 1_000_000L;
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+    private static final String[] POLICIES = { "NORMAL", "URGENT_PRIORITY", "MAINTENANCE" };
+
+    private final EventScheduler scheduler;
+    private final OrderQueue queue;
+    private final int capacity;
+    private final PolicyStore policy;
+    private final Random random;
+    private final OrderLatencyRecorder latencies = new OrderLatencyRecorder();
+
+    private final ArrayDeque<Source> blockedSources = new ArrayDeque<>(); // waiting for room in the queue
+    private final ArrayDeque<Analyzer> idleAnalyzers = new ArrayDeque<>(); // waiting for an order
+
+    private long created = 0;
+    private long completed = 0;
+    private long reads = 0;
+    private long writes = 0;
+
+    // arrivals == null - the workload's closed-loop clinics, otherwise one open-loop source
+    public HospitalModel(EventScheduler scheduler, Workload workload, OrderQueue queue, int capacity,
+            PolicyStore policy, ArrivalProcess arrivals, long seed) {
+        this.scheduler = scheduler;
+        this.queue = queue;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.random = new Random(seed);
+
+        String[] clinics = workload.clinics();
+        if (arrivals == null) {
+            int[] sleepMs = workload.clinicSleepMs();
+            for (int i = 0; i < clinics.length; i++) {
+                Clinic clinic = new Clinic(clinics[i], sleepMs[i] * MS);
+                scheduler.schedule(0, clinic::createOrder);
+            }
+        } else {
+            OpenLoop source = new OpenLoop(clinics, arrivals);
+            scheduler.schedule(arrivals.nextGapNanos(0), source::arrive);
+        }
+        String[] analyzers = workload.analyzers();
+        int[] processingMs = workload.processingMs();
+        for (int i = 0; i < analyzers.length; i++) {
+            Analyzer analyzer = new Analyzer(processingMs[i] * MS);
+            scheduler.schedule(0, analyzer::takeNext);
+        }
+        int[] auditorSleepMs = workload.auditorSleepMs();
+        for (int sleepMs : auditorSleepMs) {
+            scheduler.schedule(0, new Auditor(sleepMs * MS));
+        }
+        long supervisorSleep = workload.supervisorSleepMs() * MS;
+        scheduler.schedule(supervisorSleep, new Supervisor(supervisorSleep)); // Writer sleeps before its first write
+    }
+
+    public OrderLatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    public String summary() {
+        return String.format("orders created=%d completed=%d still queued=%d blocked sources=%d, policy reads=%d writes=%d",
+                created, completed, queue.size(), blockedSources.size(), reads, writes);
+    }
+
+    private TestOrder newOrder(String clinic, String patientId) {
+        created++;
+        return new TestOrder(scheduler.clock(), clinic, patientId, TEST_TYPES[random.nextInt(TEST_TYPES.length)],
+                random.nextInt(3) + 1);
+    }
+
+    // puts as many of the source's pending orders as fit, parks the source if some are left
+    private void drain(Source source) {
+        while (!source.pending.isEmpty() && queue.size() < capacity) {
+            try {
+                queue.put(source.pending.poll());
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("simulation put() blocked", e);
+            }
+            if (!idleAnalyzers.isEmpty()) {
+                Analyzer analyzer = idleAnalyzers.poll();
+                scheduler.schedule(0, analyzer::takeNext); // notify - runs after this event, like a woken thread
+            }
+            source.afterPut();
+        }
+        if (!source.pending.isEmpty() && !source.blocked) {
+            source.blocked = true;
+            blockedSources.add(source);
+        }
+    }
+
+    private abstract class Source {
+        final ArrayDeque<TestOrder> pending = new ArrayDeque<>();
+        boolean blocked;
+
+        void offer(TestOrder order) {
+            pending.add(order);
+            if (!blocked) {
+                drain(this);
+            }
+        }
+
+        abstract void afterPut();
+    }
+
+    // closed loop like Producer - the next order is only created after the previous put() returned
+    private final class Clinic extends Source {
+        final String name;
+        final long sleepNanos;
+        int count;
+
+        Clinic(String name, long sleepNanos) {
+            this.name = name;
+            this.sleepNanos = sleepNanos;
+        }
+
+        void createOrder() {
+            offer(newOrder(name, name + "-P" + (++count)));
+        }
+
+        @Override
+        void afterPut() {
+            scheduler.schedule(sleepNanos, this::createOrder);
+        }
+    }
+
+    // open loop like OpenLoopGenerator - arrivals keep coming while the queue is full
+    private final class OpenLoop extends Source {
+        final String[] clinics;
+        final int[] perClinic;
+        final ArrivalProcess arrivals;
+
+        OpenLoop(String[] clinics, ArrivalProcess arrivals) {
+            this.clinics = clinics;
+            this.perClinic = new int[clinics.length];
+            this.arrivals = arrivals;
+        }
+
+        void arrive() {
+            int c = random.nextInt(clinics.length);
+            TestOrder order = newOrder(clinics[c], clinics[c] + "-P" + (++perClinic[c]));
+            offer(order); // intended == created, the backlog shows up in hand-off / sendLag
+            scheduler.schedule(arrivals.nextGapNanos(scheduler.now()), this::arrive);
+        }
+
+        @Override
+        void afterPut() {
+        }
+    }
+
+    private final class Analyzer {
+        final long processingNanos;
+
+        Analyzer(long processingNanos) {
+            this.processingNanos = processingNanos;
+        }
+
+        void takeNext() {
+            if (queue.size() == 0) {
+                idleAnalyzers.add(this);
+                return;
+            }
+            TestOrder order;
+            try {
+                order = queue.take();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("simulation take() blocked", e);
+            }
+            order.markDequeued();
+            order.markAnalysisStart();
+            scheduler.schedule(processingNanos, () -> complete(order));
+            if (!blockedSources.isEmpty()) {
+                Source source = blockedSources.poll();
+                source.blocked = false;
+                scheduler.schedule(0, () -> drain(source));
+            }
+        }
+
+        void complete(TestOrder order) {
+            order.markCompleted();
+            latencies.record(order);
+            completed++;
+            takeNext();
+        }
+    }
+
+    private final class Auditor implements Runnable {
+        final long sleepNanos;
+
+        Auditor(long sleepNanos) {
+            this.sleepNanos = sleepNanos;
+        }
+
+        @Override
+        public void run() {
+            try {
+                policy.readPolicy();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("simulation readPolicy() blocked", e);
+            }
+            reads++;
+            scheduler.schedule(sleepNanos, this);
+        }
+    }
+
+    private final class Supervisor implements Runnable {
+        final long sleepNanos;
+        int policyIndex;
+
+        Supervisor(long sleepNanos) {
+            this.sleepNanos = sleepNanos;
+        }
+
+        @Override
+        public void run() {
+            try {
+                policy.startWrite();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("simulation startWrite() blocked", e);
+            }
+            policyIndex = (policyIndex + 1) % POLICIES.length;
+            policy.setPolicy(POLICIES[policyIndex]);
+            writes++;
+            policy.endWrite();
+            scheduler.schedule(sleepNanos, this);
+        }
+    }
+}
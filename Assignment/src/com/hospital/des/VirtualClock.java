@@ -0,0 +1,20 @@
+package com.hospital.des;
+
+import com.hospital.spi.Clock;
+
+// simulated time in nanoseconds since the start of the run, moved only by the scheduler
+public class VirtualClock implements Clock {
+    private long now = 0;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    void advanceTo(long nanos) {
+        if (nanos < now) {
+            throw new IllegalStateException("time cannot go backwards: " + nanos + " < " + now);
+        }
+        now = nanos;
+    }
+}
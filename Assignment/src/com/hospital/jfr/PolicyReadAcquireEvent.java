@@ -0,0 +1,31 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// startRead() on a policy monitor, duration is the time until read access was granted
+@Name("com.hospital.PolicyReadAcquire")
+@Label("Policy Read Acquire")
+@Category({ "Hospital", "Policy" })
+@Description("Auditor acquiring read access to the policy")
+@Enabled(false)
+@StackTrace(false)
+public class PolicyReadAcquireEvent extends Event {
+    @Label("Monitor")
+    public String monitor;
+
+    @Label("Wait Time")
+    @Description("Time spent blocked behind an active or waiting writer")
+    @Timespan
+    public long waitTime;
+
+    @Label("Readers")
+    @Description("Active readers once access was granted, including this one")
+    public int readers;
+}
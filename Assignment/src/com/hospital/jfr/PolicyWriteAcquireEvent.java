@@ -0,0 +1,35 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// startWrite() on a policy monitor, long durations here are writer starvation
+@Name("com.hospital.PolicyWriteAcquire")
+@Label("Policy Write Acquire")
+@Category({ "Hospital", "Policy" })
+@Description("Supervisor acquiring exclusive access to the policy")
+@Enabled(false)
+@StackTrace(false)
+public class PolicyWriteAcquireEvent extends Event {
+    @Label("Monitor")
+    public String monitor;
+
+    @Label("Wait Time")
+    @Description("Time spent waiting for readers and other writers to leave")
+    @Timespan
+    public long waitTime;
+
+    @Label("Readers At Request")
+    @Description("Active readers when the writer asked for access")
+    public int readersAtRequest;
+
+    @Label("Writers Waiting")
+    @Description("Other writers queued behind this one once access was granted")
+    public int writersWaiting;
+}
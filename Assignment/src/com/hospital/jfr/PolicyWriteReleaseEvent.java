@@ -0,0 +1,30 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// endWrite() on a policy monitor
+@Name("com.hospital.PolicyWriteRelease")
+@Label("Policy Write Release")
+@Category({ "Hospital", "Policy" })
+@Description("Supervisor releasing exclusive access to the policy")
+@Enabled(false)
+@StackTrace(false)
+public class PolicyWriteReleaseEvent extends Event {
+    @Label("Monitor")
+    public String monitor;
+
+    @Label("Hold Time")
+    @Description("Time the write lock was held, readers were shut out for at least this long")
+    @Timespan
+    public long holdTime;
+
+    @Label("Policy")
+    public String policy;
+}
@@ -0,0 +1,36 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// emitted by the bounded queues for every put(), duration covers lock entry + waiting for space
+@Name("com.hospital.QueuePut")
+@Label("Queue Put")
+@Category({ "Hospital", "Queue" })
+@Description("Producer adding a test order to a bounded queue")
+@Enabled(false)
+@StackTrace(false)
+public class QueuePutEvent extends Event {
+    @Label("Queue")
+    public String queue;
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Clinic")
+    public String clinic;
+
+    @Label("Blocked Time")
+    @Description("Time spent waiting for a free slot (queue full)")
+    @Timespan
+    public long blockedTime;
+
+    @Label("Size After")
+    public int sizeAfter;
+}
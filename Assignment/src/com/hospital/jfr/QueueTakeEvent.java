@@ -0,0 +1,33 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// emitted by the bounded queues for every take(), duration covers lock entry + waiting for an order
+@Name("com.hospital.QueueTake")
+@Label("Queue Take")
+@Category({ "Hospital", "Queue" })
+@Description("Consumer removing a test order from a bounded queue")
+@Enabled(false)
+@StackTrace(false)
+public class QueueTakeEvent extends Event {
+    @Label("Queue")
+    public String queue;
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Blocked Time")
+    @Description("Time spent waiting for an order (queue empty)")
+    @Timespan
+    public long blockedTime;
+
+    @Label("Size After")
+    public int sizeAfter;
+}
@@ -0,0 +1,28 @@
+package com.hospital.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// one event per producer / consumer thread, spanning its whole run()
+@Name("com.hospital.RoleLifecycle")
+@Label("Role Lifecycle")
+@Category({ "Hospital", "Roles" })
+@Description("Lifetime of a producer (clinic) or consumer (analyzer) thread")
+@Enabled(false)
+@StackTrace(false)
+public class RoleLifecycleEvent extends Event {
+    @Label("Role")
+    public String role;
+
+    @Label("Name")
+    public String name;
+
+    @Label("Orders")
+    @Description("Orders created (producer) or completed (consumer)")
+    public int orders;
+}
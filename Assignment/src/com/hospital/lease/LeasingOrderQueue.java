@@ -0,0 +1,283 @@
+package com.hospital.lease;
+
+import com.hospital.spi.AckOrderQueue;
+import com.hospital.spi.Delivery;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.PriorityOrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Lease-based dequeue on top of any queue strategy.
+ *
+ * lease() takes the order from the wrapped queue and leases it for the visibility
+ * timeout; the lease is a timeout on a TimingWheel, so taking, acking and expiring cost
+ * O(1) however many orders are in flight. Each lease is its own Delivery and ack /
+ * release only settle the lease they were handed: a late ack from an analyzer whose
+ * lease expired is counted and changes nothing, the redelivery stays leased. A reaper thread advances the wheel every tick
+ * and puts expired (and released) orders back into the wrapped queue - at the tail,
+ * they queue again behind what arrived meanwhile. Putting back may block while the
+ * queue is full, that is the reaper's problem, never an analyzer's: release() only
+ * hands the order to the reaper.
+ *
+ * Redelivered orders are marked (TestOrder.markRedelivered) before they go back, so a
+ * RecordingOrderQueue underneath records each arrival once.
+ *
+ * After maxDeliveries the order is not redelivered again but parked as dead-lettered
+ * (an order that kills every analyzer that touches it must not circulate forever).
+ *
+ * leaseHighestPriority() leases like lease(); it is a plain lease() if the wrapped queue
+ * has no priority order. take() / takeHighestPriority() remove the order for good.
+ */
+public class LeasingOrderQueue implements AckOrderQueue, PriorityOrderQueue, AutoCloseable {
+    public static final int DEFAULT_MAX_DELIVERIES = 5;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final class Lease implements Delivery {
+        final TestOrder order;
+        final int delivery; // 1 for the first take
+        TimingWheel.Timeout<Lease> timeout;
+
+        Lease(TestOrder order, int delivery) {
+            this.order = order;
+            this.delivery = delivery;
+        }
+
+        @Override
+        public TestOrder order() {
+            return order;
+        }
+    }
+
+    private final OrderQueue delegate;
+    private final long visibilityNanos;
+    private final int maxDeliveries;
+    private final TimingWheel<Lease> wheel;
+    private final Map<Integer, Lease> leases = new ConcurrentHashMap<>(); // in flight, by order id - the current delivery
+    private final Map<Integer, Integer> deliveries = new ConcurrentHashMap<>(); // queued again -> deliveries so far
+    private final ConcurrentLinkedQueue<Lease> released = new ConcurrentLinkedQueue<>(); // for the reaper
+    private final List<TestOrder> deadLettered = new ArrayList<>(); // guarded by itself
+    private final Thread reaper;
+    private volatile boolean running = true;
+
+    private final AtomicLong taken = new AtomicLong();
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong lateAcks = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+
+    public LeasingOrderQueue(OrderQueue delegate, long visibilityTimeoutMs) {
+        this(delegate, visibilityTimeoutMs, DEFAULT_MAX_DELIVERIES);
+    }
+
+    public LeasingOrderQueue(OrderQueue delegate, long visibilityTimeoutMs, int maxDeliveries) {
+        this.delegate = delegate;
+        this.visibilityNanos = TimeUnit.MILLISECONDS.toNanos(visibilityTimeoutMs);
+        this.maxDeliveries = maxDeliveries;
+        this.wheel = TimingWheel.covering(TICK_NANOS, visibilityNanos); // every lease fires on the first turn
+        this.reaper = new Thread(this::reap, "lease-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    @Override
+    public void put(TestOrder order) throws InterruptedException {
+        delegate.put(order);
+    }
+
+    @Override
+    public TestOrder take() throws InterruptedException {
+        return removed(delegate.take());
+    }
+
+    @Override
+    public TestOrder takeHighestPriority() throws InterruptedException {
+        return removed(highestPriority());
+    }
+
+    @Override
+    public Delivery lease() throws InterruptedException {
+        return grant(delegate.take());
+    }
+
+    @Override
+    public Delivery leaseHighestPriority() throws InterruptedException {
+        return grant(highestPriority());
+    }
+
+    private TestOrder highestPriority() throws InterruptedException {
+        return delegate instanceof PriorityOrderQueue
+                ? ((PriorityOrderQueue) delegate).takeHighestPriority()
+                : delegate.take();
+    }
+
+    // taken for good - no lease, no redelivery count to keep
+    private TestOrder removed(TestOrder order) {
+        deliveries.remove(order.getOrderId());
+        return order;
+    }
+
+    private Lease grant(TestOrder order) {
+        if (order.isEndMarker())
+            return new Lease(order, 1); // not leased - a drain marker is never redelivered
+        Integer before = deliveries.remove(order.getOrderId());
+        Lease lease = new Lease(order, before == null ? 1 : before + 1);
+        leases.put(order.getOrderId(), lease);
+        lease.timeout = wheel.schedule(lease, visibilityNanos);
+        taken.incrementAndGet();
+        return lease;
+    }
+
+    @Override
+    public void ack(Delivery delivery) {
+        if (delivery.order().isEndMarker())
+            return;
+        if (!leases.remove(delivery.order().getOrderId(), delivery)) { // expired - it ran twice
+            lateAcks.incrementAndGet();
+            return;
+        }
+        wheel.cancel(((Lease) delivery).timeout);
+        acked.incrementAndGet();
+    }
+
+    @Override
+    public void release(Delivery delivery) {
+        if (delivery.order().isEndMarker())
+            return;
+        if (!leases.remove(delivery.order().getOrderId(), delivery))
+            return; // already expired, the order is someone else's now
+        Lease lease = (Lease) delivery;
+        wheel.cancel(lease.timeout);
+        releases.incrementAndGet();
+        released.add(lease);
+        synchronized (released) {
+            released.notifyAll(); // don't wait for the next tick
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    // orders currently leased to analyzers
+    public int inFlight() {
+        return leases.size();
+    }
+
+    private void reap() {
+        List<Lease> due = new ArrayList<>();
+        try {
+            while (running) {
+                synchronized (released) {
+                    if (released.isEmpty())
+                        released.wait(TimeUnit.NANOSECONDS.toMillis(TICK_NANOS));
+                }
+                Lease lease;
+                while ((lease = released.poll()) != null)
+                    redeliver(lease);
+                wheel.advance(due);
+                for (Lease l : due) {
+                    // an ack racing with the expiry wins if it removed the lease first
+                    if (leases.remove(l.order.getOrderId(), l)) {
+                        expired.incrementAndGet();
+                        redeliver(l);
+                    }
+                }
+                due.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void redeliver(Lease lease) throws InterruptedException {
+        if (lease.delivery >= maxDeliveries) {
+            synchronized (deadLettered) {
+                deadLettered.add(lease.order);
+            }
+            return;
+        }
+        deliveries.put(lease.order.getOrderId(), lease.delivery);
+        lease.order.markRedelivered();
+        try {
+            delegate.put(lease.order);
+        } catch (InterruptedException e) {
+            released.add(lease); // closing while the queue is full - keep it for takeUnfinished()
+            throw e;
+        }
+        redelivered.incrementAndGet();
+    }
+
+    // stops the reaper; leases still in flight are not redelivered any more. Waits for the
+    // reaper to finish - if interrupted meanwhile the flag stays set and close() returns early
+    @Override
+    public void close() {
+        running = false;
+        reaper.interrupt();
+        try {
+            reaper.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // after close(): removes and returns the orders leased or handed back but not in the
+    // queue - neither acked nor lost yet, e.g. for a shutdown to persist
+    public List<TestOrder> takeUnfinished() {
+        List<TestOrder> unfinished = new ArrayList<>();
+        Lease lease;
+        while ((lease = released.poll()) != null)
+            unfinished.add(lease.order);
+        for (Integer id : leases.keySet()) {
+            lease = leases.remove(id);
+            if (lease != null)
+                unfinished.add(lease.order);
+        }
+        return unfinished;
+    }
+
+    public List<TestOrder> getDeadLettered() {
+        synchronized (deadLettered) {
+            return new ArrayList<>(deadLettered);
+        }
+    }
+
+    public long getTaken() {
+        return taken.get();
+    }
+
+    public long getAcked() {
+        return acked.get();
+    }
+
+    public long getLateAcks() {
+        return lateAcks.get();
+    }
+
+    public long getReleased() {
+        return releases.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    public long getRedelivered() {
+        return redelivered.get();
+    }
+
+    public String summary() {
+        return String.format("leases: %d taken, %d acked, %d released, %d expired, %d redelivered, %d late acks,"
+                + " %d dead-lettered, %d unfinished", getTaken(), getAcked(), getReleased(), getExpired(),
+                getRedelivered(), getLateAcks(), getDeadLettered().size(), released.size() + leases.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.hospital.lease;
+
+import java.util.List;
+
+/*
+ * Hashed timing wheel (Varghese & Lauck): a ring of slots, each a doubly linked list of
+ * timeouts, and a cursor that moves one slot per tick. schedule() and cancel() are O(1)
+ * no matter how many timeouts are pending; advance() only looks at the slots the cursor
+ * passes. A timeout further away than one turn of the wheel stays in its slot until the
+ * cursor comes round for the right turn, so the wheel should span the usual delay.
+ *
+ * Deadlines are rounded up to whole ticks - a timeout fires between delay and delay +
+ * one tick late. Thread safe, every operation is a short synchronized section.
+ */
+public class TimingWheel<T> {
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean pending = true; // linked in a slot, guarded by the wheel
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+
+    private final Timeout<T>[] heads;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    private long currentTick = 0; // last tick advance() has processed
+    private int size = 0;
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // no generic array creation
+    public TimingWheel(long tickNanos, int slots) {
+        int n = Integer.highestOneBit(Math.max(2, slots - 1)) << 1; // power of two, slot = tick & mask
+        this.heads = (Timeout<T>[]) new Timeout[n];
+        this.mask = n - 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = System.nanoTime();
+    }
+
+    // a wheel whose one turn covers `span` (plus one tick)
+    public static <T> TimingWheel<T> covering(long tickNanos, long spanNanos) {
+        return new TimingWheel<>(tickNanos, (int) Math.min(1 << 20, spanNanos / tickNanos + 2));
+    }
+
+    public synchronized Timeout<T> schedule(T item, long delayNanos) {
+        long tick = (System.nanoTime() - startNanos + delayNanos + tickNanos - 1) / tickNanos;
+        Timeout<T> timeout = new Timeout<>(item, Math.max(tick, currentTick + 1));
+        int slot = (int) (timeout.deadlineTick & mask);
+        timeout.next = heads[slot];
+        if (heads[slot] != null)
+            heads[slot].prev = timeout;
+        heads[slot] = timeout;
+        size++;
+        return timeout;
+    }
+
+    // false if it already fired (or was cancelled)
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (!timeout.pending)
+            return false;
+        unlink(timeout);
+        return true;
+    }
+
+    // moves the cursor up to now and adds the items of every timeout that is due to expired
+    public synchronized int advance(List<T> expired) {
+        long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+        int fired = 0;
+        for (; currentTick < nowTick; currentTick++) {
+            long tick = currentTick + 1;
+            Timeout<T> t = heads[(int) (tick & mask)];
+            while (t != null) {
+                Timeout<T> next = t.next;
+                if (t.deadlineTick <= tick) { // otherwise it is due on a later turn
+                    unlink(t);
+                    expired.add(t.item);
+                    fired++;
+                }
+                t = next;
+            }
+        }
+        return fired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    private void unlink(Timeout<T> t) {
+        int slot = (int) (t.deadlineTick & mask);
+        if (t.prev != null)
+            t.prev.next = t.next;
+        else
+            heads[slot] = t.next;
+        if (t.next != null)
+            t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.pending = false;
+        size--;
+    }
+}
@@ -0,0 +1,51 @@
+package com.hospital.load;
+
+import java.util.Random;
+
+/*
+ * When the next order arrives, independent of how fast the system drains them.
+ *
+ * Offsets are nanoseconds since the start of the run. Implementations keep their own
+ * random state and are only called from the generator thread, so they need no locking.
+ */
+public interface ArrivalProcess {
+    // gap from the arrival at offsetNanos to the next one
+    long nextGapNanos(long offsetNanos);
+
+    String describe();
+
+    /*
+     * Builds a process from a command line spec (rates in orders per second):
+     *   poisson:RATE
+     *   bursty:BASE_RATE,BURST_RATE,MEAN_CALM_MS,MEAN_BURST_MS
+     *   diurnal:MEAN_RATE,AMPLITUDE,PERIOD_MS    amplitude 0..1, starts at the trough
+     */
+    static ArrivalProcess parse(String spec, long seed) {
+        int colon = spec.indexOf(':');
+        String kind = colon < 0 ? spec : spec.substring(0, colon);
+        String[] a = colon < 0 ? new String[0] : spec.substring(colon + 1).split(",");
+        try {
+            switch (kind) {
+                case "poisson":
+                    return new PoissonArrivals(Double.parseDouble(a[0]), seed);
+                case "bursty":
+                    return new BurstyArrivals(Double.parseDouble(a[0]), Double.parseDouble(a[1]),
+                            Long.parseLong(a[2]), Long.parseLong(a[3]), seed);
+                case "diurnal":
+                    return new DiurnalArrivals(Double.parseDouble(a[0]), Double.parseDouble(a[1]),
+                            Long.parseLong(a[2]), seed);
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            // fall through to the usage message
+        }
+        throw new IllegalArgumentException("bad arrival spec '" + spec + "', expected poisson:RATE, "
+                + "bursty:BASE,BURST,CALM_MS,BURST_MS or diurnal:MEAN,AMPLITUDE,PERIOD_MS");
+    }
+
+    // exponentially distributed gap for the given rate (orders per second)
+    static long exponentialNanos(Random random, double ratePerSecond) {
+        return (long) (-Math.log(1.0 - random.nextDouble()) * 1e9 / ratePerSecond);
+    }
+}
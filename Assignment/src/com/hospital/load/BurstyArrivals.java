@@ -0,0 +1,52 @@
+package com.hospital.load;
+
+import java.util.Random;
+
+/*
+ * Two-state Markov modulated Poisson process: calm periods at baseRate alternate with
+ * bursts at burstRate (think a bus crash arriving at ER). Period lengths are
+ * exponential with the given means.
+ */
+public class BurstyArrivals implements ArrivalProcess {
+    private final double baseRate;
+    private final double burstRate;
+    private final double calmRate; // 1 / mean calm length, per second
+    private final double burstEndRate;
+    private final Random random;
+
+    private boolean burst = false;
+    private long stateEndNanos; // offset at which the current period ends
+
+    public BurstyArrivals(double baseRate, double burstRate, long meanCalmMs, long meanBurstMs, long seed) {
+        if (baseRate <= 0 || burstRate <= 0 || meanCalmMs <= 0 || meanBurstMs <= 0) {
+            throw new IllegalArgumentException("rates and period lengths must be positive");
+        }
+        this.baseRate = baseRate;
+        this.burstRate = burstRate;
+        this.calmRate = 1000.0 / meanCalmMs;
+        this.burstEndRate = 1000.0 / meanBurstMs;
+        this.random = new Random(seed);
+        this.stateEndNanos = ArrivalProcess.exponentialNanos(random, calmRate);
+    }
+
+    @Override
+    public long nextGapNanos(long offsetNanos) {
+        long t = offsetNanos;
+        while (true) {
+            while (t >= stateEndNanos) {
+                burst = !burst;
+                stateEndNanos += ArrivalProcess.exponentialNanos(random, burst ? burstEndRate : calmRate);
+            }
+            long gap = ArrivalProcess.exponentialNanos(random, burst ? burstRate : baseRate);
+            if (t + gap < stateEndNanos) {
+                return t + gap - offsetNanos;
+            }
+            t = stateEndNanos; // memoryless - redraw at the period boundary with the new rate
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "bursty " + baseRate + "/s, bursts of " + burstRate + "/s";
+    }
+}
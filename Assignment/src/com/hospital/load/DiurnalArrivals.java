@@ -0,0 +1,47 @@
+package com.hospital.load;
+
+import java.util.Random;
+
+/*
+ * Non-homogeneous Poisson process whose rate follows a day curve:
+ *   rate(t) = meanRate * (1 - amplitude * cos(2 pi t / period))
+ * so the run starts at the night-time trough and peaks half a period in.
+ * Generated by thinning: draw candidates at the peak rate, keep each with
+ * probability rate(t) / peak.
+ */
+public class DiurnalArrivals implements ArrivalProcess {
+    private final double meanRate;
+    private final double amplitude;
+    private final long periodNanos;
+    private final double peakRate;
+    private final Random random;
+
+    public DiurnalArrivals(double meanRate, double amplitude, long periodMs, long seed) {
+        if (meanRate <= 0 || amplitude < 0 || amplitude > 1 || periodMs <= 0) {
+            throw new IllegalArgumentException("need meanRate > 0, 0 <= amplitude <= 1, period > 0");
+        }
+        this.meanRate = meanRate;
+        this.amplitude = amplitude;
+        this.periodNanos = periodMs * 1_000_000L;
+        this.peakRate = meanRate * (1 + amplitude);
+        this.random = new Random(seed);
+    }
+
+    public double rateAt(long offsetNanos) {
+        return meanRate * (1 - amplitude * Math.cos(2 * Math.PI * (offsetNanos % periodNanos) / periodNanos));
+    }
+
+    @Override
+    public long nextGapNanos(long offsetNanos) {
+        long t = offsetNanos;
+        do {
+            t += ArrivalProcess.exponentialNanos(random, peakRate);
+        } while (random.nextDouble() * peakRate > rateAt(t));
+        return t - offsetNanos;
+    }
+
+    @Override
+    public String describe() {
+        return "diurnal " + meanRate + "/s +-" + (int) (amplitude * 100) + "% over " + periodNanos / 1_000_000 + "ms";
+    }
+}
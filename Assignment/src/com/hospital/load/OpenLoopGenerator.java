@@ -0,0 +1,138 @@
+package com.hospital.load;
+
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Open-loop replacement for the Producer threads.
+ *
+ * Orders are scheduled on an intended timeline drawn from an ArrivalProcess, and the
+ * schedule never waits for the system: if put() blocks on a full queue the following
+ * orders are sent late, back to back, but each keeps its intended time. Latencies
+ * measured from TestOrder.getIntendedNanos() therefore include the time a patient would
+ * have waited at the clinic while the buffer was full (no coordinated omission).
+ *
+ * The same goes for the end of the run: orders whose intended time had come when
+ * stop() was called but that were still waiting behind a blocked put() are counted as
+ * missed, with how long they had been due at the stop, instead of silently dropped.
+ */
+public class OpenLoopGenerator implements OrderSource {
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+
+    private final OrderQueue queue;
+    private final ArrivalProcess arrivals;
+    private final String[] clinics;
+    private final Random random;
+    private volatile boolean running = true;
+    private volatile long stopNanos = 0; // when stop() was called, 0 - not yet
+
+    private long sent = 0;
+    private long maxLagNanos = 0; // worst created - intended, how far behind schedule we got
+    private long missed = 0; // due before the stop but never sent
+    private final LatencyHistogram missedLag = new LatencyHistogram(); // intended -> stop of the missed orders
+
+    public OpenLoopGenerator(OrderQueue queue, ArrivalProcess arrivals, String[] clinics, long seed) {
+        this.queue = queue;
+        this.arrivals = arrivals;
+        this.clinics = clinics;
+        // callers usually build the ArrivalProcess from the same seed (Simulator --seed) - mix
+        // it, or the clinic / test picks would replay the gap stream's random numbers
+        this.random = new Random(seed ^ 0x9E3779B97F4A7C15L);
+    }
+
+    @Override
+    public void stop() {
+        stopNanos = System.nanoTime();
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long offset = 0;
+        int[] perClinic = new int[clinics.length];
+        long intended = start;
+        boolean pending = false; // intended is scheduled but not sent yet
+        while (running) {
+            offset += arrivals.nextGapNanos(offset);
+            intended = start + offset;
+            pending = true;
+            long now;
+            while ((now = System.nanoTime()) < intended) { // ahead of schedule - wait for it
+                LockSupport.parkNanos(intended - now);
+                if (!running || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+            if (!running || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                int c = random.nextInt(clinics.length);
+                String patientId = clinics[c] + "-P" + (++perClinic[c]);
+                String testType = TEST_TYPES[random.nextInt(TEST_TYPES.length)];
+                TestOrder order = new TestOrder(clinics[c], patientId, testType, random.nextInt(3) + 1);
+                order.setIntendedNanos(intended);
+                maxLagNanos = Math.max(maxLagNanos, order.getCreatedNanos() - intended);
+
+                Log.event(LogEvent.CREATED, clinics[c], order);
+                queue.put(order);
+                pending = false;
+                Log.event(LogEvent.QUEUED, clinics[c], order);
+                sent++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        countMissed(start, offset, intended, pending);
+        Log.event(LogEvent.STOPPED, "Generator", null);
+    }
+
+    // the rest of the schedule up to the stop: the order in hand, if it was due, and the ones behind it
+    private void countMissed(long start, long offset, long intended, boolean pending) {
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime(); // interrupted without stop()
+        if (!pending) {
+            offset += arrivals.nextGapNanos(offset);
+            intended = start + offset;
+        }
+        while (intended <= end) {
+            missed++;
+            missedLag.record(end - intended);
+            offset += arrivals.nextGapNanos(offset);
+            intended = start + offset;
+        }
+    }
+
+    // read after join()
+    public long getSent() {
+        return sent;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    // scheduled before the stop but never sent (queue full until the end)
+    public long getMissed() {
+        return missed;
+    }
+
+    // how long each missed order had been due when the run stopped
+    public LatencyHistogram getMissedLag() {
+        return missedLag;
+    }
+
+    @Override
+    public String summary() {
+        return String.format("open loop (%s): %d orders sent, max %.3f ms behind schedule, %d missed at the stop%s",
+                arrivals.describe(), sent, maxLagNanos / 1e6, missed,
+                missed == 0 ? "" : " (due for: " + missedLag.summary() + ")");
+    }
+}
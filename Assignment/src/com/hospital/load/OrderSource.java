@@ -0,0 +1,9 @@
+package com.hospital.load;
+
+// something that feeds orders into the queue in place of the Producer threads
+public interface OrderSource extends Runnable {
+    void stop();
+
+    // one line for the end-of-run report, read after the thread has been joined
+    String summary();
+}
@@ -0,0 +1,27 @@
+package com.hospital.load;
+
+import java.util.Random;
+
+// memoryless arrivals at a constant mean rate - exponential gaps
+public class PoissonArrivals implements ArrivalProcess {
+    private final double ratePerSecond;
+    private final Random random;
+
+    public PoissonArrivals(double ratePerSecond, long seed) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public long nextGapNanos(long offsetNanos) {
+        return ArrivalProcess.exponentialNanos(random, ratePerSecond);
+    }
+
+    @Override
+    public String describe() {
+        return "poisson " + ratePerSecond + "/s";
+    }
+}
@@ -0,0 +1,160 @@
+package com.hospital.log;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Logger that keeps formatting and I/O off the calling threads.
+ *
+ * Every calling thread gets its own EventRing (lock-free, single producer) the first
+ * time it logs. A single background thread drains all rings, orders the batch by the
+ * nanoTime stamp taken at log time, formats the lines and writes them to the sink in
+ * one go. The caller's cost is a few array stores and one ordered counter update.
+ *
+ * If a ring is full the caller yields until the background thread catches up, so no
+ * events are dropped. An event that fails to format (a subject whose toString() throws)
+ * is skipped and counted instead of killing the background thread; should it die all the
+ * same, callers that find their ring full drop their events and count them rather than
+ * spinning forever.
+ */
+public class AsyncLogger implements AutoCloseable {
+    private static final int RING_CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final PrintStream out;
+    private final List<EventRing> rings = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<EventRing> localRing = ThreadLocal.withInitial(this::register);
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private long linesWritten; // background thread only until close() returns
+    private long failedEvents; // likewise - events whose line could not be formatted
+    private final AtomicLong dropped = new AtomicLong(); // ring full, background thread dead
+    private volatile long passes; // completed drain passes, used by flush()
+
+    public AsyncLogger(PrintStream out) {
+        this.out = out;
+        this.writerThread = new Thread(this::writeLoop, "async-logger");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void log(LogEvent type, String who, Object subject, long value) {
+        if (!localRing.get().add(type, who, subject, value)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private EventRing register() {
+        EventRing ring = new EventRing(RING_CAPACITY, Thread.currentThread(), writerThread);
+        rings.add(ring);
+        return ring;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        EventRing.EventSink collector = (type, stamp, who, subject, value) -> batch.add(new Pending(type, stamp, who, subject, value));
+        StringBuilder sb = new StringBuilder(1 << 16);
+        boolean dirty = false;
+
+        while (true) {
+            boolean stopping = !running; // read before draining so nothing logged before close() is missed
+            for (EventRing ring : rings) {
+                ring.drainTo(collector);
+                if (!ring.owner.isAlive() && ring.isEmpty()) {
+                    rings.remove(ring); // owner is gone, nothing more can arrive
+                }
+            }
+
+            if (batch.isEmpty()) {
+                if (dirty) {
+                    out.flush();
+                    dirty = false;
+                }
+                if (stopping) {
+                    break;
+                }
+                passes++;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            batch.sort(Comparator.comparingLong(p -> p.stamp));
+            for (Pending p : batch) {
+                int mark = sb.length();
+                try {
+                    p.type.appendTo(sb, p.who, p.subject, p.value);
+                    sb.append(System.lineSeparator());
+                    linesWritten++;
+                } catch (RuntimeException e) { // one bad subject must not stop the logging
+                    sb.setLength(mark);
+                    failedEvents++;
+                }
+            }
+            out.print(sb);
+            sb.setLength(0);
+            batch.clear();
+            dirty = true;
+            passes++;
+        }
+    }
+
+    /*
+     * Blocks until everything logged before the call has been written to the sink.
+     * The pass in progress may already have skipped our ring, the one after it cannot.
+     */
+    public void flush() {
+        long target = passes + 2;
+        while (passes < target && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            Thread.yield();
+        }
+        out.flush();
+    }
+
+    // stops the background thread after everything logged so far has been written
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.flush();
+    }
+
+    public long getLinesWritten() {
+        return linesWritten;
+    }
+
+    public long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private static final class Pending {
+        final LogEvent type;
+        final long stamp;
+        final String who;
+        final Object subject;
+        final long value;
+
+        Pending(LogEvent type, long stamp, String who, Object subject, long value) {
+            this.type = type;
+            this.stamp = stamp;
+            this.who = who;
+            this.subject = subject;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hospital.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Single-producer / single-consumer ring of log events owned by one thread.
+ *
+ * The owner thread is the only writer of tail, the background logger thread the only
+ * writer of head. Slots are plain arrays (struct-of-arrays, no per-event object);
+ * lazySet on the counters publishes the slot contents without a full fence.
+ */
+class EventRing {
+    private static final LogEvent[] EVENTS = LogEvent.values();
+
+    private final int mask;
+    private final byte[] types;
+    private final long[] stamps;
+    private final long[] values;
+    private final String[] whos;
+    private final Object[] subjects;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to drain
+    private final AtomicLong tail = new AtomicLong(); // next slot to fill
+    private long cachedHead; // owner's last view of head, avoids reading it every event
+
+    final Thread owner;
+    private final Thread drainer; // the background thread, checked only while the ring is full
+
+    EventRing(int capacity, Thread owner, Thread drainer) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.types = new byte[capacity];
+        this.stamps = new long[capacity];
+        this.values = new long[capacity];
+        this.whos = new String[capacity];
+        this.subjects = new Object[capacity];
+        this.owner = owner;
+        this.drainer = drainer;
+    }
+
+    // owner thread only - spins (yielding) while the background thread catches up. False,
+    // event not added, if the ring is full and the background thread has died
+    boolean add(LogEvent type, String who, Object subject, long value) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            while (t - (cachedHead = head.get()) > mask) {
+                if (!drainer.isAlive()) {
+                    return false;
+                }
+                Thread.yield();
+            }
+        }
+        int i = (int) t & mask;
+        types[i] = (byte) type.ordinal();
+        stamps[i] = System.nanoTime();
+        values[i] = value;
+        whos[i] = who;
+        subjects[i] = subject;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // background thread only - hands every pending event to the sink, returns how many
+    int drainTo(EventSink sink) {
+        long h = head.get();
+        long t = tail.get();
+        for (long s = h; s < t; s++) {
+            int i = (int) s & mask;
+            sink.accept(EVENTS[types[i]], stamps[i], whos[i], subjects[i], values[i]);
+            whos[i] = null;
+            subjects[i] = null;
+        }
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    interface EventSink {
+        void accept(LogEvent type, long stampNanos, String who, Object subject, long value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital.log;
+
+import java.io.PrintStream;
+
+/*
+ * Entry point the simulation roles log through.
+ *
+ * Synchronous by default - each event is formatted and println'd on the calling
+ * thread, exactly like the old System.out.println calls. Run with
+ * -Dhospital.log=async (or call useAsync) to hand events to an AsyncLogger instead.
+ * Call shutdown() at the end of main so the async backlog is written out.
+ */
+public final class Log {
+    private static volatile PrintStream syncOut = System.out;
+    private static volatile AsyncLogger async;
+
+    static {
+        if ("async".equalsIgnoreCase(System.getProperty("hospital.log"))) {
+            useAsync(System.out);
+        }
+    }
+
+    private Log() {
+    }
+
+    public static synchronized void useAsync(PrintStream out) {
+        shutdown();
+        async = new AsyncLogger(out);
+    }
+
+    public static synchronized void useSync(PrintStream out) {
+        shutdown();
+        syncOut = out;
+    }
+
+    public static void event(LogEvent type, String who, Object subject) {
+        event(type, who, subject, 0L);
+    }
+
+    public static void event(LogEvent type, String who, long value) {
+        event(type, who, null, value);
+    }
+
+    public static void event(LogEvent type, String who, Object subject, long value) {
+        AsyncLogger logger = async;
+        if (logger != null) {
+            logger.log(type, who, subject, value);
+        } else {
+            syncOut.println(type.format(who, subject, value));
+        }
+    }
+
+    // waits until the async backlog is written, e.g. before printing a workload summary
+    public static void flush() {
+        AsyncLogger logger = async;
+        if (logger != null) {
+            logger.flush();
+        } else {
+            syncOut.flush();
+        }
+    }
+
+    // writes out anything still buffered and falls back to synchronous logging
+    public static synchronized void shutdown() {
+        AsyncLogger logger = async;
+        if (logger != null) {
+            async = null;
+            logger.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hospital.log;
+
+/*
+ * The fixed set of events the simulation roles log.
+ *
+ * Callers only hand over the event type and its raw arguments (who, subject, value);
+ * the text is built later by whoever drains the event - the caller's thread for the
+ * synchronous path, the background writer thread for the asynchronous one.
+ */
+public enum LogEvent {
+    CREATED,        // producer made an order        subject = TestOrder
+    QUEUED,         // producer put it in the buffer subject = TestOrder
+    PROCESSING,     // consumer took it              subject = TestOrder, value = wait in ns
+    COMPLETED,      // consumer finished it          subject = TestOrder
+    STOPPED,        // producer / consumer exit
+    READ_POLICY,    // auditor read                  subject = policy
+    UPDATED_POLICY, // supervisor write              subject = policy
+    READER_STOPPED, // auditor exit                  value = read count
+    WRITER_STOPPED, // supervisor exit               value = write count
+    DISPATCH;       // consumer switched dispatch    subject = mode (fifo / priority-first / maintenance)
+
+    // produces exactly the lines the roles used to println
+    public void appendTo(StringBuilder sb, String who, Object subject, long value) {
+        sb.append('[').append(who).append("] ");
+        switch (this) {
+            case CREATED:
+                sb.append("Created: ").append(subject);
+                break;
+            case QUEUED:
+                sb.append("Queued: ").append(subject);
+                break;
+            case PROCESSING:
+                sb.append("Processing: ").append(subject)
+                        .append(" (waited ");
+                appendMillis(sb, value);
+                sb.append("ms)");
+                break;
+            case COMPLETED:
+                sb.append("Completed: ").append(subject);
+                break;
+            case STOPPED:
+                sb.append("Stopped");
+                break;
+            case READ_POLICY:
+                sb.append("Read policy: ").append(subject);
+                break;
+            case UPDATED_POLICY:
+                sb.append("Updated policy to: ").append(subject);
+                break;
+            case READER_STOPPED:
+                sb.append("Stopped. Total reads: ").append(value);
+                break;
+            case WRITER_STOPPED:
+                sb.append("Stopped. Total writes: ").append(value);
+                break;
+            case DISPATCH:
+                sb.append("Dispatch: ").append(subject);
+                break;
+        }
+    }
+
+    // nanoseconds as milliseconds with three decimals, same text as String.format("%.3f") without the parser
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        long micros = Math.round(nanos / 1000.0);
+        long frac = Math.abs(micros % 1000);
+        if (micros < 0) {
+            sb.append('-');
+        }
+        sb.append(Math.abs(micros / 1000)).append('.');
+        if (frac < 100) {
+            sb.append('0');
+        }
+        if (frac < 10) {
+            sb.append('0');
+        }
+        sb.append(frac);
+    }
+
+    public String format(String who, Object subject, long value) {
+        StringBuilder sb = new StringBuilder(64);
+        appendTo(sb, who, subject, value);
+        return sb.toString();
+    }
+}
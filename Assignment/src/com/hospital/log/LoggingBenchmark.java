@@ -0,0 +1,112 @@
+package com.hospital.log;
+
+import com.hospital.BoundedQueueMonitor;
+import com.hospital.Consumer;
+import com.hospital.PolicyRWMonitor;
+import com.hospital.Producer;
+import com.hospital.Reader;
+import com.hospital.Writer;
+import com.hospital.metrics.OrderLatencyRecorder;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * SURGE throughput with synchronous println logging vs the AsyncLogger.
+ *
+ * Same topology as Main.runSurgeWorkload (5 clinics, 2 analyzers, 3 auditors,
+ * 1 supervisor) but with the think / processing sleeps taken out, so logging is the
+ * dominant cost. Both modes write the same lines to the same kind of file sink; the
+ * measured time includes writing out the async backlog.
+ *
+ * usage: LoggingBenchmark [seconds per run] [rounds] [log file]
+ */
+public class LoggingBenchmark {
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path file = args.length > 2 ? Path.of(args[2]) : Files.createTempFile("hospital-log-bench", ".log");
+
+        System.out.println("=== Logging benchmark: SURGE without sleeps, " + seconds + "s per run ===");
+        for (int round = 1; round <= rounds; round++) {
+            for (boolean async : new boolean[] { false, true }) {
+                try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 16), false)) {
+                    if (async) {
+                        Log.useAsync(out);
+                    } else {
+                        Log.useSync(out);
+                    }
+                    Result r = runSurge(seconds);
+                    System.out.printf("round %d %-8s orders=%8d  reads=%9d  %10.0f orders/s  %11.0f reads/s  log=%d bytes%n",
+                            round, async ? "async" : "println", r.orders, r.reads,
+                            r.orders / r.seconds, r.reads / r.seconds, Files.size(file));
+                } finally {
+                    Log.useSync(System.out);
+                }
+            }
+        }
+        if (args.length <= 2) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Result runSurge(int seconds) throws InterruptedException, IOException {
+        BoundedQueueMonitor queue = new BoundedQueueMonitor(5);
+        PolicyRWMonitor policy = new PolicyRWMonitor();
+        OrderLatencyRecorder latencies = new OrderLatencyRecorder();
+
+        Producer[] producers = {
+                new Producer(queue, "ER", 0), new Producer(queue, "ICU", 0), new Producer(queue, "WardA", 0),
+                new Producer(queue, "WardB", 0), new Producer(queue, "Outpatient", 0)
+        };
+        Consumer[] consumers = { new Consumer(queue, "Analyzer1", 0, latencies), new Consumer(queue, "Analyzer2", 0, latencies) };
+        Reader[] readers = { new Reader(policy, "Auditor1", 0), new Reader(policy, "Auditor2", 0), new Reader(policy, "Auditor3", 0) };
+        Writer writer = new Writer(policy, "Supervisor1", 1);
+
+        Runnable[] roles = new Runnable[producers.length + consumers.length + readers.length + 1];
+        int n = 0;
+        for (Runnable r : producers) roles[n++] = r;
+        for (Runnable r : consumers) roles[n++] = r;
+        for (Runnable r : readers) roles[n++] = r;
+        roles[n] = writer;
+
+        Thread[] threads = new Thread[roles.length];
+        long start = System.nanoTime();
+        for (int i = 0; i < roles.length; i++) {
+            threads[i] = new Thread(roles[i]);
+            threads[i].start();
+        }
+        Thread.sleep(seconds * 1000L);
+
+        for (Producer p : producers) p.stop();
+        for (Consumer c : consumers) c.stop();
+        for (Reader r : readers) r.stop();
+        writer.stop();
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads)
+            t.join();
+        Log.flush();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long reads = 0;
+        for (Reader r : readers) reads += r.getReadCount();
+        return new Result(latencies.histogram("endToEnd", "all").getCount(), reads, elapsed);
+    }
+
+    private static final class Result {
+        final long orders;
+        final long reads;
+        final double seconds;
+
+        Result(long orders, long reads, double seconds) {
+            this.orders = orders;
+            this.reads = reads;
+            this.seconds = seconds;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hospital.metrics;
+
+import com.hospital.spi.TestOrder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Collects the lifecycle stamps of completed orders into latency histograms,
+ * broken down per clinic, per priority and per test type.
+ *
+ * Stages (all from System.nanoTime() stamps on the TestOrder):
+ *   hand-off   created  -> queued     time spent getting into the buffer (incl. blocking on full)
+ *   queueWait  queued   -> dequeued   time spent in the buffer
+ *   pickup     dequeued -> analysis start
+ *   service    analysis start -> completed
+ *   endToEnd   created  -> completed
+ *   sendLag    intended -> queued     how late the order got into the buffer vs. its schedule
+ *   response   intended -> completed  what the patient sees, free of coordinated omission
+ *
+ * intended == created for closed-loop producers, so sendLag / response only differ from
+ * hand-off / endToEnd in open-loop runs (com.hospital.load).
+ *
+ * One recorder is shared by all consumers of a workload. Histogram lookup goes through
+ * a ConcurrentHashMap (no lock once the key exists) and recording is lock-free.
+ */
+public class OrderLatencyRecorder {
+    public static final String[] STAGES = { "hand-off", "queueWait", "pickup", "service", "endToEnd", "sendLag", "response" };
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public OrderLatencyRecorder() {
+    }
+
+    // must be called once the consumer has stamped the order as completed
+    public void record(TestOrder order) {
+        long[] stageNanos = {
+                order.getQueuedNanos() - order.getCreatedNanos(),
+                order.getDequeuedNanos() - order.getQueuedNanos(),
+                order.getAnalysisStartNanos() - order.getDequeuedNanos(),
+                order.getCompletedNanos() - order.getAnalysisStartNanos(),
+                order.getCompletedNanos() - order.getCreatedNanos(),
+                order.getQueuedNanos() - order.getIntendedNanos(),
+                order.getCompletedNanos() - order.getIntendedNanos()
+        };
+        String[] keys = {
+                "all",
+                "clinic=" + order.getClinic(),
+                "priority=P" + order.getPriority(),
+                "testType=" + order.getTestType()
+        };
+        for (int s = 0; s < STAGES.length; s++) {
+            for (String key : keys) {
+                histogram(STAGES[s], key).record(stageNanos[s]);
+            }
+        }
+    }
+
+    public LatencyHistogram histogram(String stage, String key) {
+        return histograms.computeIfAbsent(stage + "|" + key, k -> new LatencyHistogram());
+    }
+
+    // formatted report: one block per stage, one line per breakdown key (sorted)
+    public String report() {
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(histograms);
+        StringBuilder sb = new StringBuilder();
+        for (String stage : STAGES) {
+            sb.append("--- ").append(stage).append(" ---\n");
+            for (Map.Entry<String, LatencyHistogram> e : sorted.entrySet()) {
+                String name = e.getKey();
+                if (name.startsWith(stage + "|")) {
+                    sb.append(String.format("  %-22s %s%n", name.substring(stage.length() + 1), e.getValue().summary()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.hospital.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Wait-time metrics for a reader / writer monitor, one instance per monitor (and so per
+ * fairness mode):
+ *
+ *   readerWait     startRead() request -> read lock acquired
+ *   writerWait     startWrite() request -> write lock acquired
+ *   readerHoldOff  for writers that found readers inside: request -> the moment the
+ *                  last of those readers left (how long readers held the writer off)
+ *   starvedWriter  waits of writers that readers overtook - at least one reader got the
+ *                  lock after the writer asked for it. The max is the longest writer
+ *                  starvation interval.
+ *
+ * The monitor calls the hooks around its own lock operations. Everything is lock-free
+ * (histograms and atomics); a monitor built without metrics pays nothing.
+ */
+public class RwLockMetrics {
+    private final String label;
+    private final LatencyHistogram readerWait = new LatencyHistogram();
+    private final LatencyHistogram writerWait = new LatencyHistogram();
+    private final LatencyHistogram readerHoldOff = new LatencyHistogram();
+    private final LatencyHistogram starvedWriter = new LatencyHistogram();
+    private final AtomicInteger activeReaders = new AtomicInteger();
+    private final AtomicLong readAcquisitions = new AtomicLong();
+    private volatile long readersDrainedNanos; // last time activeReaders dropped to 0
+
+    public RwLockMetrics(String label) {
+        this.label = label;
+    }
+
+    public void readAcquired(long requestedNanos) {
+        long now = System.nanoTime();
+        activeReaders.incrementAndGet();
+        readAcquisitions.incrementAndGet();
+        readerWait.record(now - requestedNanos);
+    }
+
+    public void readReleased() {
+        if (activeReaders.decrementAndGet() == 0) {
+            readersDrainedNanos = System.nanoTime();
+        }
+    }
+
+    // taken when the writer asks, handed back to writeAcquired()
+    public long readAcquisitions() {
+        return readAcquisitions.get();
+    }
+
+    public int activeReaders() {
+        return activeReaders.get();
+    }
+
+    public void writeAcquired(long requestedNanos, long readAcquisitionsAtRequest, boolean readersAtRequest) {
+        long now = System.nanoTime();
+        long wait = now - requestedNanos;
+        writerWait.record(wait);
+        if (readersAtRequest) {
+            long drained = readersDrainedNanos;
+            readerHoldOff.record(drained > requestedNanos ? drained - requestedNanos : 0);
+        }
+        if (readAcquisitions.get() > readAcquisitionsAtRequest) {
+            starvedWriter.record(wait);
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public LatencyHistogram getReaderWait() {
+        return readerWait;
+    }
+
+    public LatencyHistogram getWriterWait() {
+        return writerWait;
+    }
+
+    public LatencyHistogram getReaderHoldOff() {
+        return readerHoldOff;
+    }
+
+    public LatencyHistogram getStarvedWriter() {
+        return starvedWriter;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- RW lock metrics: ").append(label).append(" ---\n");
+        sb.append(String.format("  %-15s %s%n", "readerWait", readerWait.summary()));
+        sb.append(String.format("  %-15s %s%n", "writerWait", writerWait.summary()));
+        sb.append(String.format("  %-15s %s%n", "readerHoldOff", readerHoldOff.summary()));
+        sb.append(String.format("  %-15s %s%n", "starvedWriter", starvedWriter.summary()));
+        sb.append(String.format("  writers overtaken by readers: %d of %d, longest starvation %.3f ms%n",
+                starvedWriter.getCount(), writerWait.getCount(), starvedWriter.getMaxNanos() / 1e6));
+        return sb.toString();
+    }
+}
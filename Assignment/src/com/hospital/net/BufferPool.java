@@ -0,0 +1,40 @@
+package com.hospital.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/*
+ * Pool of direct buffers for the intake connections. Direct buffers are expensive to
+ * allocate and free (outside the heap, cleaned up by GC), so a connection borrows one
+ * when it is accepted and hands it back when it closes.
+ */
+public class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private long allocated = 0;
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public synchronized ByteBuffer acquire() {
+        ByteBuffer b = free.poll();
+        if (b == null) {
+            b = ByteBuffer.allocateDirect(bufferSize);
+            allocated++;
+        }
+        return b;
+    }
+
+    public synchronized void release(ByteBuffer buffer) {
+        buffer.clear();
+        if (free.size() < maxPooled)
+            free.push(buffer);
+    }
+
+    public synchronized long getAllocated() {
+        return allocated;
+    }
+}
@@ -0,0 +1,233 @@
+package com.hospital.net;
+
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.Strategies;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Load test for HttpOrderEndpoint over localhost.
+ *
+ * `clients` threads each run a closed loop of POST /orders with `batch` orders per
+ * request (keep-alive connections), and every `getEvery`-th request a GET of the last
+ * order it posted. Reports requests per second and latency percentiles per method.
+ *
+ * Without --port it starts its own endpoint in front of a bounded queue (--queue,
+ * --capacity) drained by --analyzers threads, so it runs with nothing else up.
+ *
+ * usage: HttpLoadTest [--port N] [--clients N] [--batch N] [--getEvery N] [--duration MS]
+ *                     [--threads N] [--queue NAME] [--capacity N] [--analyzers N]
+ */
+public class HttpLoadTest {
+    private static final String[] CLINICS = { "ER", "ICU", "WardA", "WardB", "Outpatient" };
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        int clients = 8;
+        int batch = 1;
+        int getEvery = 10;
+        long durationMs = 5000;
+        int threads = 16;
+        String queueName = "lockSignal";
+        int capacity = 1024;
+        int analyzers = 2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[++i]);
+                    break;
+                case "--getEvery":
+                    getEvery = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration":
+                    durationMs = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--queue":
+                    queueName = args[++i];
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt(args[++i]);
+                    break;
+                case "--analyzers":
+                    analyzers = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        HttpOrderEndpoint endpoint = null;
+        Thread endpointThread = null;
+        Thread[] drains = new Thread[0];
+        if (port < 0) {
+            OrderQueue queue = Strategies.queue(queueName).create(capacity, false);
+            endpoint = new HttpOrderEndpoint(queue, 0, threads);
+            port = endpoint.getPort();
+            endpointThread = new Thread(endpoint, "http-endpoint");
+            endpointThread.start();
+            drains = new Thread[analyzers];
+            for (int a = 0; a < analyzers; a++) {
+                drains[a] = new Thread(() -> {
+                    try {
+                        while (true)
+                            queue.take().markCompleted();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "load-analyzer-" + a);
+                drains[a].start();
+            }
+            System.out.println("started endpoint on port " + port + " (queue=" + queueName + " capacity=" + capacity
+                    + " threads=" + threads + ")");
+        }
+
+        Result result = run(port, clients, batch, getEvery, durationMs);
+        System.out.println(result);
+
+        if (endpoint != null) {
+            endpoint.stop();
+            endpointThread.join();
+            for (Thread t : drains)
+                t.interrupt();
+            for (Thread t : drains)
+                t.join();
+            System.out.println(endpoint.summary());
+        }
+    }
+
+    public static Result run(int port, int clients, int batch, int getEvery, long millis) throws InterruptedException {
+        Result result = new Result();
+        Stop stop = new Stop();
+        Thread[] threads = new Thread[clients];
+        long[][] counts = new long[clients][3]; // posts, gets, errors
+        for (int c = 0; c < clients; c++) {
+            int slot = c;
+            threads[c] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                StringBuilder body = new StringBuilder(128 * batch);
+                long n = 0;
+                String lastId = null;
+                while (!stop.stopped) {
+                    try {
+                        if (lastId != null && getEvery > 0 && n % getEvery == 0) {
+                            long start = System.nanoTime();
+                            request(port, "GET", "/orders/" + lastId, null);
+                            result.get.record(System.nanoTime() - start);
+                            counts[slot][1]++;
+                        } else {
+                            body.setLength(0);
+                            if (batch > 1)
+                                body.append('[');
+                            for (int i = 0; i < batch; i++) {
+                                if (i > 0)
+                                    body.append(',');
+                                String clinic = CLINICS[random.nextInt(CLINICS.length)];
+                                body.append("{\"clinic\":\"").append(clinic).append("\",\"patientId\":\"").append(clinic)
+                                        .append("-P").append(slot).append('-').append(n).append('-').append(i)
+                                        .append("\",\"testType\":\"").append(TEST_TYPES[random.nextInt(TEST_TYPES.length)])
+                                        .append("\",\"priority\":").append(random.nextInt(3) + 1).append('}');
+                            }
+                            if (batch > 1)
+                                body.append(']');
+                            long start = System.nanoTime();
+                            String response = request(port, "POST", "/orders", body.toString());
+                            result.post.record(System.nanoTime() - start);
+                            counts[slot][0]++;
+                            lastId = lastOrderId(response);
+                        }
+                    } catch (IOException e) {
+                        counts[slot][2]++;
+                    }
+                    n++;
+                }
+            }, "http-load-" + c);
+        }
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        Thread.sleep(millis);
+        stop.stopped = true;
+        for (Thread t : threads)
+            t.join();
+        result.nanos = System.nanoTime() - start;
+        for (long[] c : counts) {
+            result.posts += c[0];
+            result.gets += c[1];
+            result.errors += c[2];
+        }
+        result.orders = result.posts * batch;
+        return result;
+    }
+
+    // one request on a keep-alive connection (HttpURLConnection pools them per host)
+    private static String request(int port, String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "127.0.0.1", port, path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        String response = new String(in.readAllBytes(), StandardCharsets.UTF_8); // read fully so the connection is reused
+        in.close();
+        if (status >= 400 && status != 404)
+            throw new IOException("HTTP " + status + " " + response);
+        return response;
+    }
+
+    // the last id of {"accepted":N,"orderIds":[...,id]}
+    private static String lastOrderId(String response) {
+        int close = response.lastIndexOf(']');
+        int from = Math.max(response.lastIndexOf(',', close), response.lastIndexOf('[', close)) + 1;
+        return close > from ? response.substring(from, close) : null;
+    }
+
+    public static final class Result {
+        long nanos;
+        long posts;
+        long gets;
+        long orders;
+        long errors;
+        final LatencyHistogram post = new LatencyHistogram();
+        final LatencyHistogram get = new LatencyHistogram();
+
+        public double getRequestsPerSecond() {
+            return (posts + gets) / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%d requests (%d POST, %d GET, %d errors) in %.1f s: %.0f requests/s, %.0f orders/s%n"
+                    + "POST %s%nGET  %s", posts + gets, posts, gets, errors, seconds, getRequestsPerSecond(),
+                    orders / seconds, post.summary(), get.summary());
+        }
+    }
+
+    private static final class Stop {
+        volatile boolean stopped;
+    }
+}
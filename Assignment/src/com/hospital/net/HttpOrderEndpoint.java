@@ -0,0 +1,231 @@
+package com.hospital.net;
+
+import com.hospital.load.OrderSource;
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.policy.PolicyHistory;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * HTTP / JSON intake for clinic systems that cannot speak the binary protocol, on the
+ * JDK's built-in com.sun.net.httpserver.
+ *
+ *   POST /orders        one order object or an array of them (OrderJsonParser)
+ *                       -> 202 {"accepted":N,"orderIds":[...]} once all are in the queue
+ *                       The whole body is parsed and validated before the first put, so
+ *                       a 400 means nothing of the batch was queued. A 503 (shutdown
+ *                       while blocked on a full queue) lists the ids that did get in.
+ *   GET  /orders/{id}   -> 200 status document (OrderStatusRegistry), 404 if unknown;
+ *                       with a policy history it names the policy in force at dispatch
+ *
+ * Handlers run on a fixed pool of `threads` - Java 17 has no virtual threads; on 21+
+ * this is where Executors.newVirtualThreadPerTaskExecutor() would go. A POST blocks in
+ * put() while the queue is full, so a full queue holds the clients back through the
+ * pool, like the analyzers hold back the in-process clinics.
+ *
+ * Binds to the loopback address only. Port 0 picks a free port, see getPort().
+ */
+public class HttpOrderEndpoint implements OrderSource {
+    private static final int MAX_BODY = 1 << 20;
+
+    static {
+        // headers and body go out as separate writes - without TCP_NODELAY the body waits
+        // for the client's delayed ACK, ~40 ms per request on loopback
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final OrderQueue queue;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final OrderStatusRegistry registry = new OrderStatusRegistry(100_000);
+    private final PolicyHistory history; // null - no policy in the status documents
+    private final ThreadLocal<OrderJsonParser> parsers = ThreadLocal.withInitial(OrderJsonParser::new);
+    private final ThreadLocal<byte[]> bodies = ThreadLocal.withInitial(() -> new byte[4096]);
+    private final ThreadLocal<List<TestOrder>> batches = ThreadLocal.withInitial(ArrayList::new);
+    private volatile boolean running = true;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public HttpOrderEndpoint(OrderQueue queue, int port, int threads) throws IOException {
+        this(queue, port, threads, null);
+    }
+
+    public HttpOrderEndpoint(OrderQueue queue, int port, int threads, PolicyHistory history) throws IOException {
+        this.queue = queue;
+        this.history = history;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        AtomicInteger n = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-intake-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/orders", this::handle);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // serves until stop() (or an interrupt), then shuts the server down
+    @Override
+    public void run() {
+        server.start();
+        synchronized (this) {
+            while (running) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        server.stop(0);
+        executor.shutdownNow(); // handlers blocked in put() are interrupted
+        Log.event(LogEvent.STOPPED, "HttpIntake", null);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        notifyAll();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (method.equals("POST") && (path.equals("/orders") || path.equals("/orders/"))) {
+                post(exchange);
+            } else if (method.equals("GET") && path.startsWith("/orders/")) {
+                get(exchange, path.substring("/orders/".length()));
+            } else {
+                respond(exchange, 405, "{\"error\":\"use POST /orders or GET /orders/{id}\"}");
+            }
+        } catch (IllegalArgumentException e) {
+            rejected.incrementAndGet();
+            respond(exchange, 400, "{\"error\":\"" + escape(e.getMessage()) + "\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{\"error\":\"shutting down\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void post(HttpExchange exchange) throws IOException, InterruptedException {
+        int length = readBody(exchange.getRequestBody());
+        if (length < 0) {
+            respond(exchange, 413, "{\"error\":\"body larger than " + MAX_BODY + " bytes\"}");
+            return;
+        }
+        List<TestOrder> batch = batches.get();
+        batch.clear();
+        parsers.get().parse(bodies.get(), length, (clinic, patientId, testType, priority) ->
+                batch.add(new TestOrder(clinic, patientId, testType, priority)));
+        StringBuilder ids = new StringBuilder(64);
+        int count = 0;
+        try {
+            for (TestOrder order : batch) {
+                queue.put(order); // blocks while the queue is full
+                registry.add(order); // only what is really queued gets a status
+                if (ids.length() > 0)
+                    ids.append(',');
+                ids.append(order.getOrderId());
+                count++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted.addAndGet(count);
+            respond(exchange, 503, "{\"error\":\"shutting down\",\"accepted\":" + count + ",\"orderIds\":[" + ids + "]}");
+            return;
+        } finally {
+            batch.clear();
+        }
+        accepted.addAndGet(count);
+        respond(exchange, 202, "{\"accepted\":" + count + ",\"orderIds\":[" + ids + "]}");
+    }
+
+    private void get(HttpExchange exchange, String id) throws IOException {
+        TestOrder order;
+        try {
+            order = registry.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad order id " + id);
+        }
+        if (order == null)
+            respond(exchange, 404, "{\"error\":\"unknown order " + id + "\"}");
+        else
+            respond(exchange, 200, OrderStatusRegistry.toJson(order, history));
+    }
+
+    // reads the request body into this thread's buffer, -1 if it is too large
+    private int readBody(InputStream in) throws IOException {
+        byte[] body = bodies.get();
+        int n = 0;
+        int r;
+        while ((r = in.read(body, n, body.length - n)) > 0) {
+            n += r;
+            if (n == body.length) {
+                if (body.length >= MAX_BODY)
+                    return -1;
+                body = Arrays.copyOf(body, body.length * 2);
+                bodies.set(body);
+            }
+        }
+        return n;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\' || c < ' ') {
+                if (sb == null)
+                    sb = new StringBuilder(s.substring(0, i));
+                sb.append(c < ' ' ? String.format("\\u%04x", (int) c) : "\\" + c);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    @Override
+    public String summary() {
+        return String.format("http intake on port %d: %d requests, %d orders accepted, %d bad requests",
+                getPort(), requests.get(), accepted.get(), rejected.get());
+    }
+}
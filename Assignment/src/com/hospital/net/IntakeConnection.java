@@ -0,0 +1,101 @@
+package com.hospital.net;
+
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+// one client connection of OrderIntakeServer, only touched by the selector thread
+final class IntakeConnection {
+    private final SocketChannel channel;
+    private final ByteBuffer in; // pooled, direct
+    private final ByteBuffer out = ByteBuffer.allocateDirect(OrderFrames.ACK);
+    private final byte[] scratch = new byte[255];
+    private final OrderFrames.StringCache clinics = new OrderFrames.StringCache();
+    private final OrderFrames.StringCache testTypes = new OrderFrames.StringCache();
+    private long enqueued = 0; // last sequence put into the queue
+    private long acked = 0; // last sequence acknowledged
+    long orders = 0;
+
+    IntakeConnection(SocketChannel channel, ByteBuffer in) {
+        this.channel = channel;
+        this.in = in;
+        out.limit(0);
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    ByteBuffer buffer() {
+        return in;
+    }
+
+    /*
+     * Reads what the socket has, decodes every complete frame straight from the direct
+     * buffer and puts the orders into the queue. put() blocks while the queue is full -
+     * the selector then stops reading every connection, the socket buffers fill up and
+     * TCP flow control holds the clients back. Returns false at end of stream.
+     */
+    boolean read(OrderQueue queue) throws IOException, InterruptedException {
+        if (channel.read(in) < 0)
+            return false;
+        in.flip();
+        while (in.remaining() >= OrderFrames.HEADER) {
+            int length = in.getShort(in.position()) & 0xFFFF;
+            if (length < OrderFrames.FIXED_BODY || length > OrderFrames.MAX_FRAME - OrderFrames.HEADER)
+                throw new IOException("bad frame length " + length);
+            if (in.remaining() < OrderFrames.HEADER + length)
+                break; // partial frame, wait for the rest
+            int frameEnd = in.position() + OrderFrames.HEADER + length;
+            in.position(in.position() + OrderFrames.HEADER);
+            long sequence = in.getLong();
+            long sentNanos = in.getLong();
+            int priority = in.get();
+            if (priority < 1 || priority > 3)
+                throw new IOException("bad priority " + priority);
+            String clinic = clinics.get(scratch, readBytes(frameEnd));
+            String testType = testTypes.get(scratch, readBytes(frameEnd));
+            int patientLength = readBytes(frameEnd);
+            TestOrder order = new TestOrder(clinic, new String(scratch, 0, patientLength, StandardCharsets.UTF_8), testType, priority);
+            in.position(frameEnd); // never into the next frame, whatever the strings said
+            order.setIntendedNanos(sentNanos); // latencies include the trip over the network
+            queue.put(order);
+            enqueued = sequence;
+            orders++;
+        }
+        in.compact();
+        return true;
+    }
+
+    // one length-prefixed string, which has to end inside the frame - a bad frame drops the
+    // client (IOException), it must not take the selector thread down
+    private int readBytes(int frameEnd) throws IOException {
+        if (in.position() >= frameEnd)
+            throw new IOException("frame too short for its strings");
+        int length = in.get() & 0xFF;
+        if (length > frameEnd - in.position())
+            throw new IOException("string of " + length + " bytes overruns the frame");
+        in.get(scratch, 0, length);
+        return length;
+    }
+
+    // sends one cumulative ack for everything enqueued since the last one
+    void flush(SelectionKey key) throws IOException {
+        if (!out.hasRemaining() && enqueued > acked) {
+            out.clear();
+            out.putLong(enqueued);
+            out.flip();
+            acked = enqueued;
+        }
+        if (out.hasRemaining())
+            channel.write(out);
+        // client not reading its acks - wait for room instead of spinning
+        key.interestOps(out.hasRemaining() || enqueued > acked
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+}
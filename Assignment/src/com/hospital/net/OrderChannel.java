@@ -0,0 +1,161 @@
+package com.hospital.net;
+
+import com.hospital.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Client side of one connection to an OrderIntakeServer.
+ *
+ * send() encodes into a direct buffer and only writes when the buffer is full, when the
+ * credit window is used up, or on flush() - so a burst of orders goes out in a few large
+ * writes. At most `window` orders are unacknowledged; send() blocks (after flushing) until
+ * acks return credit. A reader thread takes the cumulative acks and times every order
+ * they cover, send -> in the server's queue.
+ *
+ * send / flush may be called from several threads, they are serialized.
+ */
+public class OrderChannel implements AutoCloseable {
+    private final SocketChannel channel;
+    private final int window;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final AtomicLongArray sentNanos; // ring of send times, slot = sequence % window
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Object credits = new Object(); // guards acked, waited on for credit
+    private final Thread acker;
+    private long next = 1; // next sequence, guarded by this
+    private long acked = 0; // guarded by credits
+    private volatile boolean closed = false;
+    private boolean closing = false; // close() has flushed for the last time, guarded by this
+
+    public OrderChannel(int port, int window) throws IOException {
+        this.window = window;
+        this.sentNanos = new AtomicLongArray(window);
+        this.channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.acker = new Thread(this::receiveAcks, "order-channel-acks-" + port);
+        acker.setDaemon(true);
+        acker.start();
+    }
+
+    public synchronized void send(byte[] clinic, byte[] testType, byte[] patientId, int priority)
+            throws IOException, InterruptedException {
+        if (closed || closing)
+            throw new IOException("order channel closed");
+        if (out.remaining() < OrderFrames.MAX_FRAME)
+            flush();
+        boolean noCredit;
+        synchronized (credits) {
+            noCredit = next - 1 - acked >= window;
+        }
+        if (noCredit) {
+            flushLocked(); // the server can only ack what it has received
+            synchronized (credits) {
+                while (next - 1 - acked >= window && !closed)
+                    credits.wait();
+            }
+            if (closed)
+                throw new IOException("order channel closed");
+        }
+        long now = System.nanoTime();
+        sentNanos.set((int) (next % window), now);
+        OrderFrames.encode(out, next, now, priority, clinic, testType, patientId);
+        next++;
+    }
+
+    public synchronized void flush() throws IOException {
+        flushLocked();
+    }
+
+    // caller holds this
+    private void flushLocked() throws IOException {
+        out.flip();
+        while (out.hasRemaining())
+            channel.write(out); // blocks while the server pushes back
+        out.clear();
+    }
+
+    // flushes, waits up to timeoutMs for the orders in flight to be acked, then closes
+    @Override
+    public void close() throws IOException {
+        close(1000);
+    }
+
+    public void close(long timeoutMs) throws IOException {
+        try {
+            synchronized (this) {
+                closing = true; // a send after this flush would never go out
+                flushLocked();
+            }
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            synchronized (credits) {
+                long remaining;
+                while (acked < getSent() && (remaining = deadline - System.currentTimeMillis()) > 0)
+                    credits.wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            synchronized (credits) {
+                credits.notifyAll();
+            }
+            channel.close();
+        }
+        try {
+            acker.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receiveAcks() {
+        ByteBuffer in = ByteBuffer.allocate(OrderFrames.ACK * 512);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                long now = System.nanoTime();
+                long last = -1;
+                while (in.remaining() >= OrderFrames.ACK)
+                    last = in.getLong(); // cumulative, only the newest matters
+                in.compact();
+                if (last < 0)
+                    continue;
+                synchronized (credits) {
+                    for (long s = acked + 1; s <= last; s++)
+                        latency.record(now - sentNanos.get((int) (s % window)));
+                    acked = last;
+                    credits.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            // closed
+        } finally {
+            closed = true;
+            synchronized (credits) {
+                credits.notifyAll(); // a sender waiting for credit from a dead server gives up
+            }
+        }
+    }
+
+    // orders handed to send(), including any not yet written
+    public synchronized long getSent() {
+        return next - 1;
+    }
+
+    public long getAcked() {
+        synchronized (credits) {
+            return acked;
+        }
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hospital.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Wire format of the order intake protocol (big endian):
+ *
+ *   client -> server   order frame
+ *     short  body length
+ *     long   sequence      per connection, starts at 1, +1 per order
+ *     long   sent nanos    client System.nanoTime() - same host, so comparable with ours
+ *     byte   priority
+ *     byte   clinic length,    clinic bytes
+ *     byte   test type length, test type bytes
+ *     byte   patient length,   patient id bytes
+ *
+ *   server -> client   ack
+ *     long   sequence      every order up to here is in the bounded queue (cumulative)
+ *
+ * Strings are ASCII / UTF-8, at most 255 bytes each.
+ */
+public final class OrderFrames {
+    public static final int HEADER = 2;
+    public static final int FIXED_BODY = 8 + 8 + 1 + 3;
+    public static final int MAX_FRAME = HEADER + FIXED_BODY + 3 * 255;
+    public static final int ACK = 8;
+
+    private OrderFrames() {
+    }
+
+    // strings already encoded, so a client can keep the clinic / test type bytes around
+    public static void encode(ByteBuffer out, long sequence, long sentNanos, int priority, byte[] clinic, byte[] testType,
+            byte[] patientId) {
+        int body = FIXED_BODY + clinic.length + testType.length + patientId.length;
+        out.putShort((short) body);
+        out.putLong(sequence);
+        out.putLong(sentNanos);
+        out.put((byte) priority);
+        putString(out, clinic);
+        putString(out, testType);
+        putString(out, patientId);
+    }
+
+    private static void putString(ByteBuffer out, byte[] s) {
+        if (s.length > 255)
+            throw new IllegalArgumentException("string longer than 255 bytes");
+        out.put((byte) s.length);
+        out.put(s);
+    }
+
+    /*
+     * Interns the few distinct clinic / test type names a connection sends, so decoding
+     * them allocates nothing once they have been seen. Compares the bytes in place.
+     */
+    static final class StringCache {
+        private static final int MAX = 64;
+        private final byte[][] keys = new byte[MAX][];
+        private final String[] values = new String[MAX];
+        private int size = 0;
+
+        String get(byte[] scratch, int length) {
+            for (int i = 0; i < size; i++) {
+                byte[] k = keys[i];
+                if (k.length == length && Arrays.equals(k, 0, length, scratch, 0, length))
+                    return values[i];
+            }
+            String s = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            if (size < MAX) { // a client sending endless distinct names just doesn't get them cached
+                keys[size] = Arrays.copyOf(scratch, length);
+                values[size++] = s;
+            }
+            return s;
+        }
+    }
+}
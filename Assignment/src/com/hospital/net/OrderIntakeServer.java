@@ -0,0 +1,140 @@
+package com.hospital.net;
+
+import com.hospital.load.OrderSource;
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.spi.OrderQueue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/*
+ * Order intake over TCP, in place of the in-process clinics: external clinic systems
+ * connect, send framed binary orders (OrderFrames) and get cumulative acks back once
+ * their orders are in the bounded queue.
+ *
+ * One selector thread does everything - accept, read, decode, put, ack. Each
+ * connection borrows a direct buffer from a BufferPool and frames are decoded from it
+ * in place. When the queue is full put() blocks the selector thread, nothing is read
+ * any more and TCP flow control pushes back on the clients; the load client bounds its
+ * unacknowledged orders (credit window) on top of that.
+ *
+ * Binds to the loopback address only. Port 0 picks a free port, see getPort().
+ */
+public class OrderIntakeServer implements OrderSource {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderQueue queue;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final BufferPool buffers = new BufferPool(BUFFER_SIZE, 256);
+    private final int port;
+    private volatile boolean running = true;
+
+    private long connections = 0;
+    private long orders = 0;
+
+    public OrderIntakeServer(OrderQueue queue, int port) throws IOException {
+        this.queue = queue;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.port = server.socket().getLocalPort();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept();
+                    else
+                        serve(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (InterruptedException e) { // interrupted while put() waited on a full queue
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("order intake stopped: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys())
+                if (key.attachment() != null)
+                    close(key);
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+        Log.event(LogEvent.STOPPED, "Intake", null);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // acks are tiny, don't hold them back
+            channel.register(selector, SelectionKey.OP_READ, new IntakeConnection(channel, buffers.acquire()));
+            connections++;
+        }
+    }
+
+    private void serve(SelectionKey key) throws InterruptedException {
+        IntakeConnection connection = (IntakeConnection) key.attachment();
+        try {
+            if (key.isReadable() && !connection.read(queue)) {
+                close(key); // client closed its side
+                return;
+            }
+            connection.flush(key);
+        } catch (IOException e) { // reset or a bad frame - drop that client only
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        IntakeConnection connection = (IntakeConnection) key.attachment();
+        key.attach(null);
+        key.cancel();
+        orders += connection.orders;
+        buffers.release(connection.buffer());
+        try {
+            connection.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // read after join()
+    public long getOrders() {
+        return orders;
+    }
+
+    @Override
+    public String summary() {
+        return String.format("tcp intake on port %d: %d connections, %d orders, %d direct buffers allocated",
+                getPort(), connections, orders, buffers.getAllocated());
+    }
+}
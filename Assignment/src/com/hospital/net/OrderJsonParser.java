@@ -0,0 +1,255 @@
+package com.hospital.net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Streaming parser for the HTTP intake body: one order object, or an array of them.
+ *
+ *   {"clinic":"ER","patientId":"ER-P17","testType":"MRI","priority":1}
+ *
+ * patientId and testType are required, clinic defaults to "HTTP" and priority to 3;
+ * strings may be up to 64 KB of UTF-8.
+ * Unknown fields are skipped. Each order is handed to the sink as soon as its object
+ * closes, nothing is built up in between. Keys are matched on the raw bytes and clinic /
+ * test type names are interned, so an order costs its patient id string and nothing
+ * else. One parser per thread - it keeps its caches and scratch buffer.
+ *
+ * Malformed input throws IllegalArgumentException.
+ */
+final class OrderJsonParser {
+    interface Sink {
+        void order(String clinic, String patientId, String testType, int priority) throws InterruptedException;
+    }
+
+    private static final byte[] CLINIC = bytes("clinic");
+    private static final byte[] PATIENT_ID = bytes("patientId");
+    private static final byte[] TEST_TYPE = bytes("testType");
+    private static final byte[] PRIORITY = bytes("priority");
+    private static final int MAX_STRING = 0xFFFF; // what the replication stream can carry
+
+    private final OrderFrames.StringCache clinics = new OrderFrames.StringCache();
+    private final OrderFrames.StringCache testTypes = new OrderFrames.StringCache();
+    private byte[] scratch = new byte[256];
+    private byte[] in;
+    private int pos;
+    private int end;
+
+    // returns the number of orders handed to the sink
+    int parse(byte[] body, int length, Sink sink) throws InterruptedException {
+        this.in = body;
+        this.pos = 0;
+        this.end = length;
+        int count = 0;
+        skipWhitespace();
+        if (peek() == '[') {
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+            } else {
+                while (true) {
+                    parseOrder(sink);
+                    count++;
+                    skipWhitespace();
+                    byte b = next();
+                    if (b == ']')
+                        break;
+                    if (b != ',')
+                        throw error("expected , or ]");
+                }
+            }
+        } else {
+            parseOrder(sink);
+            count++;
+        }
+        skipWhitespace();
+        if (pos != end)
+            throw error("trailing data");
+        return count;
+    }
+
+    private void parseOrder(Sink sink) throws InterruptedException {
+        skipWhitespace();
+        expect('{');
+        String clinic = "HTTP";
+        String patientId = null;
+        String testType = null;
+        int priority = 3;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                int keyLength = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                // length first: readString() may swap scratch for a bigger array
+                if (keyIs(CLINIC, keyLength)) {
+                    int length = readString();
+                    clinic = clinics.get(scratch, length);
+                } else if (keyIs(TEST_TYPE, keyLength)) {
+                    int length = readString();
+                    testType = testTypes.get(scratch, length);
+                } else if (keyIs(PATIENT_ID, keyLength)) {
+                    int length = readString();
+                    patientId = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                } else if (keyIs(PRIORITY, keyLength)) {
+                    priority = readInt();
+                } else {
+                    skipValue();
+                }
+                skipWhitespace();
+                byte b = next();
+                if (b == '}')
+                    break;
+                if (b != ',')
+                    throw error("expected , or }");
+            }
+        }
+        if (patientId == null || testType == null)
+            throw error("order needs patientId and testType");
+        if (priority < 1 || priority > 3)
+            throw error("priority must be 1..3");
+        sink.order(clinic, patientId, testType, priority);
+    }
+
+    private boolean keyIs(byte[] key, int length) {
+        if (key.length != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (scratch[i] != key[i])
+                return false;
+        return true;
+    }
+
+    // reads a string into scratch (UTF-8, escapes resolved), returns its length
+    private int readString() {
+        expect('"');
+        int n = 0;
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                if (n > MAX_STRING)
+                    throw error("string longer than " + MAX_STRING + " bytes");
+                return n;
+            }
+            if (b == '\\') {
+                b = next();
+                switch (b) {
+                    case 'n':
+                        b = '\n';
+                        break;
+                    case 't':
+                        b = '\t';
+                        break;
+                    case 'r':
+                        b = '\r';
+                        break;
+                    case 'b':
+                        b = '\b';
+                        break;
+                    case 'f':
+                        b = '\f';
+                        break;
+                    case 'u':
+                        n = appendCodePoint(n, readHex4());
+                        continue;
+                    default: // \" \\ \/
+                        break;
+                }
+            }
+            if (n == scratch.length)
+                scratch = Arrays.copyOf(scratch, n * 2);
+            scratch[n++] = b;
+        }
+    }
+
+    private int readHex4() {
+        if (end - pos < 4)
+            throw error("bad \\u escape");
+        int v = Integer.parseInt(new String(in, pos, 4, StandardCharsets.US_ASCII), 16);
+        pos += 4;
+        return v;
+    }
+
+    private int appendCodePoint(int n, int c) {
+        byte[] utf8 = String.valueOf((char) c).getBytes(StandardCharsets.UTF_8);
+        if (n + utf8.length > scratch.length)
+            scratch = Arrays.copyOf(scratch, (n + utf8.length) * 2);
+        System.arraycopy(utf8, 0, scratch, n, utf8.length);
+        return n + utf8.length;
+    }
+
+    private int readInt() {
+        boolean negative = peek() == '-';
+        if (negative)
+            pos++;
+        int start = pos;
+        int v = 0;
+        while (pos < end && in[pos] >= '0' && in[pos] <= '9') {
+            v = v * 10 + (in[pos++] - '0');
+            if (v > 1_000_000)
+                throw error("number out of range");
+        }
+        if (pos == start)
+            throw error("expected a number");
+        return negative ? -v : v;
+    }
+
+    // any JSON value we don't use - strings, numbers, literals, nested objects / arrays
+    private void skipValue() {
+        byte b = peek();
+        if (b == '"') {
+            readString();
+        } else if (b == '{' || b == '[') {
+            int depth = 0;
+            do {
+                b = next();
+                if (b == '"') {
+                    pos--;
+                    readString();
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            while (pos < end && in[pos] != ',' && in[pos] != '}' && in[pos] != ']' && in[pos] > ' ')
+                pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && (in[pos] == ' ' || in[pos] == '\n' || in[pos] == '\r' || in[pos] == '\t'))
+            pos++;
+    }
+
+    private byte peek() {
+        if (pos >= end)
+            throw error("unexpected end of input");
+        return in[pos];
+    }
+
+    private byte next() {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private void expect(char c) {
+        if (next() != c)
+            throw error("expected " + c);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at byte " + pos);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,153 @@
+package com.hospital.net;
+
+import com.hospital.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Load client for OrderIntakeServer: `connections` clinic connections, each sending
+ * orders as fast as its credit window allows - at most `window` orders unacknowledged.
+ *
+ * Intake latency is send -> cumulative ack, i.e. until the order is in the server's
+ * bounded queue (see OrderChannel). window 1 is ping-pong (pure latency), large windows
+ * measure throughput.
+ *
+ * usage: OrderLoadClient [--port N] [--connections N] [--window N] [--duration MS]
+ */
+public class OrderLoadClient {
+    private static final String[] CLINICS = { "ER", "ICU", "WardA", "WardB", "Outpatient" };
+    private static final String[] TEST_TYPES = { "BloodTest", "XRay", "MRI", "CTScan" };
+
+    private final int port;
+    private final int connections;
+    private final int window;
+
+    public OrderLoadClient(int port, int connections, int window) {
+        this.port = port;
+        this.connections = connections;
+        this.window = window;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 9090;
+        int connections = 4;
+        int window = 256;
+        long durationMs = 5000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(args[++i]);
+                    break;
+                case "--window":
+                    window = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration":
+                    durationMs = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        Result result = new OrderLoadClient(port, connections, window).run(durationMs);
+        System.out.println(result);
+    }
+
+    public Result run(long millis) throws IOException, InterruptedException {
+        Connection[] conns = new Connection[connections];
+        for (int c = 0; c < connections; c++)
+            conns[c] = new Connection(c);
+        long start = System.nanoTime();
+        for (Connection c : conns)
+            c.start();
+        Thread.sleep(millis);
+        for (Connection c : conns)
+            c.stop();
+        long elapsed = System.nanoTime() - start;
+
+        Result result = new Result();
+        result.nanos = elapsed;
+        for (Connection c : conns) {
+            c.finish();
+            result.orders += c.channel.getAcked();
+            result.latency.add(c.channel.getLatency());
+        }
+        return result;
+    }
+
+    public static final class Result {
+        long nanos;
+        long orders;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public double getOrdersPerSecond() {
+            return orders / (nanos / 1e9);
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d orders acked, %.0f orders/s%nintake latency %s", orders, getOrdersPerSecond(),
+                    latency.summary());
+        }
+    }
+
+    private final class Connection {
+        private final OrderChannel channel;
+        private final byte[][] clinics = new byte[CLINICS.length][];
+        private final byte[][] testTypes = new byte[TEST_TYPES.length][];
+        private final Thread sender;
+        private volatile boolean running = true;
+
+        Connection(int id) throws IOException {
+            channel = new OrderChannel(port, window);
+            for (int i = 0; i < CLINICS.length; i++)
+                clinics[i] = CLINICS[i].getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < TEST_TYPES.length; i++)
+                testTypes[i] = TEST_TYPES[i].getBytes(StandardCharsets.UTF_8);
+            sender = new Thread(this::send, "load-send-" + id);
+        }
+
+        void start() {
+            sender.start();
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        // waits for the orders in flight to be acked (up to a second), then closes
+        void finish() throws InterruptedException, IOException {
+            sender.join();
+            channel.close(1000);
+        }
+
+        private void send() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long n = 0;
+            try {
+                while (running) {
+                    int c = random.nextInt(CLINICS.length);
+                    byte[] patient = (CLINICS[c] + "-P" + (++n)).getBytes(StandardCharsets.UTF_8);
+                    channel.send(clinics[c], testTypes[random.nextInt(testTypes.length)], patient, random.nextInt(3) + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (running)
+                    System.err.println("load client send failed: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hospital.net;
+
+import com.hospital.policy.PolicyHistory;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.TestOrder;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Orders taken in over HTTP, by id, so clinics can ask for their status later.
+ *
+ * The status is derived from the order's own lifecycle stamps - the queue and the
+ * analyzers need no extra bookkeeping. completedNanos is volatile and written last, so
+ * a completed order's other stamps are visible too; before that the status is a best
+ * effort view. The oldest orders are forgotten beyond `capacity`.
+ */
+public class OrderStatusRegistry {
+    private final Map<Integer, TestOrder> orders = new ConcurrentHashMap<>();
+    private final Queue<Integer> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int capacity;
+
+    public OrderStatusRegistry(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(TestOrder order) {
+        orders.put(order.getOrderId(), order);
+        insertionOrder.add(order.getOrderId());
+        while (orders.size() > capacity) {
+            Integer oldest = insertionOrder.poll();
+            if (oldest == null)
+                break;
+            orders.remove(oldest);
+        }
+    }
+
+    public TestOrder get(int orderId) {
+        return orders.get(orderId);
+    }
+
+    public static String status(TestOrder order) {
+        if (order.getCompletedNanos() != 0)
+            return "COMPLETED";
+        if (order.getAnalysisStartNanos() != 0)
+            return "IN_ANALYSIS";
+        if (order.getDequeuedNanos() != 0)
+            return "DISPATCHED";
+        if (order.getQueuedNanos() != 0)
+            return "QUEUED";
+        return "RECEIVED";
+    }
+
+    // the status document returned by GET /orders/{id}
+    public static String toJson(TestOrder order) {
+        return toJson(order, null);
+    }
+
+    // with a policy history the document also says which policy was in force when an
+    // analyzer took the order (the audit question), looked up in O(log n)
+    public static String toJson(TestOrder order, PolicyHistory history) {
+        StringBuilder sb = new StringBuilder(256);
+        String status = status(order);
+        sb.append("{\"orderId\":").append(order.getOrderId());
+        sb.append(",\"clinic\":\"").append(HttpOrderEndpoint.escape(order.getClinic())).append('"');
+        sb.append(",\"patientId\":\"").append(HttpOrderEndpoint.escape(order.getPatientId())).append('"');
+        sb.append(",\"testType\":\"").append(HttpOrderEndpoint.escape(order.getTestType())).append('"');
+        sb.append(",\"priority\":").append(order.getPriority());
+        sb.append(",\"status\":\"").append(status).append('"');
+        if (history != null && order.getDequeuedNanos() != 0) {
+            PolicySnapshot atDispatch = history.policyAt(order.getDequeuedAt());
+            if (atDispatch != null) // null once compaction dropped that far back
+                sb.append(",\"policyAtDispatch\":{\"version\":").append(atDispatch.getVersion())
+                        .append(",\"mode\":\"").append(HttpOrderEndpoint.escape(atDispatch.getMode())).append("\"}");
+        }
+        if (status.equals("COMPLETED")) {
+            sb.append(",\"result\":{\"queueWaitMs\":").append(String.format(Locale.ROOT, "%.3f", order.getQueueWaitNanos() / 1e6));
+            sb.append(",\"analysisMs\":")
+                    .append(String.format(Locale.ROOT, "%.3f", (order.getCompletedNanos() - order.getAnalysisStartNanos()) / 1e6));
+            sb.append(",\"responseMs\":")
+                    .append(String.format(Locale.ROOT, "%.3f", (order.getCompletedNanos() - order.getIntendedNanos()) / 1e6));
+            sb.append('}');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -1,42 +1,88 @@
 package com.hospital.partc;
 
-import com.hospital.TestOrder;
+import com.hospital.jfr.QueuePutEvent;
+import com.hospital.jfr.QueueTakeEvent;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
 import java.util.LinkedList;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class BoundedQueueMonitorC {
+public class BoundedQueueMonitorC implements OrderQueue {
     private final LinkedList<TestOrder> queue = new LinkedList<>();
     private final int capacity;
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notFull = lock.newCondition(); // condition on producers will wait - separate wait set for producer 
-    private final Condition notEmpty = lock.newCondition(); // condition on consumers will wait - separate wait set for consumer
+    private final ReentrantLock lock;
+    private final Condition notFull; // condition on producers will wait - separate wait set for producer 
+    private final Condition notEmpty; // condition on consumers will wait - separate wait set for consumer
+    private final boolean signalAll; // true: wake every waiter (default), false: wake one like PartC's monitor
 
     public BoundedQueueMonitorC(int capacity) {
+        this(capacity, false, true);
+    }
+
+    public BoundedQueueMonitorC(int capacity, boolean fair, boolean signalAll) {
         this.capacity = capacity;
+        this.lock = new ReentrantLock(fair);
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+        this.signalAll = signalAll;
     }
 
     public void put(TestOrder order) throws InterruptedException {
+        QueuePutEvent event = new QueuePutEvent(); // begins before lock() so lock convoys show up in the duration
+        event.begin();
         lock.lock(); // lock
         try {
+            long blockedSince = 0;
             while (queue.size() == capacity) {
+                if (blockedSince == 0)
+                    blockedSince = System.nanoTime();
                 notFull.await();
             }
+            order.markQueued();
             queue.add(order);
-            notEmpty.signalAll();
+            event.end();
+            if (event.shouldCommit()) {
+                event.queue = "BoundedQueueMonitorC";
+                event.orderId = order.getOrderId();
+                event.clinic = order.getClinic();
+                event.blockedTime = blockedSince == 0 ? 0 : System.nanoTime() - blockedSince;
+                event.sizeAfter = queue.size();
+                event.commit();
+            }
+            if (signalAll)
+                notEmpty.signalAll();
+            else
+                notEmpty.signal();
         } finally {
             lock.unlock(); // unlock - unlock has to happen in the finally block 
         }
     }
 
     public TestOrder take() throws InterruptedException {
+        QueueTakeEvent event = new QueueTakeEvent();
+        event.begin();
         lock.lock();
         try {
+            long blockedSince = 0;
             while (queue.isEmpty()) {
+                if (blockedSince == 0)
+                    blockedSince = System.nanoTime();
                 notEmpty.await();// consumer goes into waiting state on notEmpty condition 
             }
             TestOrder order = queue.removeFirst();
-            notFull.signalAll(); // wakes up producer 
+            event.end();
+            if (event.shouldCommit()) {
+                event.queue = "BoundedQueueMonitorC";
+                event.orderId = order.getOrderId();
+                event.blockedTime = blockedSince == 0 ? 0 : System.nanoTime() - blockedSince;
+                event.sizeAfter = queue.size();
+                event.commit();
+            }
+            if (signalAll)
+                notFull.signalAll(); // wakes up producer 
+            else
+                notFull.signal();
             return order;
         } finally {
             lock.unlock();
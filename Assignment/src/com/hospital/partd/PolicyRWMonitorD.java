@@ -2,32 +2,95 @@ package com.hospital.partd;
 
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class PolicyRWMonitorD {
+import com.hospital.jfr.PolicyReadAcquireEvent;
+import com.hospital.jfr.PolicyWriteAcquireEvent;
+import com.hospital.jfr.PolicyWriteReleaseEvent;
+import com.hospital.metrics.RwLockMetrics;
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.ObservablePolicyStore;
+
+public class PolicyRWMonitorD implements ObservablePolicyStore {
     private final ReentrantReadWriteLock rwLock;
     private final ReentrantReadWriteLock.ReadLock readLock;
     private final ReentrantReadWriteLock.WriteLock writeLock;
     private String currentPolicy = "NORMAL";
+    private long writeAcquiredNanos; // guarded by the write lock, for the JFR hold time
+    private final PolicyChangeNotifier changes = new PolicyChangeNotifier(PolicySnapshot.INITIAL); // push to auditors
+    private final RwLockMetrics metrics; // wait / starvation histograms, null - not measured
 
     public PolicyRWMonitorD(boolean fair) {
+        this(fair, null);
+    }
+
+    public PolicyRWMonitorD(boolean fair, RwLockMetrics metrics) {
+        this.metrics = metrics;
         this.rwLock = new ReentrantReadWriteLock(fair);
         this.readLock = rwLock.readLock();
         this.writeLock = rwLock.writeLock();
     }
 
     public void startRead() {
+        PolicyReadAcquireEvent event = new PolicyReadAcquireEvent();
+        event.begin();
+        long requestedNanos = System.nanoTime();
         readLock.lock();
+        if (metrics != null)
+            metrics.readAcquired(requestedNanos);
+        event.end();
+        long acquiredNanos = System.nanoTime();
+        if (event.shouldCommit()) {
+            event.monitor = rwLock.isFair() ? "PolicyRWMonitorD(fair)" : "PolicyRWMonitorD(non-fair)";
+            event.waitTime = acquiredNanos - requestedNanos;
+            event.readers = rwLock.getReadLockCount();
+            event.commit();
+        }
     }
 
     public void endRead() {
+        if (metrics != null)
+            metrics.readReleased(); // before unlock, so a writer never sees the lock free with us still counted
         readLock.unlock();
     }
 
     public void startWrite() {
+        PolicyWriteAcquireEvent event = new PolicyWriteAcquireEvent();
+        event.begin();
+        long requestedNanos = System.nanoTime();
+        int readersAtRequest = rwLock.getReadLockCount();
+        long readsAtRequest = metrics == null ? 0 : metrics.readAcquisitions();
         writeLock.lock();
+        if (metrics != null)
+            metrics.writeAcquired(requestedNanos, readsAtRequest, readersAtRequest > 0);
+        event.end();
+        long acquiredNanos = System.nanoTime();
+        writeAcquiredNanos = acquiredNanos;
+        if (event.shouldCommit()) {
+            event.monitor = rwLock.isFair() ? "PolicyRWMonitorD(fair)" : "PolicyRWMonitorD(non-fair)";
+            event.waitTime = acquiredNanos - requestedNanos;
+            event.readersAtRequest = readersAtRequest;
+            event.writersWaiting = rwLock.getQueueLength(); // approximate, counts queued readers too
+            event.commit();
+        }
     }
 
     public void endWrite() {
+        long holdTime = System.nanoTime() - writeAcquiredNanos;
+        String policy = currentPolicy;
+        PolicySnapshot changed = changes.changed(policy); // still under the write lock - versions in write order
         writeLock.unlock();
+        PolicyWriteReleaseEvent event = new PolicyWriteReleaseEvent();
+        if (event.shouldCommit()) {
+            event.monitor = rwLock.isFair() ? "PolicyRWMonitorD(fair)" : "PolicyRWMonitorD(non-fair)";
+            event.holdTime = holdTime;
+            event.policy = policy;
+            event.commit();
+        }
+        changes.fire(changed);
+    }
+
+    public PolicyChangeNotifier changes() {
+        return changes;
     }
 
     // read operation 
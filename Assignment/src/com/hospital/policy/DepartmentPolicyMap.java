@@ -0,0 +1,81 @@
+package com.hospital.policy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+/*
+ * One policy per department (or test type) instead of one for the whole hospital -
+ * ER can be in URGENT_PRIORITY while Radiology is in MAINTENANCE.
+ *
+ * Every department gets its own PolicyStore from the factory, which is handed the
+ * department's name (a persistent store keeps each department in its own file), so
+ * reads and writes are coordinated per key: a supervisor holding ICU's write lock never
+ * blocks an auditor reading WardA. The stores live in a ConcurrentHashMap, finding a
+ * department that already exists is a plain get() - no lock, no shared write. A
+ * department is created (at NORMAL) the first time anyone reads or writes it.
+ *
+ * Any installed strategy can guard the keys, e.g. new DepartmentPolicyMap(Strategies.policy("snapshot"), false).
+ * close() closes every department's store.
+ */
+public class DepartmentPolicyMap implements AutoCloseable {
+    private final Map<String, PolicyStore> departments = new ConcurrentHashMap<>();
+    private final Function<String, PolicyStore> factory;
+
+    public DepartmentPolicyMap(Function<String, PolicyStore> factory) {
+        this.factory = factory;
+    }
+
+    public DepartmentPolicyMap(PolicyStoreProvider provider, boolean fair) {
+        this(provider, fair, Map.of());
+    }
+
+    // options as for PolicyStoreProvider.create, the same for every department
+    public DepartmentPolicyMap(PolicyStoreProvider provider, boolean fair, Map<String, String> options) {
+        this(department -> provider.create(fair, department, options));
+    }
+
+    // the store guarding one department, for callers that need the full read / write bracket
+    public PolicyStore department(String name) {
+        PolicyStore store = departments.get(name); // computeIfAbsent may lock the bin even if present
+        if (store == null) {
+            store = departments.computeIfAbsent(name, factory);
+        }
+        return store;
+    }
+
+    public String readPolicy(String department) throws InterruptedException {
+        return department(department).readPolicy();
+    }
+
+    public void setPolicy(String department, String policy) throws InterruptedException {
+        department(department).writePolicy(policy);
+    }
+
+    public Set<String> departments() {
+        return Collections.unmodifiableSet(departments.keySet());
+    }
+
+    // every department's policy, sorted by name. Each value is read under its own
+    // department's lock, so this is not one atomic view of the whole hospital
+    public Map<String, String> policies() throws InterruptedException {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<String, PolicyStore> e : departments.entrySet()) {
+            result.put(e.getKey(), e.getValue().readPolicy());
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        for (PolicyStore store : departments.values()) {
+            store.close();
+        }
+    }
+}
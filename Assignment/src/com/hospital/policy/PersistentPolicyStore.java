@@ -0,0 +1,80 @@
+package com.hospital.policy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * SnapshotPolicyStore that survives a restart: the current policy and the last
+ * historyCapacity versions are kept in a small memory-mapped file (see PolicyFile for
+ * the layout and the torn-write protection).
+ *
+ * open() maps the file and reads the two fixed slots plus the history ring, so a warm
+ * restart continues at the last persisted version in microseconds instead of starting
+ * over at NORMAL. A fresh file starts at PolicySnapshot.INITIAL.
+ *
+ * Readers are untouched - still a single volatile load of the AtomicReference. The store
+ * subscribes to its own changes, so the file is written on the writer's thread after
+ * the CAS has published the version: a handful of stores into the mapping, no syscall
+ * unless durable.
+ */
+public class PersistentPolicyStore extends SnapshotPolicyStore implements PolicyListener {
+    public static final int DEFAULT_HISTORY = 1024;
+
+    private final PolicyFile file;
+    private final boolean restored;
+    private final long restoreNanos;
+    private long persistedVersion; // newest version in a slot, guarded by this
+
+    private PersistentPolicyStore(PolicyFile file, List<PolicySnapshot> history, long restoreNanos) {
+        super(history == null ? List.of(PolicySnapshot.INITIAL) : history);
+        this.file = file;
+        this.restored = history != null;
+        this.restoreNanos = restoreNanos;
+        PolicySnapshot current = snapshot();
+        if (!restored)
+            file.writeCurrent(current);
+        persistedVersion = current.getVersion();
+        addListener(this);
+    }
+
+    public static PersistentPolicyStore open(Path path) throws IOException {
+        return open(path, DEFAULT_HISTORY, false);
+    }
+
+    // durable - force every write to the device, see PolicyFile
+    public static PersistentPolicyStore open(Path path, int historyCapacity, boolean durable) throws IOException {
+        long start = System.nanoTime();
+        PolicyFile file = new PolicyFile(path, historyCapacity, durable);
+        List<PolicySnapshot> history = file.restore();
+        return new PersistentPolicyStore(file, history, System.nanoTime() - start);
+    }
+
+    // listeners fire after the CAS, so two writers can get here out of version order -
+    // an older version still goes into the history ring but never replaces a newer slot
+    @Override
+    public synchronized void policyChanged(PolicySnapshot snapshot) {
+        if (snapshot.getVersion() > persistedVersion) {
+            file.writeCurrent(snapshot);
+            persistedVersion = snapshot.getVersion();
+        } else if (snapshot.getVersion() > persistedVersion - file.getHistoryCapacity()) {
+            file.writeHistory(snapshot);
+        }
+    }
+
+    // true if the policy came from the file, false if the file was new
+    public boolean isRestored() {
+        return restored;
+    }
+
+    // open() time: mapping the file and reading the slots and history
+    public long getRestoreNanos() {
+        return restoreNanos;
+    }
+
+    @Override
+    public synchronized void close() {
+        removeListener(this);
+        file.close();
+    }
+}
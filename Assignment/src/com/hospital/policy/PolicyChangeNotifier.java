@@ -0,0 +1,150 @@
+package com.hospital.policy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import com.hospital.metrics.LatencyHistogram;
+
+/*
+ * Push side of a policy store: keeps the latest PolicySnapshot and tells subscribers
+ * when it changes, so auditors don't have to poll.
+ *
+ * Two ways to subscribe:
+ *   listeners      called after every change on the writer's thread (keep them short)
+ *   awaitChange()  blocks until the version moves past sinceVersion, wait / notifyAll
+ *                  on this object like the other monitors
+ *
+ * Reading latest() is a volatile load, so an already-changed policy is picked up
+ * without taking the lock. The time between publication and each awaitChange()
+ * return is recorded in a histogram.
+ */
+public class PolicyChangeNotifier {
+    private volatile PolicySnapshot latest;
+    private final List<PolicyListener> listeners = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+    private final PolicyHistory history; // every version, appended under this lock in version order
+    private final Map<Long, PolicySnapshot> early = new HashMap<>(); // published() ahead of a gap, under this lock
+
+    public PolicyChangeNotifier(PolicySnapshot initial) {
+        this.latest = initial;
+        this.history = new PolicyHistory(initial);
+    }
+
+    // starts from a restored history (oldest first, e.g. PersistentPolicyStore), latest is the last entry
+    public PolicyChangeNotifier(List<PolicySnapshot> restored) {
+        this.history = new PolicyHistory(restored.get(0));
+        for (int i = 1; i < restored.size(); i++) {
+            history.append(restored.get(i));
+        }
+        this.latest = restored.get(restored.size() - 1);
+    }
+
+    public PolicySnapshot latest() {
+        return latest;
+    }
+
+    /*
+     * Records a write of mode. Returns the new snapshot, or null if the mode did not
+     * actually change (no new version, nobody is woken). Callers that serialize their
+     * writes (monitors) call this while still holding the write lock so versions follow
+     * the write order, then fire(snapshot) after releasing it.
+     */
+    public synchronized PolicySnapshot changed(String mode) {
+        if (mode.equals(latest.getMode())) {
+            return null;
+        }
+        latest = latest.withMode(mode);
+        history.append(latest);
+        notifyAll();
+        return latest;
+    }
+
+    /*
+     * For stores that number their own versions without gaps (SnapshotPolicyStore) and
+     * call it after their CAS, so two writers can arrive out of order. A version ahead
+     * of the next one due waits here until the slower writer fills the gap, then they
+     * go into latest and the history in version order. False for a version already seen.
+     */
+    public synchronized boolean published(PolicySnapshot snapshot) {
+        long version = snapshot.getVersion();
+        if (version <= latest.getVersion() || early.containsKey(version)) {
+            return false;
+        }
+        early.put(version, snapshot);
+        PolicySnapshot next;
+        while ((next = early.remove(latest.getVersion() + 1)) != null) {
+            latest = next;
+            history.append(next);
+        }
+        notifyAll();
+        return true;
+    }
+
+    public PolicyHistory history() {
+        return history;
+    }
+
+    // calls the listeners, outside any lock
+    public void fire(PolicySnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        for (PolicyListener l : listeners) {
+            l.policyChanged(snapshot);
+        }
+    }
+
+    public void addListener(PolicyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PolicyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+     * Returns the first snapshot newer than sinceVersion, or the current one if none
+     * arrived within timeoutMs (check getVersion() to tell the two apart).
+     */
+    public PolicySnapshot awaitChange(long sinceVersion, long timeoutMs) throws InterruptedException {
+        return awaitChange(sinceVersion, timeoutMs, () -> false);
+    }
+
+    /*
+     * Same, but also returns the current snapshot early once giveUp is true. giveUp is
+     * checked under this lock, so whoever sets it and then calls wakeWaiters() cannot
+     * slip in between the check and the wait.
+     */
+    public PolicySnapshot awaitChange(long sinceVersion, long timeoutMs, BooleanSupplier giveUp)
+            throws InterruptedException {
+        PolicySnapshot s = latest;
+        if (s.getVersion() > sinceVersion) {
+            return s; // already changed - no lock
+        }
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        synchronized (this) {
+            long remaining;
+            while ((s = latest).getVersion() <= sinceVersion && !giveUp.getAsBoolean()
+                    && (remaining = deadline - System.nanoTime()) > 0) {
+                wait(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+            }
+        }
+        if (s.getVersion() > sinceVersion) {
+            deliveryLatency.record(System.nanoTime() - s.getUpdatedNanos());
+        }
+        return s;
+    }
+
+    // makes every awaitChange() re-check its giveUp condition
+    public synchronized void wakeWaiters() {
+        notifyAll();
+    }
+
+    // publication -> awaitChange() return, for every blocked waiter that saw a change
+    public LatencyHistogram getDeliveryLatency() {
+        return deliveryLatency;
+    }
+}
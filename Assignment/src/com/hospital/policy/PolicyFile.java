@@ -0,0 +1,165 @@
+package com.hospital.policy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/*
+ * The memory-mapped file behind PersistentPolicyStore. Fixed layout, every value at a
+ * fixed offset, so restoring is a few absolute reads - nothing to parse:
+ *
+ *   header    64 bytes   magic "HPOL", format, history capacity
+ *   slot 0    128 bytes  current policy, even versions
+ *   slot 1    128 bytes  current policy, odd versions
+ *   history   capacity x 128 bytes, ring indexed by version % capacity
+ *
+ *   record    version (8) | updatedAt (8) | mode length (4) | mode UTF-8 | ... | CRC32C (4)
+ *
+ * Double-buffered slots: version v only ever overwrites slot v & 1, the other slot
+ * still holds v - 1. If the process dies half way through a write the torn slot fails
+ * its checksum and the restore falls back to the other one.
+ *
+ * Writes go to the page cache through the mapping, so they survive a crash of the JVM
+ * straight away. durable additionally forces each record to the device (survives an OS
+ * crash / power loss, costs a sync per write). Not thread-safe, PersistentPolicyStore
+ * serializes the writes.
+ */
+final class PolicyFile implements AutoCloseable {
+    static final int MAGIC = 0x48504F4C; // "HPOL"
+    static final int FORMAT = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 128;
+    static final int MAX_MODE_BYTES = RECORD_SIZE - 24; // version, updatedAt, length, crc
+
+    private final MappedByteBuffer map;
+    private final int historyCapacity;
+    private final boolean durable;
+    private final CRC32C crc = new CRC32C();
+
+    PolicyFile(Path path, int historyCapacity, boolean durable) throws IOException {
+        this.durable = durable;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int capacity = historyCapacity;
+            boolean fresh = true;
+            if (channel.size() >= HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(12);
+                channel.read(header, 0);
+                int magic = header.getInt(0);
+                if (magic == MAGIC) {
+                    if (header.getInt(4) != FORMAT)
+                        throw new IOException(path + ": unsupported policy file format " + header.getInt(4));
+                    capacity = header.getInt(8); // the file's own layout wins over the requested one
+                    fresh = false;
+                } else if (magic != 0) {
+                    throw new IOException(path + " is not a policy file");
+                } // all zero - a create that died before the header was written, start over
+            }
+            this.historyCapacity = capacity;
+            this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) (2 + capacity) * RECORD_SIZE);
+            if (fresh) {
+                map.putInt(4, FORMAT);
+                map.putInt(8, capacity);
+                map.force();
+                map.putInt(0, MAGIC); // magic last, a header is only valid once complete
+                map.force(0, HEADER_SIZE);
+            }
+        }
+    }
+
+    int getHistoryCapacity() {
+        return historyCapacity;
+    }
+
+    /*
+     * The persisted history, oldest first, ending with the current policy. null for a
+     * fresh file (or one where neither slot survived). Versions older than the ring
+     * capacity are gone.
+     */
+    List<PolicySnapshot> restore() {
+        PolicySnapshot current = newer(read(slotOffset(0)), read(slotOffset(1)));
+        if (current == null)
+            return null;
+        List<PolicySnapshot> history = new ArrayList<>();
+        for (int i = 0; i < historyCapacity; i++) {
+            PolicySnapshot s = read(ringOffset(i));
+            // ring records past current belong to a write that never reached its slot
+            if (s != null && s.getVersion() < current.getVersion() && s.getVersion() > current.getVersion() - historyCapacity)
+                history.add(s);
+        }
+        history.sort(Comparator.comparingLong(PolicySnapshot::getVersion));
+        history.add(current);
+        return history;
+    }
+
+    // history record only - for versions that were overtaken by a newer one before reaching the file
+    void writeHistory(PolicySnapshot snapshot) {
+        int offset = ringOffset((int) (snapshot.getVersion() % historyCapacity));
+        write(offset, snapshot);
+    }
+
+    // history record, then the slot - the slot is the commit point
+    void writeCurrent(PolicySnapshot snapshot) {
+        writeHistory(snapshot);
+        write(slotOffset((int) (snapshot.getVersion() & 1)), snapshot);
+    }
+
+    @Override
+    public void close() {
+        map.force();
+    }
+
+    private void write(int offset, PolicySnapshot snapshot) {
+        byte[] mode = snapshot.getMode().getBytes(StandardCharsets.UTF_8);
+        if (mode.length > MAX_MODE_BYTES)
+            throw new IllegalArgumentException("policy mode longer than " + MAX_MODE_BYTES + " bytes: " + snapshot.getMode());
+        map.putLong(offset, snapshot.getVersion());
+        map.putLong(offset + 8, snapshot.getUpdatedAt());
+        map.putInt(offset + 16, mode.length);
+        map.put(offset + 20, mode);
+        map.putInt(offset + RECORD_SIZE - 4, checksum(offset));
+        if (durable)
+            map.force(offset, RECORD_SIZE);
+    }
+
+    private PolicySnapshot read(int offset) {
+        int length = map.getInt(offset + 16);
+        if (length < 0 || length > MAX_MODE_BYTES || map.getInt(offset + RECORD_SIZE - 4) != checksum(offset))
+            return null;
+        byte[] mode = new byte[length];
+        map.get(offset + 20, mode);
+        // updatedNanos from another process means nothing here, restored versions count as published now
+        return new PolicySnapshot(map.getLong(offset), new String(mode, StandardCharsets.UTF_8), map.getLong(offset + 8),
+                System.nanoTime());
+    }
+
+    private int checksum(int offset) {
+        crc.reset();
+        crc.update(map.slice(offset, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    private static PolicySnapshot newer(PolicySnapshot a, PolicySnapshot b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        return a.getVersion() >= b.getVersion() ? a : b;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static int ringOffset(int index) {
+        return HEADER_SIZE + (2 + index) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hospital.policy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Append-only history of policy versions for audits: "which policy was in force at
+ * time T" (policyAt) in O(log n).
+ *
+ * Entries live in fixed chunks of CHUNK_SIZE. A chunk is never modified once an entry
+ * is visible, so readers need no lock: they read the volatile end index, then the chunk
+ * index, and binary search the entries below end.
+ *
+ * append() must be called by one thread at a time - PolicyChangeNotifier calls it
+ * inside its own lock, in version order. It never waits for readers.
+ *
+ * Compaction drops whole chunks from the front once they are older than the retention
+ * window, so memory stays bounded however long the hospital runs. The version in force
+ * at the retention horizon is always kept; older instants return null.
+ */
+public class PolicyHistory implements AutoCloseable {
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final AtomicReference<Index> index = new AtomicReference<>(new Index(0, new Chunk[0]));
+    private volatile long end = 0; // absolute index of the next entry, published after the entry is written
+    private long lastTime = Long.MIN_VALUE; // appender only
+    private ScheduledExecutorService compactor;
+
+    public PolicyHistory(PolicySnapshot initial) {
+        append(initial);
+    }
+
+    // single appender - see class comment
+    void append(PolicySnapshot snapshot) {
+        long e = end;
+        long chunkNo = e >>> CHUNK_BITS;
+        Index idx = index.get();
+        if (chunkNo - idx.firstChunk >= idx.chunks.length) {
+            Chunk chunk = new Chunk();
+            Index grown;
+            do { // the compactor may swap the index concurrently
+                idx = index.get();
+                grown = idx.with(chunk);
+            } while (!index.compareAndSet(idx, grown));
+            idx = grown;
+        }
+        Chunk chunk = idx.chunks[(int) (chunkNo - idx.firstChunk)];
+        int slot = (int) (e & (CHUNK_SIZE - 1));
+        lastTime = Math.max(lastTime, snapshot.getUpdatedAt()); // keys stay sorted even if the wall clock steps back
+        chunk.times[slot] = lastTime;
+        chunk.snapshots[slot] = snapshot;
+        end = e + 1; // volatile write publishes the slot
+    }
+
+    // the version in force at the given instant, null if before the retained history
+    public PolicySnapshot policyAt(Instant instant) {
+        return policyAt(instant.toEpochMilli());
+    }
+
+    public PolicySnapshot policyAt(long epochMillis) {
+        long hi = end - 1; // read end before the index, so every entry below end is in it
+        Index idx = index.get();
+        long lo = idx.firstChunk << CHUNK_BITS;
+        if (hi < lo || time(idx, lo) > epochMillis) {
+            return null;
+        }
+        while (lo < hi) { // last entry with time <= epochMillis
+            long mid = (lo + hi + 1) >>> 1;
+            if (time(idx, mid) <= epochMillis)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return snapshot(idx, lo);
+    }
+
+    public PolicySnapshot latest() {
+        long last = end - 1;
+        return snapshot(index.get(), last);
+    }
+
+    public long size() {
+        return end - (index.get().firstChunk << CHUNK_BITS);
+    }
+
+    public long getTotalAppended() {
+        return end;
+    }
+
+    /*
+     * Drops chunks that only hold versions superseded before now - retention: a chunk
+     * goes once the following chunk's first entry is older than the horizon.
+     * Returns the number of entries dropped. Safe to run alongside append() and readers.
+     */
+    public long compact(Duration retention) {
+        long horizon = System.currentTimeMillis() - retention.toMillis();
+        long e = end;
+        while (true) {
+            Index idx = index.get();
+            int drop = 0;
+            while (drop + 1 < idx.chunks.length) {
+                long nextFirst = (idx.firstChunk + drop + 1) << CHUNK_BITS;
+                if (nextFirst >= e || idx.chunks[drop + 1].times[0] > horizon)
+                    break;
+                drop++;
+            }
+            if (drop == 0) {
+                return 0;
+            }
+            if (index.compareAndSet(idx, idx.without(drop))) {
+                return (long) drop << CHUNK_BITS;
+            }
+        }
+    }
+
+    // compacts on a daemon thread every interval
+    public synchronized void startCompaction(Duration retention, Duration interval) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "policy-history-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = interval.toMillis();
+        compactor.scheduleWithFixedDelay(() -> compact(retention), ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            compactor = null;
+        }
+    }
+
+    private static long time(Index idx, long i) {
+        return idx.chunks[(int) ((i >>> CHUNK_BITS) - idx.firstChunk)].times[(int) (i & (CHUNK_SIZE - 1))];
+    }
+
+    private static PolicySnapshot snapshot(Index idx, long i) {
+        return idx.chunks[(int) ((i >>> CHUNK_BITS) - idx.firstChunk)].snapshots[(int) (i & (CHUNK_SIZE - 1))];
+    }
+
+    private static final class Chunk {
+        final long[] times = new long[CHUNK_SIZE];
+        final PolicySnapshot[] snapshots = new PolicySnapshot[CHUNK_SIZE];
+    }
+
+    // immutable list of live chunks, chunks[i] holds entries from (firstChunk + i) * CHUNK_SIZE
+    private static final class Index {
+        final long firstChunk;
+        final Chunk[] chunks;
+
+        Index(long firstChunk, Chunk[] chunks) {
+            this.firstChunk = firstChunk;
+            this.chunks = chunks;
+        }
+
+        Index with(Chunk chunk) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = chunk;
+            return new Index(firstChunk, grown);
+        }
+
+        Index without(int drop) {
+            return new Index(firstChunk + drop, Arrays.copyOfRange(chunks, drop, chunks.length));
+        }
+    }
+}
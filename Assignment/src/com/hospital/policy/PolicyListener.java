@@ -0,0 +1,7 @@
+package com.hospital.policy;
+
+// called once per published policy version, on the writer's thread after it released the lock
+@FunctionalInterface
+public interface PolicyListener {
+    void policyChanged(PolicySnapshot snapshot);
+}
@@ -0,0 +1,50 @@
+package com.hospital.policy;
+
+/*
+ * One immutable version of the hospital policy.
+ *
+ * A new version is a new object (copy-on-write), so a reader holding a snapshot always
+ * sees a consistent set of fields, however many are added here later. Versions start
+ * at 0 and go up by one per published change.
+ */
+public final class PolicySnapshot {
+    public static final PolicySnapshot INITIAL = new PolicySnapshot(0, "NORMAL", System.currentTimeMillis(), System.nanoTime());
+
+    private final long version;
+    private final String mode; // NORMAL, URGENT_PRIORITY, MAINTENANCE
+    private final long updatedAt; // wall clock millis, like TestOrder.createdAt
+    private final long updatedNanos; // System.nanoTime() at publication, for notification latency
+
+    public PolicySnapshot(long version, String mode, long updatedAt, long updatedNanos) {
+        this.version = version;
+        this.mode = mode;
+        this.updatedAt = updatedAt;
+        this.updatedNanos = updatedNanos;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getUpdatedNanos() {
+        return updatedNanos;
+    }
+
+    // the version that follows this one
+    public PolicySnapshot withMode(String newMode) {
+        return new PolicySnapshot(version + 1, newMode, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    @Override
+    public String toString() {
+        return mode + "@v" + version;
+    }
+}
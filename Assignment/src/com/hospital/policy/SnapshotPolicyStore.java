@@ -0,0 +1,110 @@
+package com.hospital.policy;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import com.hospital.spi.ObservablePolicyStore;
+
+/*
+ * Lock-free policy store: the current PolicySnapshot is published through an
+ * AtomicReference.
+ *
+ * Readers do a single volatile load and get a consistent, immutable view - no lock,
+ * no shared write. Writers build the next version and compare-and-swap it in, retrying
+ * if another writer got there first, so versions are never lost or duplicated. Each
+ * version is exactly one more than the one it replaced, so the notifier can put the
+ * hand-offs of two racing writers back in version order itself - the history and the
+ * awaitChange() waiters get every version, in order, without a lock around the CAS.
+ * Writing the mode that is already in force publishes nothing.
+ *
+ * The startRead / endRead / startWrite / endWrite bracket is kept for the roles but
+ * does nothing - every getPolicy() and setPolicy() is atomic on its own.
+ * Every published version is also pushed to the change subscribers.
+ */
+public class SnapshotPolicyStore implements ObservablePolicyStore {
+    private final AtomicReference<PolicySnapshot> current;
+    private final PolicyChangeNotifier changes;
+
+    public SnapshotPolicyStore() {
+        this(PolicySnapshot.INITIAL);
+    }
+
+    public SnapshotPolicyStore(PolicySnapshot initial) {
+        this.current = new AtomicReference<>(initial);
+        this.changes = new PolicyChangeNotifier(initial);
+    }
+
+    // continues a restored history (oldest first), the last entry is the current policy
+    public SnapshotPolicyStore(List<PolicySnapshot> history) {
+        this.current = new AtomicReference<>(history.get(history.size() - 1));
+        this.changes = new PolicyChangeNotifier(history);
+    }
+
+    @Override
+    public PolicySnapshot snapshot() {
+        return current.get();
+    }
+
+    // publishes next only if expected is still current, false if another writer won.
+    // next must be the version right after expected (withMode), see class comment
+    public boolean compareAndSet(PolicySnapshot expected, PolicySnapshot next) {
+        if (next.getVersion() != expected.getVersion() + 1) {
+            throw new IllegalArgumentException(next + " does not follow " + expected);
+        }
+        if (!current.compareAndSet(expected, next)) {
+            return false;
+        }
+        changes.published(next); // may overtake a slower writer's earlier version
+        changes.fire(next);
+        return true;
+    }
+
+    // applies the change to the latest version until the CAS succeeds, returns what was
+    // published - or the current version if the change returned it unchanged
+    public PolicySnapshot update(UnaryOperator<PolicySnapshot> change) {
+        while (true) {
+            PolicySnapshot prev = current.get();
+            PolicySnapshot next = change.apply(prev);
+            if (next == prev) {
+                return prev;
+            }
+            if (compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    public PolicySnapshot publish(String mode) {
+        return update(s -> s.getMode().equals(mode) ? s : s.withMode(mode));
+    }
+
+    public PolicyChangeNotifier changes() {
+        return changes;
+    }
+
+    @Override
+    public String readPolicy() {
+        return current.get().getMode();
+    }
+
+    public void startRead() {
+    }
+
+    public void endRead() {
+    }
+
+    public void startWrite() {
+    }
+
+    public void endWrite() {
+    }
+
+    public String getPolicy() {
+        return current.get().getMode();
+    }
+
+    public void setPolicy(String policy) {
+        publish(policy);
+    }
+}
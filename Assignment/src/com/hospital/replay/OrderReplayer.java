@@ -0,0 +1,106 @@
+package com.hospital.replay;
+
+import com.hospital.load.OrderSource;
+import com.hospital.log.Log;
+import com.hospital.log.LogEvent;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Feeds a recorded order stream into a queue, open loop like OpenLoopGenerator.
+ *
+ * speed 1 replays in real time, 10 ten times faster, 0 (MAX) as fast as the queue takes
+ * them. Every order gets the scaled recorded arrival as its intended time, so latency
+ * reports stay honest when the queue falls behind.
+ */
+public class OrderReplayer implements OrderSource {
+    public static final double MAX = 0;
+
+    private final OrderQueue queue;
+    private final Path file;
+    private final double speed;
+    private final boolean logOrders; // per-order log lines, off when benchmarking the replay itself
+    private volatile boolean running = true;
+
+    private long sent = 0;
+    private long maxLagNanos = 0;
+    private long elapsedNanos = 0;
+
+    public OrderReplayer(OrderQueue queue, Path file, double speed) {
+        this(queue, file, speed, true);
+    }
+
+    public OrderReplayer(OrderQueue queue, Path file, double speed, boolean logOrders) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed must be >= 0");
+        }
+        this.queue = queue;
+        this.file = file;
+        this.speed = speed;
+        this.logOrders = logOrders;
+    }
+
+    // "max" or a factor such as 1, 10
+    public static double parseSpeed(String speed) {
+        return speed.equalsIgnoreCase("max") ? MAX : Double.parseDouble(speed.replace("x", ""));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        try (OrderStreamReader reader = new OrderStreamReader(file)) {
+            while (running && reader.next()) {
+                long intended = speed == MAX ? System.nanoTime() : start + (long) (reader.offsetNanos() / speed);
+                if (speed != MAX) {
+                    long now;
+                    while ((now = System.nanoTime()) < intended) {
+                        LockSupport.parkNanos(intended - now);
+                        if (!running || Thread.currentThread().isInterrupted()) {
+                            break;
+                        }
+                    }
+                    if (!running || Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                }
+                TestOrder order = new TestOrder(reader.clinic(), reader.patientId(), reader.testType(), reader.priority());
+                order.setIntendedNanos(intended);
+                maxLagNanos = Math.max(maxLagNanos, order.getCreatedNanos() - intended);
+                if (logOrders)
+                    Log.event(LogEvent.CREATED, reader.clinic(), order);
+                queue.put(order);
+                if (logOrders)
+                    Log.event(LogEvent.QUEUED, reader.clinic(), order);
+                sent++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            elapsedNanos = System.nanoTime() - start; // stopped or interrupted too, the summary divides by it
+        }
+        if (logOrders)
+            Log.event(LogEvent.STOPPED, "Replayer", null);
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    @Override
+    public String summary() {
+        return String.format("replay of %s at %s: %d orders in %.1f ms, max %.3f ms behind schedule",
+                file.getFileName(), speed == MAX ? "max speed" : speed + "x", sent, elapsedNanos / 1e6, maxLagNanos / 1e6);
+    }
+}
@@ -0,0 +1,116 @@
+package com.hospital.replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Reads a file written by OrderStreamWriter, one record at a time.
+ *
+ * The file is memory mapped and next() decodes straight out of the mapping into this
+ * object's fields (a flyweight), so scanning allocates nothing but the patient id.
+ * Single threaded - one reader per replaying thread.
+ */
+public class OrderStreamReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<String> strings = new ArrayList<>();
+
+    private boolean started = false;
+    private long offsetNanos; // arrival time relative to the first order, may dip below 0
+    private String clinic;
+    private String testType;
+    private int priority;
+    private String patientId;
+
+    public OrderStreamReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException(file + " is larger than 2GB, split the recording");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < 5 || buffer.getInt() != OrderStreamWriter.MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not an order recording");
+        }
+        byte version = buffer.get();
+        if (version != OrderStreamWriter.VERSION) {
+            channel.close();
+            throw new IOException(file + " has unsupported version " + version);
+        }
+    }
+
+    // advances to the next order, false at the end of the file
+    public boolean next() throws IOException {
+        while (buffer.hasRemaining()) {
+            byte tag = buffer.get();
+            switch (tag) {
+                case OrderStreamWriter.TAG_STRING: {
+                    byte[] bytes = new byte[(int) readVarLong()];
+                    buffer.get(bytes);
+                    strings.add(new String(bytes, StandardCharsets.UTF_8));
+                    break;
+                }
+                case OrderStreamWriter.TAG_ORDER:
+                case OrderStreamWriter.TAG_ORDER_ID: {
+                    long zigzag = readVarLong();
+                    long delta = (zigzag >>> 1) ^ -(zigzag & 1);
+                    offsetNanos = started ? offsetNanos + delta : 0;
+                    started = true;
+                    clinic = strings.get((int) readVarLong());
+                    testType = strings.get((int) readVarLong());
+                    priority = buffer.get();
+                    long patient = readVarLong();
+                    patientId = tag == OrderStreamWriter.TAG_ORDER ? clinic + "-P" + patient : strings.get((int) patient);
+                    return true;
+                }
+                default:
+                    throw new IOException("corrupt recording: tag " + tag + " at byte " + (buffer.position() - 1));
+            }
+        }
+        return false;
+    }
+
+    public long offsetNanos() {
+        return offsetNanos;
+    }
+
+    public String clinic() {
+        return clinic;
+    }
+
+    public String testType() {
+        return testType;
+    }
+
+    public int priority() {
+        return priority;
+    }
+
+    public String patientId() {
+        return patientId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long readVarLong() {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+}
@@ -0,0 +1,149 @@
+package com.hospital.replay;
+
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Writes a stream of order arrivals to a compact binary file.
+ *
+ * Format (all integers are unsigned LEB128 varints unless noted):
+ *   header   int MAGIC (big endian), byte VERSION
+ *   string   TAG_STRING, length, UTF-8 bytes          - appends to the string table
+ *   order    TAG_ORDER, zigzag(time delta ns), clinic index, test type index,
+ *            priority byte, patient number            - patient id is "<clinic>-P<number>"
+ *   order    TAG_ORDER_ID, ..same.., patient id string index
+ *
+ * Clinics and test types are a handful of strings, so each is written once and then
+ * referenced by index - a typical order is 7-9 bytes. Time deltas are signed because
+ * producers racing on put() can record slightly out of order.
+ *
+ * write() is synchronized, so one writer can be shared by every producer.
+ */
+public class OrderStreamWriter implements AutoCloseable {
+    static final int MAGIC = 0x484F5352; // "HOSR"
+    static final byte VERSION = 1;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_ORDER = 2;
+    static final byte TAG_ORDER_ID = 3;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position = 0;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private long lastNanos;
+    private boolean first = true;
+    private long count = 0;
+
+    public OrderStreamWriter(Path file) throws IOException {
+        this.out = Files.newOutputStream(file);
+        writeInt(MAGIC);
+        buffer[position++] = VERSION;
+    }
+
+    // records the order at its arrival (intended) time
+    public synchronized void write(TestOrder order) throws IOException {
+        write(order.getIntendedNanos(), order.getClinic(), order.getTestType(), order.getPriority(), order.getPatientId());
+    }
+
+    public synchronized void write(long arrivalNanos, String clinic, String testType, int priority, String patientId)
+            throws IOException {
+        int clinicIndex = stringIndex(clinic);
+        int typeIndex = stringIndex(testType);
+        long patientNumber = patientNumber(clinic, patientId);
+        int patientIndex = patientNumber < 0 ? stringIndex(patientId) : -1;
+
+        ensureRoom(32);
+        buffer[position++] = patientNumber < 0 ? TAG_ORDER_ID : TAG_ORDER;
+        long delta = first ? 0 : arrivalNanos - lastNanos;
+        first = false;
+        lastNanos = arrivalNanos;
+        writeVarLong((delta << 1) ^ (delta >> 63)); // zigzag, small negatives stay small
+        writeVarLong(clinicIndex);
+        writeVarLong(typeIndex);
+        buffer[position++] = (byte) priority;
+        writeVarLong(patientNumber < 0 ? patientIndex : patientNumber);
+        count++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    // "<clinic>-P<n>" -> n, anything else -> -1 (stored as a string)
+    private static long patientNumber(String clinic, String patientId) {
+        int prefix = clinic.length() + 2;
+        if (patientId.length() <= prefix || patientId.length() > prefix + 18 || !patientId.startsWith(clinic)
+                || patientId.charAt(clinic.length()) != '-' || patientId.charAt(clinic.length() + 1) != 'P'
+                || patientId.charAt(prefix) == '0') {
+            return -1;
+        }
+        long n = 0;
+        for (int i = prefix; i < patientId.length(); i++) {
+            char c = patientId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private int stringIndex(String s) throws IOException {
+        Integer index = strings.get(s);
+        if (index != null) {
+            return index;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        ensureRoom(bytes.length + 6);
+        buffer[position++] = TAG_STRING;
+        writeVarLong(bytes.length);
+        if (bytes.length > buffer.length - position) { // longer than the buffer itself
+            flushBuffer();
+            out.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+        strings.put(s, strings.size());
+        return strings.size() - 1;
+    }
+
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    private void writeInt(int v) {
+        buffer[position++] = (byte) (v >>> 24);
+        buffer[position++] = (byte) (v >>> 16);
+        buffer[position++] = (byte) (v >>> 8);
+        buffer[position++] = (byte) v;
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
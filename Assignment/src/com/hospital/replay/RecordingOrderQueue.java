@@ -0,0 +1,50 @@
+package com.hospital.replay;
+
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.PriorityOrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// decorator that records every order arriving at the wrapped queue. It passes priority
+// dispatch through (takeHighestPriority() is a plain take() if the wrapped queue has none)
+public class RecordingOrderQueue implements PriorityOrderQueue {
+    private final OrderQueue delegate;
+    private final OrderStreamWriter writer;
+
+    public RecordingOrderQueue(OrderQueue delegate, OrderStreamWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public void put(TestOrder order) throws InterruptedException {
+        // a drain's END markers and a lease queue's redeliveries are not arrivals
+        if (!order.isEndMarker() && !order.isRedelivered()) {
+            try {
+                writer.write(order); // the arrival, before any blocking on a full queue
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        delegate.put(order);
+    }
+
+    @Override
+    public TestOrder take() throws InterruptedException {
+        return delegate.take();
+    }
+
+    @Override
+    public TestOrder takeHighestPriority() throws InterruptedException {
+        return delegate instanceof PriorityOrderQueue
+                ? ((PriorityOrderQueue) delegate).takeHighestPriority()
+                : delegate.take();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.hospital.replication;
+
+import com.hospital.spi.AckOrderQueue;
+import com.hospital.spi.Delivery;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.PriorityOrderQueue;
+import com.hospital.spi.TestOrder;
+
+/*
+ * Decorator that mirrors the wrapped queue to a standby: every put is replicated as
+ * ENQUEUE, every ack of a finished analysis as ACK. Leasing an order replicates nothing,
+ * so an order being analyzed when the primary dies is still pending on the standby and
+ * is analyzed again there (at least once, never lost). A plain take() removes the order
+ * for good and is replicated as its ACK.
+ *
+ * The analyzers lease and ack through AckOrderQueue; lease / ack / release go on to the
+ * wrapped queue if it has lease semantics too.
+ */
+public class ReplicatedOrderQueue implements AckOrderQueue {
+    private final OrderQueue delegate;
+    private final ReplicationStream stream;
+
+    public ReplicatedOrderQueue(OrderQueue delegate, ReplicationStream stream) {
+        this.delegate = delegate;
+        this.stream = stream;
+    }
+
+    @Override
+    public void put(TestOrder order) throws InterruptedException {
+        // recorded before the put, so the standby always sees ENQUEUE before its ACK.
+        // A crash while put() blocks leaves the order on the standby although the client
+        // got no ack - it may arrive twice (at least once, never lost). A drain's end
+        // markers are not orders, the standby never hears of them
+        if (!order.isEndMarker())
+            stream.enqueued(order);
+        delegate.put(order);
+    }
+
+    @Override
+    public TestOrder take() throws InterruptedException {
+        TestOrder order = delegate.take();
+        acked(order);
+        return order;
+    }
+
+    @Override
+    public Delivery lease() throws InterruptedException {
+        if (delegate instanceof AckOrderQueue)
+            return ((AckOrderQueue) delegate).lease();
+        TestOrder order = delegate.take();
+        return () -> order;
+    }
+
+    @Override
+    public Delivery leaseHighestPriority() throws InterruptedException {
+        if (delegate instanceof AckOrderQueue)
+            return ((AckOrderQueue) delegate).leaseHighestPriority();
+        TestOrder order = delegate instanceof PriorityOrderQueue
+                ? ((PriorityOrderQueue) delegate).takeHighestPriority()
+                : delegate.take();
+        return () -> order;
+    }
+
+    @Override
+    public void ack(Delivery delivery) {
+        if (delegate instanceof AckOrderQueue)
+            ((AckOrderQueue) delegate).ack(delivery);
+        acked(delivery.order());
+    }
+
+    // not finished: no ACK, the standby keeps it pending. Without leases underneath the
+    // order is gone here, as before
+    @Override
+    public void release(Delivery delivery) {
+        if (delegate instanceof AckOrderQueue)
+            ((AckOrderQueue) delegate).release(delivery);
+    }
+
+    private void acked(TestOrder order) {
+        if (order.isEndMarker())
+            return;
+        try {
+            stream.acked(order);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // record dropped - the standby would analyze it again
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
@@ -0,0 +1,216 @@
+package com.hospital.replication;
+
+import com.hospital.spi.TestOrder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Primary side of the queue replication: streams ENQUEUE / ACK records to a standby
+ * (StandbyNode) over loopback. An order stays pending on the standby from its ENQUEUE
+ * until the analyzer acks the finished analysis - queued and in-flight orders alike.
+ *
+ * Record format (big endian):
+ *   ENQUEUE   byte 1, int orderId, byte priority, clinic, patient id, test type
+ *             (strings: unsigned short length + UTF-8, longer ones are rejected)
+ *   ACK       byte 2, int orderId         analysis completed
+ *   HEARTBEAT byte 3                      sent when idle, so a standby can tell quiet from dead
+ *   GOODBYE   byte 4                      last record, close() - a clean shutdown, not a loss
+ *   standby -> primary: long records applied (cumulative)
+ *
+ * Batched and pipelined: callers append to one buffer under a short lock while the
+ * sender thread writes the other one to the socket, then the two swap. An idle sender
+ * is woken by the first record and lingers 200 us before the swap, so the records of a
+ * burst share one write. Nobody waits
+ * for the standby - replication is asynchronous, the records not yet applied at a crash
+ * (getLag) are the window of loss. Appenders only block if a whole buffer is waiting
+ * to be sent. If the standby goes away the primary carries on unreplicated.
+ */
+public class ReplicationStream implements AutoCloseable {
+    static final byte ENQUEUE = 1;
+    static final byte ACK = 2;
+    static final byte HEARTBEAT = 3;
+    static final byte GOODBYE = 4;
+    static final int MAX_STRING = 0xFFFF;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long HEARTBEAT_MS = 100;
+    private static final long LINGER_NANOS = 200_000; // lets a batch build up before it is sent
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final Thread sender;
+    private final Thread ackReader;
+    private ByteBuffer filling = ByteBuffer.allocate(BUFFER_SIZE); // guarded by this
+    private ByteBuffer sending = ByteBuffer.allocate(BUFFER_SIZE); // sender thread only
+    private final Map<String, byte[]> names = new HashMap<>(); // encoded clinic / test type names, guarded by this
+    private boolean running = true; // guarded by this
+    private boolean idle = false; // sender waiting for the first record, guarded by this
+    private volatile boolean failed = false;
+
+    private long appended = 0; // records, guarded by this
+    private volatile long applied = 0; // acked by the standby
+    private long batches = 0; // sender thread only
+    private long maxLag = 0; // guarded by this
+
+    public ReplicationStream(int standbyPort) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), standbyPort);
+        socket.setTcpNoDelay(true);
+        this.out = socket.getOutputStream();
+        this.sender = new Thread(this::send, "replication-sender");
+        this.ackReader = new Thread(this::readAcks, "replication-acks");
+        sender.setDaemon(true);
+        ackReader.setDaemon(true);
+        sender.start();
+        ackReader.start();
+    }
+
+    public void enqueued(TestOrder order) throws InterruptedException {
+        byte[] patientId = order.getPatientId().getBytes(StandardCharsets.UTF_8);
+        if (patientId.length > MAX_STRING)
+            throw new IllegalArgumentException("patient id longer than " + MAX_STRING + " bytes");
+        synchronized (this) {
+            byte[] clinic = name(order.getClinic());
+            byte[] testType = name(order.getTestType());
+            if (!ensureRoom(1 + 4 + 1 + 3 * 2 + clinic.length + patientId.length + testType.length))
+                return;
+            int start = filling.position();
+            filling.put(ENQUEUE);
+            filling.putInt(order.getOrderId());
+            filling.put((byte) order.getPriority());
+            putString(clinic);
+            putString(patientId);
+            putString(testType);
+            appended(start);
+        }
+    }
+
+    public synchronized void acked(TestOrder order) throws InterruptedException {
+        if (!ensureRoom(1 + 4))
+            return;
+        int start = filling.position();
+        filling.put(ACK);
+        filling.putInt(order.getOrderId());
+        appended(start);
+    }
+
+    // false if replication has failed - the record is dropped
+    private boolean ensureRoom(int size) throws InterruptedException {
+        while (!failed && filling.remaining() < size)
+            wait(); // the sender is still writing the other buffer
+        return !failed;
+    }
+
+    private void appended(int start) {
+        appended++;
+        maxLag = Math.max(maxLag, appended - applied);
+        if (start == 0 && idle)
+            notifyAll(); // first record of a batch - wake the sender
+    }
+
+    private void putString(byte[] s) {
+        filling.putShort((short) s.length);
+        filling.put(s);
+    }
+
+    private byte[] name(String s) {
+        byte[] b = names.computeIfAbsent(s, k -> k.getBytes(StandardCharsets.UTF_8));
+        if (b.length > MAX_STRING)
+            throw new IllegalArgumentException("name longer than " + MAX_STRING + " bytes");
+        return b;
+    }
+
+    private void send() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (filling.position() == 0 && running) {
+                        idle = true;
+                        wait(HEARTBEAT_MS);
+                        idle = false;
+                    }
+                }
+                LockSupport.parkNanos(LINGER_NANOS); // a write per record would cost the intake more than the records
+                boolean last = false;
+                synchronized (this) {
+                    if (!running && filling.hasRemaining()) {
+                        filling.put(GOODBYE); // behind everything still buffered
+                        last = true;
+                    } else if (filling.position() == 0) {
+                        filling.put(HEARTBEAT);
+                    }
+                    ByteBuffer full = filling; // swap - appenders carry on in the empty one
+                    filling = sending;
+                    sending = full;
+                    notifyAll();
+                }
+                out.write(sending.array(), 0, sending.position());
+                out.flush();
+                sending.clear();
+                batches++;
+                if (last)
+                    break;
+            }
+        } catch (IOException e) {
+            System.err.println("replication to standby failed, continuing unreplicated: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            failed = true;
+            synchronized (this) {
+                notifyAll(); // appenders waiting for room give up
+            }
+        }
+    }
+
+    private void readAcks() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true)
+                applied = in.readLong();
+        } catch (IOException e) {
+            // standby gone or closed
+        }
+    }
+
+    // sends what is buffered and a GOODBYE, so the standby stops instead of promoting, and
+    // closes the connection
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            sender.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        socket.close();
+    }
+
+    public synchronized long getAppended() {
+        return appended;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    // records appended but not yet applied by the standby - lost if we crash now
+    public synchronized long getLag() {
+        return appended - applied;
+    }
+
+    public synchronized String summary() {
+        return String.format("replication: %d records, %d applied by standby, max lag %d records%s", appended, applied,
+                maxLag, failed && running ? " (standby lost)" : "");
+    }
+}
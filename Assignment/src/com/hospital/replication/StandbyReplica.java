@@ -0,0 +1,144 @@
+package com.hospital.replication;
+
+import com.hospital.spi.TestOrder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Standby side of the queue replication: accepts one primary on a loopback port and
+ * applies its ReplicationStream to a copy of the pending orders (insertion order =
+ * enqueue order). follow() returns when the primary is gone - connection reset or
+ * closed without a GOODBYE (a killed process's socket is closed by the OS), or no
+ * record (not even a heartbeat) for the timeout - and pending() is then every order
+ * the primary had not finished (queued or being analyzed), ready to be put into a
+ * fresh queue. A primary that shuts down cleanly sends a GOODBYE first, follow() then
+ * returns false: nothing to take over.
+ */
+public class StandbyReplica implements AutoCloseable {
+    private final ServerSocket listener;
+    private final Map<Integer, TestOrder> pending = new LinkedHashMap<>(); // primary order id -> copy
+    private final Map<String, String> names = new HashMap<>(); // interned clinic / test type names
+    private final byte[] scratch = new byte[ReplicationStream.MAX_STRING];
+    private long applied = 0;
+    private long heartbeats = 0;
+    private String endReason = "not started";
+    private long endNanos; // when follow() noticed the end
+
+    public StandbyReplica(int port) throws IOException {
+        this.listener = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return listener.getLocalPort();
+    }
+
+    // blocks until a primary connects and then until it goes away. True if it was lost,
+    // false if it said goodbye
+    public boolean follow(int timeoutMs) throws IOException {
+        try (Socket socket = listener.accept()) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMs);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            DataOutputStream ack = new DataOutputStream(socket.getOutputStream());
+            try {
+                while (apply(in)) {
+                    if (in.available() == 0) { // end of a batch - tell the primary how far we are
+                        ack.writeLong(applied);
+                        ack.flush();
+                    }
+                }
+                endNanos = System.nanoTime();
+                endReason = "primary shut down";
+                return false;
+            } catch (EOFException e) {
+                endReason = "primary closed the connection without a goodbye";
+            } catch (SocketTimeoutException e) {
+                endReason = "no heartbeat for " + timeoutMs + " ms";
+            } catch (IOException e) {
+                endReason = "connection lost: " + e.getMessage();
+            }
+            endNanos = System.nanoTime();
+            return true;
+        }
+    }
+
+    // false once the primary says goodbye
+    private boolean apply(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ReplicationStream.ENQUEUE:
+                int orderId = in.readInt();
+                int priority = in.readByte();
+                String clinic = name(in);
+                String patientId = string(in);
+                String testType = name(in);
+                pending.put(orderId, new TestOrder(clinic, patientId, testType, priority));
+                break;
+            case ReplicationStream.ACK:
+                pending.remove(in.readInt());
+                break;
+            case ReplicationStream.HEARTBEAT:
+                heartbeats++;
+                return true;
+            case ReplicationStream.GOODBYE:
+                return false;
+            default:
+                throw new IOException("corrupt replication stream, record type " + type);
+        }
+        applied++;
+        return true;
+    }
+
+    private String string(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        in.readFully(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String name(DataInputStream in) throws IOException {
+        String s = string(in);
+        String known = names.putIfAbsent(s, s);
+        return known != null ? known : s;
+    }
+
+    // orders the primary took in but had not acked, oldest first
+    public List<TestOrder> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getHeartbeats() {
+        return heartbeats;
+    }
+
+    public String getEndReason() {
+        return endReason;
+    }
+
+    // System.nanoTime() when follow() noticed the primary was gone - after the timeout, if that was it
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        listener.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hospital.spi;
+
+/*
+ * A queue with lease semantics: lease() does not remove the order for good, it hides it
+ * for a visibility timeout. The analyzer must ack() the delivery once the analysis is
+ * done, release() hands it back at once (e.g. interrupted mid-analysis). An order that
+ * is neither acked nor released in time is delivered again - at least once, so an
+ * analyzer that was only slow may see its ack come too late (the order ran twice).
+ *
+ * take() stays a plain take: the order is removed for good, there is nothing to ack.
+ */
+public interface AckOrderQueue extends OrderQueue {
+    Delivery lease() throws InterruptedException;
+
+    // lease() of the most urgent order (see PriorityOrderQueue), a plain lease() if the
+    // queue has no priority order
+    Delivery leaseHighestPriority() throws InterruptedException;
+
+    void ack(Delivery delivery);
+
+    void release(Delivery delivery);
+}
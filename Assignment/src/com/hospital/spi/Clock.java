@@ -0,0 +1,13 @@
+package com.hospital.spi;
+
+/*
+ * Source of the nanosecond stamps on a TestOrder.
+ * Threaded runs use the real System.nanoTime(), the discrete-event simulator
+ * (com.hospital.des) hands in its virtual clock instead.
+ */
+@FunctionalInterface
+public interface Clock {
+    Clock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
@@ -0,0 +1,10 @@
+package com.hospital.spi;
+
+/*
+ * One hand-out of an order by an AckOrderQueue - what ack() / release() settle.
+ * A redelivery is a new Delivery of the same order, so an analyzer whose lease expired
+ * cannot settle the lease of the analyzer working on the redelivery.
+ */
+public interface Delivery {
+    TestOrder order();
+}
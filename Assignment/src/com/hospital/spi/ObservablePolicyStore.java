@@ -0,0 +1,36 @@
+package com.hospital.spi;
+
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.policy.PolicyHistory;
+import com.hospital.policy.PolicyListener;
+import com.hospital.policy.PolicySnapshot;
+
+/*
+ * A policy store that versions its changes and pushes them to subscribers,
+ * see PolicyChangeNotifier. A new version is published when a write changes the mode.
+ */
+public interface ObservablePolicyStore extends PolicyStore {
+    PolicyChangeNotifier changes();
+
+    // latest published version, without taking the read lock
+    default PolicySnapshot snapshot() {
+        return changes().latest();
+    }
+
+    default PolicySnapshot awaitChange(long sinceVersion, long timeoutMs) throws InterruptedException {
+        return changes().awaitChange(sinceVersion, timeoutMs);
+    }
+
+    // every version with its timestamp, for policyAt(instant) audits
+    default PolicyHistory history() {
+        return changes().history();
+    }
+
+    default void addListener(PolicyListener listener) {
+        changes().addListener(listener);
+    }
+
+    default void removeListener(PolicyListener listener) {
+        changes().removeListener(listener);
+    }
+}
@@ -0,0 +1,15 @@
+package com.hospital.spi;
+
+/*
+ * Bounded buffer between clinics (producers) and analyzers (consumers).
+ * Every queue strategy implements this, the roles and the simulator only see this type.
+ */
+public interface OrderQueue {
+    // blocks while the queue is full
+    void put(TestOrder order) throws InterruptedException;
+
+    // blocks while the queue is empty
+    TestOrder take() throws InterruptedException;
+
+    int size();
+}
@@ -0,0 +1,19 @@
+package com.hospital.spi;
+
+/*
+ * Service provider for a queue strategy, discovered with ServiceLoader.
+ * Register implementations in module-info (provides) and META-INF/services.
+ */
+public interface OrderQueueProvider {
+    // short name used on the command line, e.g. "synchronized"
+    String name();
+
+    String description();
+
+    OrderQueue create(int capacity, boolean fair);
+
+    // false if the fair flag is ignored, so benchmarks can skip the duplicate run
+    default boolean supportsFairness() {
+        return true;
+    }
+}
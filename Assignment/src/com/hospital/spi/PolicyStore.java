@@ -0,0 +1,48 @@
+package com.hospital.spi;
+
+/*
+ * Shared policy guarded by a reader / writer protocol.
+ * Auditors bracket getPolicy() with startRead / endRead, supervisors bracket
+ * setPolicy() with startWrite / endWrite.
+ * Whoever creates a store closes it - only stores holding something outside the heap
+ * (a mapped file) do anything on close().
+ */
+public interface PolicyStore extends AutoCloseable {
+    void startRead() throws InterruptedException;
+
+    void endRead();
+
+    void startWrite() throws InterruptedException;
+
+    void endWrite();
+
+    String getPolicy();
+
+    void setPolicy(String policy);
+
+    // one complete read. Stores that can read without the bracket (optimistic reads)
+    // override this, so callers that only need the value should prefer it
+    default String readPolicy() throws InterruptedException {
+        startRead();
+        try {
+            return getPolicy();
+        } finally {
+            endRead();
+        }
+    }
+
+    // one complete write. Stores that batch concurrent writers (flat combining) override
+    // this, so supervisors that only replace the value should prefer it
+    default void writePolicy(String policy) throws InterruptedException {
+        startWrite();
+        try {
+            setPolicy(policy);
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,33 @@
+package com.hospital.spi;
+
+import java.util.Map;
+
+/*
+ * Service provider for a policy reader / writer strategy, discovered with ServiceLoader.
+ * Register implementations in module-info (provides) and META-INF/services.
+ */
+public interface PolicyStoreProvider {
+    // short name used on the command line, e.g. "handRolled"
+    String name();
+
+    String description();
+
+    PolicyStore create(boolean fair);
+
+    // with provider-specific settings, e.g. "file" for persistent (Simulator --policyFile).
+    // Providers ignore the keys they don't know, so callers need not check which one runs
+    default PolicyStore create(boolean fair, Map<String, String> options) {
+        return create(fair);
+    }
+
+    // one of several stores side by side, e.g. one per department (DepartmentPolicyMap).
+    // Stores that keep state outside the process must keep each key's apart
+    default PolicyStore create(boolean fair, String key, Map<String, String> options) {
+        return create(fair, options);
+    }
+
+    // false if the fair flag is ignored, so benchmarks can skip the duplicate run
+    default boolean supportsFairness() {
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.hospital.spi;
+
+/*
+ * A queue that can also hand out the most urgent order first.
+ * take() stays FIFO, takeHighestPriority() returns the oldest order of the lowest
+ * priority number (P1 before P2 before P3).
+ */
+public interface PriorityOrderQueue extends OrderQueue {
+    TestOrder takeHighestPriority() throws InterruptedException;
+}
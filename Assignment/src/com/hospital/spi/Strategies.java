@@ -0,0 +1,45 @@
+package com.hospital.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+// looks up the installed queue and policy strategies by name
+public final class Strategies {
+    private Strategies() {
+    }
+
+    public static List<OrderQueueProvider> queues() {
+        List<OrderQueueProvider> providers = new ArrayList<>();
+        ServiceLoader.load(OrderQueueProvider.class).forEach(providers::add);
+        return providers;
+    }
+
+    public static List<PolicyStoreProvider> policies() {
+        List<PolicyStoreProvider> providers = new ArrayList<>();
+        ServiceLoader.load(PolicyStoreProvider.class).forEach(providers::add);
+        return providers;
+    }
+
+    public static OrderQueueProvider queue(String name) {
+        List<String> names = new ArrayList<>();
+        for (OrderQueueProvider p : queues()) {
+            if (p.name().equalsIgnoreCase(name)) {
+                return p;
+            }
+            names.add(p.name());
+        }
+        throw new IllegalArgumentException("unknown queue strategy '" + name + "', available: " + names);
+    }
+
+    public static PolicyStoreProvider policy(String name) {
+        List<String> names = new ArrayList<>();
+        for (PolicyStoreProvider p : policies()) {
+            if (p.name().equalsIgnoreCase(name)) {
+                return p;
+            }
+            names.add(p.name());
+        }
+        throw new IllegalArgumentException("unknown policy strategy '" + name + "', available: " + names);
+    }
+}
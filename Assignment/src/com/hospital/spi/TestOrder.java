@@ -0,0 +1,164 @@
+package com.hospital.spi;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * This is the object of this class will be put to bounded buffer by the producer
+ * consumed by the consumer 
+ * Represents a test request 
+ */
+public class TestOrder {
+    private static final AtomicInteger counter = new AtomicInteger(); // one instance per class for the order id
+    // atomic - clinics, replayers and intake threads create orders concurrently
+
+    private final int orderId;
+    private final String clinic; // clinic / department that created the order
+    private final String patientId;
+    private final String testType; // better solution can be an ENUM for the test type
+    private final int priority; // better solution can be an ENUM can be used 
+    private final long createdAt; // to measure various metrics related to timing 
+    // This one is to keep track of time at which order (Test Request) was created 
+
+    private final Clock clock; // System.nanoTime() unless the order lives in a simulation
+
+    // lifecycle stamps from System.nanoTime() - monotonic, only valid as differences
+    // each stamp is written by the thread that owns the order at that point, the queue
+    // hand-off (lock release / acquire) makes it visible to the next owner
+    private final long createdNanos;
+    private long intendedNanos; // when the order was supposed to arrive, open-loop runs set it
+    private long queuedNanos;
+    private long dequeuedNanos;
+    private long analysisStartNanos;
+    private volatile long completedNanos; // written last - status queries from other threads read it first
+    private boolean redelivered; // put back by a lease queue, not a new arrival
+    private boolean endMarker; // a shutdown drain's stop marker, not an order
+
+    public TestOrder(String patientId, String testType, int priority) {
+        this("Unknown", patientId, testType, priority);
+    }
+
+    public TestOrder(String clinic, String patientId, String testType, int priority) {
+        this(Clock.SYSTEM, clinic, patientId, testType, priority);
+    }
+
+    public TestOrder(Clock clock, String clinic, String patientId, String testType, int priority) {
+        this.orderId = counter.incrementAndGet();
+        this.clock = clock;
+        this.clinic = clinic;
+        this.patientId = patientId;
+        this.testType = testType;
+        this.priority = priority;
+        this.createdAt = System.currentTimeMillis();
+        this.createdNanos = clock.nanoTime();
+        this.intendedNanos = createdNanos; // closed loop - the order arrives when it is created
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public String getClinic() {
+        return clinic;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public String getTestType() {
+        return testType;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    public long getIntendedNanos() {
+        return intendedNanos;
+    }
+
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    public long getDequeuedNanos() {
+        return dequeuedNanos;
+    }
+
+    public long getAnalysisStartNanos() {
+        return analysisStartNanos;
+    }
+
+    public long getCompletedNanos() {
+        return completedNanos;
+    }
+
+    // open-loop generator: the scheduled arrival time, may be earlier than createdNanos
+    // if the generator fell behind (e.g. blocked on a full queue)
+    public void setIntendedNanos(long intendedNanos) {
+        this.intendedNanos = intendedNanos;
+    }
+
+    // called by the queue when the order is actually stored in the buffer
+    public void markQueued() {
+        queuedNanos = clock.nanoTime();
+    }
+
+    // called by the consumer as soon as take() returns
+    public void markDequeued() {
+        dequeuedNanos = clock.nanoTime();
+    }
+
+    public void markAnalysisStart() {
+        analysisStartNanos = clock.nanoTime();
+    }
+
+    public void markCompleted() {
+        completedNanos = clock.nanoTime();
+    }
+
+    // set by LeasingOrderQueue before it puts an expired / released order back, so the
+    // layers below (e.g. a recording) can tell it from an arrival
+    public void markRedelivered() {
+        redelivered = true;
+    }
+
+    public boolean isRedelivered() {
+        return redelivered;
+    }
+
+    // set by ShutdownDrain on the markers it queues behind the backlog, one per analyzer:
+    // the analyzer that takes one stops, the queue layers (recording, replication, leases)
+    // pass it through without treating it as an order
+    public void markEndMarker() {
+        endMarker = true;
+    }
+
+    public boolean isEndMarker() {
+        return endMarker;
+    }
+
+    // wall clock millis at which an analyzer took the order, derived from the nanoTime stamps
+    // (e.g. to look up the policy in force at dispatch in the policy history)
+    public long getDequeuedAt() {
+        return createdAt + (dequeuedNanos - createdNanos) / 1_000_000L;
+    }
+
+    // time the order spent waiting in the queue, in nanoseconds
+    public long getQueueWaitNanos() {
+        return dequeuedNanos - queuedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Order-" + orderId + "[" + patientId + "," + testType + ",P" + priority + "]";
+    }
+}
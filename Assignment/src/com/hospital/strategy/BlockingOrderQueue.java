@@ -0,0 +1,32 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.TestOrder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Part B: java.util.concurrent does all the locking
+public class BlockingOrderQueue implements OrderQueue {
+    private final BlockingQueue<TestOrder> queue;
+
+    public BlockingOrderQueue(int capacity, boolean fair) {
+        this.queue = new ArrayBlockingQueue<>(capacity, fair);
+    }
+
+    @Override
+    public void put(TestOrder order) throws InterruptedException {
+        order.markQueued(); // no hook inside ArrayBlockingQueue.put(), stamp just before offering
+        queue.put(order);
+    }
+
+    @Override
+    public TestOrder take() throws InterruptedException {
+        return queue.take();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
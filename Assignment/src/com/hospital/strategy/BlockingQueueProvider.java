@@ -0,0 +1,22 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+
+// Part B - ArrayBlockingQueue
+public class BlockingQueueProvider implements OrderQueueProvider {
+    @Override
+    public String name() {
+        return "blockingQueue";
+    }
+
+    @Override
+    public String description() {
+        return "Part B - ArrayBlockingQueue";
+    }
+
+    @Override
+    public OrderQueue create(int capacity, boolean fair) {
+        return new BlockingOrderQueue(capacity, fair);
+    }
+}
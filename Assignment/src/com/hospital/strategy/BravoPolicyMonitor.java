@@ -0,0 +1,160 @@
+package com.hospital.strategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.hospital.PolicyRWMonitor;
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.spi.ObservablePolicyStore;
+
+/*
+ * Reader-biased (BRAVO style) front end for the hand-rolled PolicyRWMonitor.
+ *
+ * While readBias is set a reader does not touch the monitor at all: it increments a
+ * striped counter (one cache line per stripe, picked by thread id), re-checks the bias
+ * and reads. Different auditors land on different lines, so reads no longer fight over
+ * the single `readers` int.
+ *
+ * A writer revokes the bias before it asks the monitor for the write lock, so from that
+ * moment new readers take the slow path through the monitor and queue behind the
+ * waiting writer - the writer-priority guarantee is kept. Once it holds the write lock
+ * it clears the bias again (no reader can set it while it holds the lock) and waits
+ * for the readers already counted in the stripes to leave.
+ *
+ * A slow-path reader turns the bias back on, but only after INHIBIT_FACTOR times the
+ * last revocation took, so write-heavy phases stay on the plain monitor - and never
+ * while a writer is between revoking it and endWrite(), or readers would stream past
+ * a waiting writer on the fast path.
+ */
+public class BravoPolicyMonitor implements ObservablePolicyStore {
+    private static final int PAD = 16; // ints per stripe = one 64 byte cache line
+    private static final int INHIBIT_FACTOR = 9;
+
+    private final PolicyRWMonitor monitor;
+    private final int stripes;
+    private final AtomicIntegerArray slots;
+    private volatile boolean readBias = true;
+    private volatile long inhibitUntil = 0; // nanoTime before which readers must not re-enable the bias
+    private final AtomicInteger writers = new AtomicInteger(); // revoked the bias, not yet in endWrite()
+    private final ThreadLocal<int[]> fastSlot = ThreadLocal.withInitial(() -> new int[] { -1 }); // startRead / endRead pairing
+
+    public BravoPolicyMonitor() {
+        this(new PolicyRWMonitor());
+    }
+
+    public BravoPolicyMonitor(PolicyRWMonitor monitor) {
+        this.monitor = monitor;
+        int n = Integer.highestOneBit(Math.max(64, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        this.stripes = n;
+        this.slots = new AtomicIntegerArray(n * PAD);
+    }
+
+    private int slot() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id * 0x9E3779B97F4A7C15L >>> 32); // spread consecutive thread ids
+        return (h & (stripes - 1)) * PAD;
+    }
+
+    // fast path: returns the slot the reader registered in, or -1 if it has to use the monitor
+    private int tryFastRead() {
+        if (!readBias) {
+            return -1;
+        }
+        int slot = slot();
+        slots.getAndIncrement(slot);
+        if (readBias) {
+            return slot; // a revoking writer will wait for us
+        }
+        slots.getAndDecrement(slot);
+        return -1;
+    }
+
+    // slow path reader holds the monitor's read lock, so no writer is active - but one may be
+    // waiting. If a writer showed up after the check, whichever of its revocation and our
+    // re-check comes second turns the bias back off
+    private void maybeRestoreBias() {
+        if (!readBias && writers.get() == 0 && System.nanoTime() >= inhibitUntil) {
+            readBias = true;
+            if (writers.get() > 0) {
+                readBias = false;
+            }
+        }
+    }
+
+    @Override
+    public String readPolicy() throws InterruptedException {
+        int slot = tryFastRead();
+        if (slot >= 0) {
+            String policy = monitor.getPolicy();
+            slots.getAndDecrement(slot);
+            return policy;
+        }
+        monitor.startRead();
+        try {
+            maybeRestoreBias();
+            return monitor.getPolicy();
+        } finally {
+            monitor.endRead();
+        }
+    }
+
+    public void startRead() throws InterruptedException {
+        int slot = tryFastRead();
+        if (slot < 0) {
+            monitor.startRead();
+            maybeRestoreBias();
+        }
+        fastSlot.get()[0] = slot;
+    }
+
+    public void endRead() {
+        int[] holder = fastSlot.get();
+        if (holder[0] >= 0) {
+            slots.getAndDecrement(holder[0]);
+        } else {
+            monitor.endRead();
+        }
+        holder[0] = -1;
+    }
+
+    public void startWrite() throws InterruptedException {
+        writers.incrementAndGet();
+        readBias = false; // new readers go to the monitor and wait behind us
+        try {
+            monitor.startWrite();
+        } catch (InterruptedException e) {
+            writers.decrementAndGet();
+            throw e;
+        }
+        readBias = false; // a slow reader may have re-enabled it before we got the lock
+        long start = System.nanoTime();
+        for (int i = 0; i < stripes; i++) {
+            while (slots.get(i * PAD) != 0) { // readers that got in before the revocation
+                Thread.yield();
+            }
+        }
+        long now = System.nanoTime();
+        inhibitUntil = now + (now - start) * INHIBIT_FACTOR;
+    }
+
+    public void endWrite() {
+        writers.decrementAndGet();
+        monitor.endWrite();
+    }
+
+    public String getPolicy() {
+        return monitor.getPolicy();
+    }
+
+    public void setPolicy(String policy) {
+        monitor.setPolicy(policy);
+    }
+
+    public PolicyChangeNotifier changes() {
+        return monitor.changes();
+    }
+
+    public boolean isReadBiased() {
+        return readBias;
+    }
+}
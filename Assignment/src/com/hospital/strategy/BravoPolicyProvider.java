@@ -0,0 +1,27 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// hand-rolled monitor behind a BRAVO reader bias - striped reader slots, writers revoke
+public class BravoPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "bravo";
+    }
+
+    @Override
+    public String description() {
+        return "Hand-rolled writer-priority monitor with a BRAVO reader bias (striped reader slots)";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new BravoPolicyMonitor();
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
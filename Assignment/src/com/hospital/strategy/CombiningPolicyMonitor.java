@@ -0,0 +1,171 @@
+package com.hospital.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.hospital.PolicyRWMonitor;
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.ObservablePolicyStore;
+
+/*
+ * Flat-combining write path for writePolicy() in front of the hand-rolled
+ * PolicyRWMonitor, which still does all the locking (writer priority, JFR events,
+ * RwLockMetrics) - like BravoPolicyMonitor wraps it for the read side.
+ *
+ * A supervisor does not take the write lock itself: it queues its update and tries to
+ * become the combiner. The combiner takes the write lock once, applies every queued
+ * update in arrival order (each one still gets its own version and history entry),
+ * releases the lock - one notifyAll for the whole batch - and then wakes the
+ * supervisors it served. The others park until their update is applied, or take over
+ * as combiner if nobody is combining.
+ *
+ * With N supervisors updating at once readers are pushed out once per batch instead of
+ * N times. The startWrite / setPolicy / endWrite bracket still works, uncombined.
+ */
+public class CombiningPolicyMonitor implements ObservablePolicyStore {
+    private static final int MAX_BATCH = 64; // bounds how long readers are held off by one batch
+    private static final long PARK_NANOS = 50_000; // re-check in case the combiner finished without us
+
+    private static final int PENDING = 0;
+    private static final int TAKEN = 1; // applied by a combiner, waiting for the write lock to be released
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    private final PolicyRWMonitor monitor;
+    private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+    private final AtomicLong batches = new AtomicLong(); // write lock acquisitions by combiners
+    private final AtomicLong combinedWrites = new AtomicLong(); // updates applied in them
+
+    public CombiningPolicyMonitor() {
+        this(new PolicyRWMonitor());
+    }
+
+    public CombiningPolicyMonitor(PolicyRWMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public void startRead() throws InterruptedException {
+        monitor.startRead();
+    }
+
+    public void endRead() {
+        monitor.endRead();
+    }
+
+    public void startWrite() throws InterruptedException {
+        monitor.startWrite();
+    }
+
+    public void endWrite() {
+        monitor.endWrite();
+    }
+
+    @Override
+    public void writePolicy(String policy) throws InterruptedException {
+        Request request = new Request(policy);
+        pending.add(request);
+        boolean interrupted = false;
+        while (request.state.get() != DONE) {
+            if (request.state.get() == PENDING && combining.compareAndSet(false, true)) {
+                try {
+                    combine();
+                } catch (InterruptedException e) {
+                    interrupted = true; // interrupted before taking anything, handled below
+                } finally {
+                    combining.set(false);
+                    wakeNext();
+                }
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+                interrupted |= Thread.interrupted();
+            }
+            if (interrupted && request.state.compareAndSet(PENDING, CANCELLED)) {
+                throw new InterruptedException();
+            } // else already applied - finish and keep the interrupt for the caller
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    // runs with `combining` held: one exclusive section for up to MAX_BATCH queued updates
+    private void combine() throws InterruptedException {
+        monitor.startWrite();
+        List<Request> taken = new ArrayList<>();
+        List<PolicySnapshot> published = new ArrayList<>();
+        try {
+            Request r;
+            while (taken.size() < MAX_BATCH && (r = pending.poll()) != null) {
+                if (!r.state.compareAndSet(PENDING, TAKEN))
+                    continue; // its supervisor gave up
+                monitor.setPolicy(r.policy);
+                taken.add(r);
+                // the combiner is the only writer, versions follow queue order. endWrite() then
+                // finds the last one already published and adds no version of its own
+                PolicySnapshot s = monitor.changes().changed(r.policy);
+                if (s != null)
+                    published.add(s);
+            }
+        } finally {
+            monitor.endWrite();
+        }
+        batches.incrementAndGet();
+        combinedWrites.addAndGet(taken.size());
+        for (PolicySnapshot s : published)
+            monitor.changes().fire(s);
+        for (Request r : taken) {
+            r.state.set(DONE);
+            LockSupport.unpark(r.waiter);
+        }
+    }
+
+    // the next queued supervisor takes over as combiner without waiting out its park
+    private void wakeNext() {
+        Request next = pending.peek();
+        if (next != null)
+            LockSupport.unpark(next.waiter);
+    }
+
+    public PolicyChangeNotifier changes() {
+        return monitor.changes();
+    }
+
+    public String getPolicy() {
+        return monitor.getPolicy();
+    }
+
+    public void setPolicy(String policy) {
+        monitor.setPolicy(policy);
+    }
+
+    // exclusive sections taken by combiners, each one pushes the readers out once
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getCombinedWrites() {
+        return combinedWrites.get();
+    }
+
+    public double getAverageBatch() {
+        long b = batches.get();
+        return b == 0 ? 0.0 : (double) combinedWrites.get() / b;
+    }
+
+    private static final class Request {
+        final String policy;
+        final Thread waiter = Thread.currentThread();
+        final AtomicInteger state = new AtomicInteger(PENDING);
+
+        Request(String policy) {
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// writer-priority monitor whose writePolicy() combines concurrent supervisors into one exclusive section
+public class CombiningPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "combining";
+    }
+
+    @Override
+    public String description() {
+        return "Writer-priority monitor with flat-combining group commit of writes";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new CombiningPolicyMonitor();
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hospital.strategy;
+
+import com.hospital.PolicyRWMonitor;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// Part A/B/C - hand-rolled writer-priority monitor
+public class HandRolledPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "handRolled";
+    }
+
+    @Override
+    public String description() {
+        return "Part A/B/C - hand-rolled writer-priority monitor";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new PolicyRWMonitor();
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
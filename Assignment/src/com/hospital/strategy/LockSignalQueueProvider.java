@@ -0,0 +1,23 @@
+package com.hospital.strategy;
+
+import com.hospital.partc.BoundedQueueMonitorC;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+
+// Part C - ReentrantLock with notFull / notEmpty conditions, signal()
+public class LockSignalQueueProvider implements OrderQueueProvider {
+    @Override
+    public String name() {
+        return "lockSignal";
+    }
+
+    @Override
+    public String description() {
+        return "Part C - ReentrantLock with notFull / notEmpty conditions, signal()";
+    }
+
+    @Override
+    public OrderQueue create(int capacity, boolean fair) {
+        return new BoundedQueueMonitorC(capacity, fair, false);
+    }
+}
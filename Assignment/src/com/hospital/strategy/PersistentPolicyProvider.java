@@ -0,0 +1,74 @@
+package com.hospital.strategy;
+
+import com.hospital.policy.PersistentPolicyStore;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+// snapshots persisted to a memory-mapped file, restored on the next start.
+// file: the FILE_OPTION passed to create (Simulator --policyFile), a keyed store gets its own
+// file next to it (hospital-policy-ICU.dat). Unset, every store gets a throwaway temp file -
+// nothing lands in the working directory. -Dhospital.policy.durable=true forces every write
+public class PersistentPolicyProvider implements PolicyStoreProvider {
+    public static final String FILE_OPTION = "file";
+
+    @Override
+    public String name() {
+        return "persistent";
+    }
+
+    @Override
+    public String description() {
+        return "Copy-on-write snapshots persisted to a memory-mapped file, warm restart";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return create(fair, Map.of());
+    }
+
+    @Override
+    public PolicyStore create(boolean fair, Map<String, String> options) {
+        String file = options.get(FILE_OPTION);
+        return open(file == null ? null : Paths.get(file), "hospital-policy");
+    }
+
+    @Override
+    public PolicyStore create(boolean fair, String key, Map<String, String> options) {
+        String suffix = "-" + key.replaceAll("[^A-Za-z0-9_-]", "_");
+        String file = options.get(FILE_OPTION);
+        if (file == null)
+            return open(null, "hospital-policy" + suffix);
+        Path path = Paths.get(file);
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        name = dot < 0 ? name + suffix : name.substring(0, dot) + suffix + name.substring(dot);
+        return open(path.resolveSibling(name), null);
+    }
+
+    // file == null: a fresh temp file named after prefix, deleted when the JVM exits
+    private static PolicyStore open(Path file, String prefix) {
+        try {
+            if (file == null) {
+                file = Files.createTempFile(prefix, ".dat");
+                Files.delete(file); // open() creates it
+                file.toFile().deleteOnExit();
+            }
+            return PersistentPolicyStore.open(file, PersistentPolicyStore.DEFAULT_HISTORY,
+                    Boolean.getBoolean("hospital.policy.durable"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
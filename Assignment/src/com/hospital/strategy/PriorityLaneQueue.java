@@ -0,0 +1,128 @@
+package com.hospital.strategy;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.hospital.spi.PriorityOrderQueue;
+import com.hospital.spi.TestOrder;
+
+/*
+ * Bounded queue with one FIFO lane per priority (P1, P2, P3), ReentrantLock +
+ * notFull / notEmpty like Part C.
+ *
+ * Each order gets a sequence number on put, so take() can still hand out the oldest
+ * order overall (head with the smallest sequence), while takeHighestPriority() empties
+ * the P1 lane first. Either is O(number of lanes). Priorities outside 1..3 are clamped.
+ */
+public class PriorityLaneQueue implements PriorityOrderQueue {
+    private static final int LANES = 3;
+
+    private final Lane[] lanes = new Lane[LANES];
+    private final int capacity;
+    private int count = 0;
+    private long nextSeq = 0;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final Condition notEmpty;
+
+    public PriorityLaneQueue(int capacity, boolean fair) {
+        this.capacity = capacity;
+        this.lock = new ReentrantLock(fair);
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+        for (int i = 0; i < LANES; i++) {
+            lanes[i] = new Lane(capacity);
+        }
+    }
+
+    public void put(TestOrder order) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            order.markQueued();
+            int lane = Math.min(Math.max(order.getPriority(), 1), LANES) - 1;
+            lanes[lane].add(order, nextSeq++);
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TestOrder take() throws InterruptedException {
+        return take(false);
+    }
+
+    public TestOrder takeHighestPriority() throws InterruptedException {
+        return take(true);
+    }
+
+    private TestOrder take(boolean priorityFirst) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            Lane from = null;
+            for (Lane lane : lanes) {
+                if (lane.size == 0)
+                    continue;
+                if (priorityFirst) {
+                    from = lane;
+                    break;
+                }
+                if (from == null || lane.headSeq() < from.headSeq())
+                    from = lane;
+            }
+            TestOrder order = from.poll();
+            count--;
+            notFull.signal();
+            return order;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ring buffer of orders and their put sequence, guarded by the queue lock
+    private static final class Lane {
+        final TestOrder[] orders;
+        final long[] seqs;
+        int head;
+        int size;
+
+        Lane(int capacity) {
+            orders = new TestOrder[capacity];
+            seqs = new long[capacity];
+        }
+
+        void add(TestOrder order, long seq) {
+            int tail = (head + size) % orders.length;
+            orders[tail] = order;
+            seqs[tail] = seq;
+            size++;
+        }
+
+        long headSeq() {
+            return seqs[head];
+        }
+
+        TestOrder poll() {
+            TestOrder order = orders[head];
+            orders[head] = null;
+            head = (head + 1) % orders.length;
+            size--;
+            return order;
+        }
+    }
+}
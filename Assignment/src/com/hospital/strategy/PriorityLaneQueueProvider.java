@@ -0,0 +1,22 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+
+// one lane per priority - FIFO by default, priority-first when the policy asks for it
+public class PriorityLaneQueueProvider implements OrderQueueProvider {
+    @Override
+    public String name() {
+        return "priorityLanes";
+    }
+
+    @Override
+    public String description() {
+        return "ReentrantLock with a FIFO lane per priority, supports priority-first dispatch";
+    }
+
+    @Override
+    public OrderQueue create(int capacity, boolean fair) {
+        return new PriorityLaneQueue(capacity, fair);
+    }
+}
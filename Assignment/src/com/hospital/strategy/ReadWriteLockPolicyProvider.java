@@ -0,0 +1,23 @@
+package com.hospital.strategy;
+
+import com.hospital.partd.PolicyRWMonitorD;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// Part D - ReentrantReadWriteLock
+public class ReadWriteLockPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "readWriteLock";
+    }
+
+    @Override
+    public String description() {
+        return "Part D - ReentrantReadWriteLock";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new PolicyRWMonitorD(fair);
+    }
+}
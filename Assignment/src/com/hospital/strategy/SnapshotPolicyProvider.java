@@ -0,0 +1,28 @@
+package com.hospital.strategy;
+
+import com.hospital.policy.SnapshotPolicyStore;
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// copy-on-write snapshots behind an AtomicReference - no locks at all
+public class SnapshotPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "snapshot";
+    }
+
+    @Override
+    public String description() {
+        return "Lock-free copy-on-write versioned snapshots (AtomicReference + CAS)";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new SnapshotPolicyStore();
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.strategy;
+
+import com.hospital.spi.PolicyStore;
+import com.hospital.spi.PolicyStoreProvider;
+
+// StampedLock - optimistic reads that write no shared state
+public class StampedLockPolicyProvider implements PolicyStoreProvider {
+    @Override
+    public String name() {
+        return "stampedLock";
+    }
+
+    @Override
+    public String description() {
+        return "StampedLock - optimistic reads, exclusive writes";
+    }
+
+    @Override
+    public PolicyStore create(boolean fair) {
+        return new StampedPolicyMonitor();
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
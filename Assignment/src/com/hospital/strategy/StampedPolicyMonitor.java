@@ -0,0 +1,113 @@
+package com.hospital.strategy;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+import com.hospital.jfr.PolicyReadAcquireEvent;
+import com.hospital.jfr.PolicyWriteAcquireEvent;
+import com.hospital.jfr.PolicyWriteReleaseEvent;
+import com.hospital.policy.PolicyChangeNotifier;
+import com.hospital.policy.PolicySnapshot;
+import com.hospital.spi.ObservablePolicyStore;
+
+/*
+ * Policy store on a StampedLock.
+ *
+ * readPolicy() is an optimistic read: take a stamp, read the field, validate the stamp.
+ * Nothing in shared memory is written, so auditors never contend with each other and
+ * only fall back to a real read lock if a supervisor wrote in between.
+ *
+ * The startRead / endRead bracket still works (through the lock's read view) for
+ * callers that hold the read lock across several operations, and writers are exclusive
+ * as before. StampedLock has no fairness setting and is not reentrant.
+ */
+public class StampedPolicyMonitor implements ObservablePolicyStore {
+    private static final String MONITOR = "StampedPolicyMonitor";
+
+    private final StampedLock lock = new StampedLock();
+    private final Lock readView = lock.asReadLock();
+    private final Lock writeView = lock.asWriteLock();
+    private String currentPolicy = "NORMAL"; // plain field, validate() orders the optimistic read
+    private long writeAcquiredNanos; // guarded by the write lock, for the JFR hold time
+    private final PolicyChangeNotifier changes = new PolicyChangeNotifier(PolicySnapshot.INITIAL); // push to auditors
+
+    @Override
+    public String readPolicy() throws InterruptedException {
+        long stamp = lock.tryOptimisticRead();
+        String policy = currentPolicy;
+        if (lock.validate(stamp)) {
+            return policy; // no writer since the stamp - the common case
+        }
+        stamp = lock.readLockInterruptibly(); // a writer got in, read under the lock
+        try {
+            return currentPolicy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void startRead() throws InterruptedException {
+        PolicyReadAcquireEvent event = new PolicyReadAcquireEvent();
+        event.begin();
+        long requestedNanos = System.nanoTime();
+        readView.lockInterruptibly();
+        event.end();
+        long acquiredNanos = System.nanoTime();
+        if (event.shouldCommit()) {
+            event.monitor = MONITOR;
+            event.waitTime = acquiredNanos - requestedNanos;
+            event.readers = lock.getReadLockCount();
+            event.commit();
+        }
+    }
+
+    public void endRead() {
+        readView.unlock();
+    }
+
+    public void startWrite() throws InterruptedException {
+        PolicyWriteAcquireEvent event = new PolicyWriteAcquireEvent();
+        event.begin();
+        long requestedNanos = System.nanoTime();
+        int readersAtRequest = lock.getReadLockCount();
+        writeView.lockInterruptibly();
+        event.end();
+        long acquiredNanos = System.nanoTime();
+        writeAcquiredNanos = acquiredNanos;
+        if (event.shouldCommit()) {
+            event.monitor = MONITOR;
+            event.waitTime = acquiredNanos - requestedNanos;
+            event.readersAtRequest = readersAtRequest;
+            event.writersWaiting = 0; // StampedLock does not expose its queue
+            event.commit();
+        }
+    }
+
+    public void endWrite() {
+        long holdTime = System.nanoTime() - writeAcquiredNanos;
+        String policy = currentPolicy;
+        PolicySnapshot changed = changes.changed(policy); // still under the write lock - versions in write order
+        writeView.unlock();
+        PolicyWriteReleaseEvent event = new PolicyWriteReleaseEvent();
+        if (event.shouldCommit()) {
+            event.monitor = MONITOR;
+            event.holdTime = holdTime;
+            event.policy = policy;
+            event.commit();
+        }
+        changes.fire(changed);
+    }
+
+    public PolicyChangeNotifier changes() {
+        return changes;
+    }
+
+    // only meaningful inside startRead / endRead or startWrite / endWrite
+    public String getPolicy() {
+        return currentPolicy;
+    }
+
+    public void setPolicy(String policy) {
+        this.currentPolicy = policy;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hospital.strategy;
+
+import com.hospital.BoundedQueueMonitor;
+import com.hospital.spi.OrderQueue;
+import com.hospital.spi.OrderQueueProvider;
+
+// Part A - synchronized monitor with wait / notifyAll
+public class SynchronizedQueueProvider implements OrderQueueProvider {
+    @Override
+    public String name() {
+        return "synchronized";
+    }
+
+    @Override
+    public String description() {
+        return "Part A - synchronized monitor with wait / notifyAll";
+    }
+
+    @Override
+    public OrderQueue create(int capacity, boolean fair) {
+        return new BoundedQueueMonitor(capacity);
+    }
+
+    @Override
+    public boolean supportsFairness() {
+        return false;
+    }
+}
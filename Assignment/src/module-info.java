@@ -6,4 +6,27 @@
  *
  */
 module Assignment {
-}
\ No newline at end of file
+    requires jdk.jfr; // custom flight recorder events in com.hospital.jfr
+    requires jdk.httpserver; // HTTP / JSON intake in com.hospital.net
+
+    // queue / policy strategies are plugged in through ServiceLoader
+    exports com.hospital.spi;
+    exports com.hospital.policy; // PolicySnapshot / listeners used by the spi
+    exports com.hospital.metrics; // LatencyHistogram, the policy change delivery latency
+    uses com.hospital.spi.OrderQueueProvider;
+    uses com.hospital.spi.PolicyStoreProvider;
+    provides com.hospital.spi.OrderQueueProvider with
+            com.hospital.strategy.SynchronizedQueueProvider,
+            com.hospital.strategy.BlockingQueueProvider,
+            com.hospital.strategy.LockSignalQueueProvider,
+            com.hospital.strategy.LockSignalAllQueueProvider,
+            com.hospital.strategy.PriorityLaneQueueProvider;
+    provides com.hospital.spi.PolicyStoreProvider with
+            com.hospital.strategy.HandRolledPolicyProvider,
+            com.hospital.strategy.ReadWriteLockPolicyProvider,
+            com.hospital.strategy.StampedLockPolicyProvider,
+            com.hospital.strategy.SnapshotPolicyProvider,
+            com.hospital.strategy.BravoPolicyProvider,
+            com.hospital.strategy.PersistentPolicyProvider,
+            com.hospital.strategy.CombiningPolicyProvider;
+}
@@ -0,0 +1,132 @@
+package com.hospital.lease;
+
+import com.hospital.partc.BoundedQueueMonitorC;
+import com.hospital.spi.Delivery;
+import com.hospital.spi.TestOrder;
+
+import java.util.function.BooleanSupplier;
+
+/*
+ * Lease bookkeeping checks for LeasingOrderQueue: ack / release settle only the delivery
+ * they were handed, so an analyzer whose lease expired cannot settle (or hand back) the
+ * redelivery another analyzer is working on.
+ *
+ * No test framework in this tree - run it on the class path:
+ *   java -cp out:test-out com.hospital.lease.LeasingOrderQueueTest
+ */
+public class LeasingOrderQueueTest {
+    private static final long VISIBILITY_MS = 30;
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        ackInTime();
+        lateAckLeavesRedeliveryLeased();
+        lateReleaseLeavesRedeliveryLeased();
+        endMarkersAreNotLeased();
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("LeasingOrderQueueTest: all checks passed");
+    }
+
+    private static void ackInTime() throws Exception {
+        LeasingOrderQueue queue = new LeasingOrderQueue(new BoundedQueueMonitorC(16), VISIBILITY_MS);
+        try {
+            TestOrder order = new TestOrder("ER", "ER-P1", "XRay", 1);
+            queue.put(order);
+            Delivery a = queue.lease();
+            check(a.order() == order, "lease hands out the queued order");
+            queue.ack(a);
+            Thread.sleep(3 * VISIBILITY_MS);
+            check(queue.getAcked() == 1 && queue.inFlight() == 0 && queue.size() == 0,
+                    "acked in time - settled, never redelivered");
+        } finally {
+            queue.close();
+        }
+    }
+
+    // A's lease expires, B takes the redelivery, A acks late, B dies: the order must come back
+    private static void lateAckLeavesRedeliveryLeased() throws Exception {
+        LeasingOrderQueue queue = new LeasingOrderQueue(new BoundedQueueMonitorC(16), VISIBILITY_MS);
+        try {
+            queue.put(new TestOrder("ER", "ER-P2", "MRI", 2));
+            Delivery a = queue.lease();
+            check(await(() -> queue.size() == 1), "expired lease is redelivered");
+            Delivery b = queue.lease();
+            check(b != a && b.order() == a.order(), "redelivery is a new delivery of the same order");
+
+            queue.ack(a);
+            check(queue.getLateAcks() == 1 && queue.getAcked() == 0, "late ack is counted, not applied");
+            check(queue.inFlight() == 1, "late ack leaves the redelivery leased");
+
+            // B crashes without acking - its lease must still expire into another redelivery
+            check(await(() -> queue.size() == 1), "redelivery whose analyzer died comes back");
+            check(queue.getRedelivered() == 2, "order delivered a third time");
+        } finally {
+            queue.close();
+        }
+    }
+
+    // a late release must not hand back an order B is still working on
+    private static void lateReleaseLeavesRedeliveryLeased() throws Exception {
+        LeasingOrderQueue queue = new LeasingOrderQueue(new BoundedQueueMonitorC(16), VISIBILITY_MS);
+        try {
+            queue.put(new TestOrder("ICU", "ICU-P3", "CTScan", 1));
+            Delivery a = queue.lease();
+            check(await(() -> queue.size() == 1), "expired lease is redelivered");
+            Delivery b = queue.lease();
+
+            queue.release(a);
+            Thread.sleep(VISIBILITY_MS / 3); // the reaper would put a wrongly released order back by now
+            check(queue.size() == 0 && queue.getReleased() == 0, "late release does not requeue");
+            check(queue.inFlight() == 1, "late release leaves the redelivery leased");
+
+            queue.ack(b);
+            check(queue.getAcked() == 1 && queue.inFlight() == 0, "the current analyzer's ack settles it");
+        } finally {
+            queue.close();
+        }
+    }
+
+    // a drain's markers pass through: never tracked, never redelivered, their acks are no-ops
+    private static void endMarkersAreNotLeased() throws Exception {
+        LeasingOrderQueue queue = new LeasingOrderQueue(new BoundedQueueMonitorC(16), VISIBILITY_MS);
+        try {
+            for (int i = 0; i < 2; i++) {
+                TestOrder end = new TestOrder("Shutdown", "-", "END", 3);
+                end.markEndMarker();
+                queue.put(end);
+            }
+            Delivery a = queue.lease();
+            Delivery b = queue.lease();
+            check(a.order().isEndMarker() && b.order().isEndMarker() && a.order() != b.order(),
+                    "each analyzer gets its own marker");
+            check(queue.inFlight() == 0, "markers are not leased");
+            Thread.sleep(3 * VISIBILITY_MS);
+            check(queue.size() == 0 && queue.getRedelivered() == 0, "markers are never redelivered");
+            queue.ack(a);
+            queue.ack(b);
+            check(queue.getAcked() == 0 && queue.getLateAcks() == 0, "acking a marker settles nothing");
+        } finally {
+            queue.close();
+        }
+    }
+
+    // polls until the condition holds, for up to ten visibility timeouts
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + VISIBILITY_MS * 10 * 1_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok)
+            failures++;
+        System.out.println((ok ? "ok   " : "FAIL ") + what);
+    }
+}
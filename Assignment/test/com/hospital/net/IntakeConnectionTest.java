@@ -0,0 +1,137 @@
+package com.hospital.net;
+
+import com.hospital.partc.BoundedQueueMonitorC;
+import com.hospital.spi.TestOrder;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Decoder checks for IntakeConnection.read(): well-formed frames decode, truncated and
+ * oversized ones are rejected with an IOException (only that client is dropped) and
+ * never read into the next frame.
+ *
+ * No test framework in this tree - run it on the class path:
+ *   java -cp out:test-out com.hospital.net.IntakeConnectionTest
+ */
+public class IntakeConnectionTest {
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        validFrame();
+        oversizedString();
+        truncatedStrings();
+        paddedBodyStopsAtFrameEnd();
+        badPriority();
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("IntakeConnectionTest: all checks passed");
+    }
+
+    private static void validFrame() throws Exception {
+        ByteBuffer b = frame(1, "ER", "XRay", "ER-P1");
+        BoundedQueueMonitorC queue = new BoundedQueueMonitorC(16);
+        decode(b, queue);
+        check(queue.size() == 1, "valid frame gives one order");
+        TestOrder order = queue.take();
+        check(order.getClinic().equals("ER") && order.getTestType().equals("XRay")
+                && order.getPatientId().equals("ER-P1") && order.getPriority() == 1, "valid frame decodes its fields");
+    }
+
+    // body length 20 (only the fixed part) but a clinic length of 200 - the string would run
+    // past the frame into whatever follows it in the buffer
+    private static void oversizedString() throws Exception {
+        ByteBuffer b = ByteBuffer.allocate(512);
+        b.putShort((short) OrderFrames.FIXED_BODY);
+        b.putLong(1).putLong(System.nanoTime()).put((byte) 1);
+        b.put((byte) 200).put((byte) 0).put((byte) 0);
+        b.put(new byte[300]); // plenty of bytes after the frame to underflow into
+        b.flip();
+        expectIOException(b, "clinic length beyond the frame");
+    }
+
+    // strings claim more than the body holds, the rest would come from the next frame
+    private static void truncatedStrings() throws Exception {
+        ByteBuffer next = frame(2, "ICU", "MRI", "ICU-P2");
+        ByteBuffer b = ByteBuffer.allocate(512);
+        b.putShort((short) (OrderFrames.FIXED_BODY + 2));
+        b.putLong(1).putLong(System.nanoTime()).put((byte) 1);
+        b.put((byte) 2).put("ER".getBytes(StandardCharsets.US_ASCII));
+        b.put((byte) 4).put("XRay".getBytes(StandardCharsets.US_ASCII)); // past the declared body
+        b.put((byte) 0);
+        b.put(next);
+        b.flip();
+        expectIOException(b, "strings overrunning the declared body");
+    }
+
+    // a body longer than its strings: the padding is skipped, the next frame decodes intact
+    private static void paddedBodyStopsAtFrameEnd() throws Exception {
+        ByteBuffer b = ByteBuffer.allocate(512);
+        b.putShort((short) (OrderFrames.FIXED_BODY + 2 + 5));
+        b.putLong(1).putLong(System.nanoTime()).put((byte) 2);
+        b.put((byte) 2).put("ER".getBytes(StandardCharsets.US_ASCII));
+        b.put((byte) 0).put((byte) 0);
+        b.put(new byte[5]);
+        b.put(frame(2, "ICU", "MRI", "ICU-P2"));
+        b.flip();
+        BoundedQueueMonitorC queue = new BoundedQueueMonitorC(16);
+        decode(b, queue);
+        check(queue.size() == 2, "padded frame and the one after it both decode");
+        queue.take();
+        TestOrder second = queue.take();
+        check(second.getClinic().equals("ICU") && second.getPatientId().equals("ICU-P2"),
+                "frame after a padded one is read from its own start");
+    }
+
+    private static void badPriority() throws Exception {
+        ByteBuffer b = frame(1, "ER", "XRay", "ER-P1");
+        b.put(OrderFrames.HEADER + 16, (byte) 7);
+        expectIOException(b, "priority outside 1..3");
+    }
+
+    private static ByteBuffer frame(long seq, String clinic, String testType, String patientId) {
+        ByteBuffer b = ByteBuffer.allocate(OrderFrames.MAX_FRAME);
+        OrderFrames.encode(b, seq, System.nanoTime(), 1, clinic.getBytes(StandardCharsets.UTF_8),
+                testType.getBytes(StandardCharsets.UTF_8), patientId.getBytes(StandardCharsets.UTF_8));
+        b.flip();
+        return b;
+    }
+
+    private static void expectIOException(ByteBuffer bytes, String what) throws Exception {
+        try {
+            decode(bytes, new BoundedQueueMonitorC(16));
+            check(false, what + " is rejected");
+        } catch (IOException e) {
+            check(true, what + " is rejected");
+        } catch (RuntimeException e) {
+            check(false, what + " is rejected with an IOException, got " + e);
+        }
+    }
+
+    // pushes the bytes through a loopback connection into IntakeConnection.read()
+    private static void decode(ByteBuffer bytes, BoundedQueueMonitorC queue) throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                SocketChannel accepted = server.accept()) {
+            while (bytes.hasRemaining())
+                client.write(bytes);
+            client.shutdownOutput(); // everything is in the socket buffer before the single read
+            IntakeConnection connection = new IntakeConnection(accepted, ByteBuffer.allocateDirect(64 * 1024));
+            connection.read(queue);
+        }
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok)
+            failures++;
+        System.out.println((ok ? "ok   " : "FAIL ") + what);
+    }
+}